@@ -0,0 +1,156 @@
+package com.jme.adopterdla.adopterdla.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares JMH results, written with {@code -rf json}, against a stored baseline and fails when a benchmark got slower
+ * than the threshold allows.
+ * <p>
+ * Benchmarks are matched by name and parameters. A throughput score regresses when it goes down, any other score
+ * (average time, sample time, single shot) when it goes up. Benchmarks missing from either file are reported but never
+ * fail the comparison. When there is no baseline yet, the results are stored as the baseline.
+ * <p>
+ * Usage: {@code BaselineComparator <baseline.json> <result.json> <threshold in percent>}; exits with status 1 on a
+ * regression.
+ */
+public class BaselineComparator {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final double thresholdPercent;
+
+    public BaselineComparator(double thresholdPercent) {
+        this.thresholdPercent = thresholdPercent;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: BaselineComparator <baseline.json> <result.json> <threshold in percent>");
+            System.exit(2);
+        }
+        Path baseline = Path.of(args[0]);
+        Path result = Path.of(args[1]);
+        if (Files.notExists(baseline)) {
+            Files.copy(result, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("No baseline found, " + result + " stored as " + baseline);
+            return;
+        }
+        List<Comparison> comparisons = new BaselineComparator(Double.parseDouble(args[2])).compare(baseline, result);
+        boolean regressed = report(comparisons, System.out);
+        if (regressed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Compares every benchmark of the result with the same benchmark of the baseline.
+     *
+     * @param baseline the JMH JSON results of the baseline
+     * @param result   the JMH JSON results to check
+     * @return the comparisons sorted by benchmark, followed by the benchmarks missing from the result
+     * @throws IOException if a file cannot be read
+     */
+    public List<Comparison> compare(Path baseline, Path result) throws IOException {
+        Map<String, Score> baselineScores = read(baseline);
+        Map<String, Score> resultScores = read(result);
+        List<Comparison> comparisons = new ArrayList<>();
+        for (Map.Entry<String, Score> entry : resultScores.entrySet()) {
+            comparisons.add(compare(entry.getKey(), baselineScores.get(entry.getKey()), entry.getValue()));
+        }
+        baselineScores.keySet().stream()
+                .filter(key -> !resultScores.containsKey(key))
+                .forEach(key -> comparisons.add(new Comparison(key, baselineScores.get(key), null, Double.NaN, false)));
+        return comparisons;
+    }
+
+    private Comparison compare(String key, Score baseline, Score result) {
+        if (baseline == null) {
+            return new Comparison(key, null, result, Double.NaN, false);
+        }
+        double change = (result.score() - baseline.score()) / baseline.score() * 100;
+        // A lower throughput or a higher time is a slowdown
+        double slowdown = "thrpt".equals(result.mode()) ? -change : change;
+        return new Comparison(key, baseline, result, slowdown, slowdown > thresholdPercent);
+    }
+
+    /**
+     * Prints the comparisons.
+     *
+     * @return {@code true} if at least one benchmark regressed
+     */
+    static boolean report(List<Comparison> comparisons, PrintStream out) {
+        boolean regressed = false;
+        for (Comparison comparison : comparisons) {
+            if (comparison.baseline() == null) {
+                out.printf("NEW      %s: %s%n", comparison.benchmark(), comparison.result());
+            } else if (comparison.result() == null) {
+                out.printf("MISSING  %s: %s%n", comparison.benchmark(), comparison.baseline());
+            } else {
+                out.printf("%-8s %s: %s -> %s (%+.1f%% slower)%n", comparison.regressed() ? "REGRESS" : "OK",
+                        comparison.benchmark(), comparison.baseline(), comparison.result(), comparison.slowdownPercent());
+            }
+            regressed |= comparison.regressed();
+        }
+        return regressed;
+    }
+
+    private static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new TreeMap<>();
+        for (JsonNode benchmark : OBJECT_MAPPER.readTree(file.toFile())) {
+            JsonNode metric = benchmark.get("primaryMetric");
+            scores.put(key(benchmark), new Score(benchmark.get("mode").asText(), metric.get("score").asDouble(),
+                    metric.get("scoreError").asDouble(), metric.get("scoreUnit").asText()));
+        }
+        return scores;
+    }
+
+    /**
+     * Returns the benchmark name followed by its parameters, e.g. {@code JwtBenchmark.parseToken(cacheMaxSize=0)}.
+     */
+    private static String key(JsonNode benchmark) {
+        String name = benchmark.get("benchmark").asText();
+        String key = name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1);
+        JsonNode params = benchmark.get("params");
+        if (params == null || params.isEmpty()) {
+            return key;
+        }
+        Map<String, String> sortedParams = new TreeMap<>();
+        params.fields().forEachRemaining(param -> sortedParams.put(param.getKey(), param.getValue().asText()));
+        return key + sortedParams.toString().replace('{', '(').replace('}', ')').replace(", ", ",");
+    }
+
+    /**
+     * @param mode  the JMH mode, e.g. {@code avgt} or {@code thrpt}
+     * @param score the score
+     * @param error the score error at 99.9%
+     * @param unit  the unit of the score
+     */
+    public record Score(String mode, double score, double error, String unit) {
+
+        @Override
+        public String toString() {
+            return String.format("%.3f ± %.3f %s", score, error, unit);
+        }
+    }
+
+    /**
+     * @param benchmark       the benchmark name and parameters
+     * @param baseline        the baseline score, {@code null} for a new benchmark
+     * @param result          the new score, {@code null} for a benchmark that is no longer run
+     * @param slowdownPercent how much slower the benchmark got, negative when faster
+     * @param regressed       whether the slowdown exceeds the threshold
+     */
+    public record Comparison(String benchmark, Score baseline, Score result, double slowdownPercent, boolean regressed) {
+    }
+}
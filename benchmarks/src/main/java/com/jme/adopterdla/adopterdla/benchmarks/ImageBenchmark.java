@@ -0,0 +1,103 @@
+package com.jme.adopterdla.adopterdla.benchmarks;
+
+import com.jme.adopterdla.adopterdla.common.entity.BlobReference;
+import com.jme.adopterdla.adopterdla.common.entity.repository.BlobDeletionRepository;
+import com.jme.adopterdla.adopterdla.common.entity.repository.BlobReferenceRepository;
+import com.jme.adopterdla.adopterdla.common.storage.InMemoryBlobStore;
+import com.jme.adopterdla.adopterdla.common.utils.AzurePersistImageUtils;
+import com.jme.adopterdla.adopterdla.common.utils.ImageVariantGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Proxy;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving a base64 encoded photo, as sent in {@code imageBase64}, to an in-memory blob store: a new photo is decoded,
+ * hashed and stored, while a photo already stored is only decoded and hashed.
+ * <p>
+ * The resized variants are generated in the background, off the request path, so they are left out.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImageBenchmark {
+
+    @Param({"65536", "1048576"})
+    private int imageSize;
+
+    private final Map<String, Integer> references = new ConcurrentHashMap<>();
+    private AzurePersistImageUtils imageUtils;
+    private String base64Image;
+
+    @Setup
+    public void setUp() {
+        InMemoryBlobStore blobStore = new InMemoryBlobStore();
+        BlobReferenceRepository blobReferences = blobReferences(references);
+        ImageVariantGenerator noVariants = new ImageVariantGenerator(blobStore, blobReferences, 1, 1, 40_000_000) {
+            @Override
+            public void generateVariants(String imageUrl) {
+            }
+        };
+        imageUtils = new AzurePersistImageUtils(blobStore, blobReferences,
+                unsupported(BlobDeletionRepository.class), noVariants);
+        byte[] image = new byte[imageSize];
+        new Random(42).nextBytes(image);
+        base64Image = Base64.getEncoder().encodeToString(image);
+    }
+
+    @Benchmark
+    public String saveNewImage() {
+        // Forgetting the reference makes the photo new again; it is negligible next to hashing and storing it
+        references.clear();
+        return imageUtils.saveImageData(base64Image).block();
+    }
+
+    @Benchmark
+    public String saveStoredImage() {
+        return imageUtils.saveImageData(base64Image).block();
+    }
+
+    /**
+     * Reference counts kept in the given map, in place of the {@code blob_refs} table.
+     */
+    private static BlobReferenceRepository blobReferences(Map<String, Integer> references) {
+        return (BlobReferenceRepository) Proxy.newProxyInstance(BlobReferenceRepository.class.getClassLoader(),
+                new Class<?>[]{BlobReferenceRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    // The in-memory store never fails, so a blob is stored once its first reference is counted
+                    case "increment" -> Mono.fromCallable(() -> {
+                        int refCount = references.merge((String) args[0], 1, Integer::sum);
+                        return new BlobReference((String) args[0], refCount, refCount > 1, false);
+                    });
+                    case "markStored" -> Mono.just(1);
+                    case "decrement" -> Mono.justOrEmpty(references.computeIfPresent((String) args[0],
+                            (name, refCount) -> Math.max(0, refCount - 1)));
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static <T> T unsupported(Class<T> repository) {
+        return repository.cast(Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[]{repository},
+                (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName());
+                }));
+    }
+}
@@ -0,0 +1,129 @@
+package com.jme.adopterdla.adopterdla.benchmarks;
+
+import com.jme.adopterdla.adopterdla.configs.security.JwtAuthenticationConverter;
+import com.jme.adopterdla.adopterdla.configs.security.service.JwtService;
+import com.jme.adopterdla.adopterdla.configs.security.service.ParsedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.lang.reflect.Proxy;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing on login and refresh, and token parsing on every authenticated request. Parsing is measured with the
+ * parsed token cache disabled, as on the first request with a token, and with the default cache size, as on the
+ * following ones.
+ * <p>
+ * The authentication of a request is measured end to end through {@link JwtAuthenticationConverter#convert}, next to
+ * the path it replaced, which verified the token four times and rebuilt the key and the parser on every pass. The
+ * replaced path does not use the cache, so its score is the same for both cache sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret";
+
+    @Param({"0", "10000"})
+    private long cacheMaxSize;
+
+    private JwtService jwtService;
+    private JwtAuthenticationConverter jwtAuthenticationConverter;
+    private Authentication authentication;
+    private String token;
+    private ServerWebExchange exchange;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, 30, cacheMaxSize);
+        User user = new User("admin@example.com", "unused", AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_USER"));
+        authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        token = jwtService.generateToken(authentication, false);
+        jwtAuthenticationConverter = new JwtAuthenticationConverter(jwtService);
+        exchange = bearerRequest(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(authentication, false);
+    }
+
+    @Benchmark
+    public ParsedToken parseToken() {
+        return jwtService.parseToken(token);
+    }
+
+    @Benchmark
+    public Authentication convertRequest() {
+        return jwtAuthenticationConverter.convert(exchange).block();
+    }
+
+    @Benchmark
+    public Authentication convertRequestFourParses() {
+        String jwt = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION).substring(7);
+        // The expiration check, the validation and each claim extraction used to verify the token again
+        if (parseClaims(jwt).getExpiration().before(new Date())) {
+            throw new IllegalStateException("Token is expired");
+        }
+        parseClaims(jwt);
+        String username = parseClaims(jwt).getSubject();
+        List<SimpleGrantedAuthority> authorities = ((List<?>) parseClaims(jwt).get("authorities")).stream()
+                .map(authority -> new SimpleGrantedAuthority((String) authority))
+                .toList();
+        return new UsernamePasswordAuthenticationToken(username, null, authorities);
+    }
+
+    private static Claims parseClaims(String jwt) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+
+    /**
+     * An exchange with the given bearer token, the only part of the request the converter reads.
+     */
+    private static ServerWebExchange bearerRequest(String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        ServerHttpRequest request = (ServerHttpRequest) Proxy.newProxyInstance(ServerHttpRequest.class.getClassLoader(),
+                new Class<?>[]{ServerHttpRequest.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getHeaders" -> headers;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        return (ServerWebExchange) Proxy.newProxyInstance(ServerWebExchange.class.getClassLoader(),
+                new Class<?>[]{ServerWebExchange.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getRequest" -> request;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,111 @@
+package com.jme.adopterdla.adopterdla.benchmarks;
+
+import com.jme.adopterdla.adopterdla.animals.dto.AnimalDTO;
+import com.jme.adopterdla.adopterdla.animals.entity.Animal;
+import com.jme.adopterdla.adopterdla.animals.enums.Gender;
+import com.jme.adopterdla.adopterdla.animals.mapper.AnimalMapper;
+import com.jme.adopterdla.adopterdla.common.entity.Schedule;
+import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessDTO;
+import com.jme.adopterdla.adopterdla.processes.entity.AdoptionProcess;
+import com.jme.adopterdla.adopterdla.processes.mapper.AdoptionProcessMapper;
+import com.jme.adopterdla.adopterdla.processes.utils.AdoptionProcessStatus;
+import com.jme.adopterdla.adopterdla.volunteers.dto.VolunteerDTO;
+import com.jme.adopterdla.adopterdla.volunteers.dto.VolunteerWithScheduleDTO;
+import com.jme.adopterdla.adopterdla.volunteers.entity.Volunteer;
+import com.jme.adopterdla.adopterdla.volunteers.mapper.VolunteerMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversions run for every row of the list endpoints, through the MapStruct generated mappers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private final AnimalMapper animalMapper = Mappers.getMapper(AnimalMapper.class);
+    private final VolunteerMapper volunteerMapper = Mappers.getMapper(VolunteerMapper.class);
+    private final AdoptionProcessMapper adoptionProcessMapper = Mappers.getMapper(AdoptionProcessMapper.class);
+
+    private Animal animal;
+    private AnimalDTO animalDTO;
+    private Volunteer volunteer;
+    private Schedule schedule;
+    private VolunteerWithScheduleDTO volunteerWithSchedule;
+    private AdoptionProcess adoptionProcess;
+    private AdoptionProcessDTO adoptionProcessDTO;
+
+    @Setup
+    public void setUp() {
+        animal = new Animal(1L, "A-000001", "Fido", "Mixed", "2023-01-15",
+                "https://blobs/3f5a0c7e9b.jpeg", Gender.MALE, "3", true, false, true,
+                "941000024680135", null, "Friendly and calm.", true, false, 1L, true);
+        animalDTO = animalMapper.toAnimalDTO(animal);
+        volunteer = new Volunteer(true, "Weekends only", 1L);
+        volunteer.setId(1L);
+        volunteer.setName("Ana");
+        volunteer.setEmail("ana@example.com");
+        volunteer.setPhone("600000000");
+        schedule = new Schedule(1L, LocalDate.of(2023, 1, 1), Set.of(1, 3, 6), 9, 0, 13, 30);
+        volunteerWithSchedule = new VolunteerWithScheduleDTO(1L, "Ana", "Weekends only", "ana@example.com",
+                "600000000", null, null, true, 1L, Set.of(1, 3, 6), 9, 0, 13, 30);
+        adoptionProcess = new AdoptionProcess();
+        adoptionProcess.setId(1L);
+        adoptionProcess.setProcessNumber("P-000001");
+        adoptionProcess.setAdopterId(1L);
+        adoptionProcess.setAnimalId(1L);
+        adoptionProcess.setVolunteerId(1L);
+        adoptionProcess.setInspectionDate(LocalDateTime.of(2023, 2, 1, 10, 0));
+        adoptionProcess.setNotifyAdopter(true);
+        adoptionProcess.setStatus(AdoptionProcessStatus.IN_PROGRESS);
+        adoptionProcessDTO = adoptionProcessMapper.toAdoptionProcessDTO(adoptionProcess);
+    }
+
+    @Benchmark
+    public AnimalDTO animalToDTO() {
+        return animalMapper.toAnimalDTO(animal);
+    }
+
+    @Benchmark
+    public Animal animalFromDTO() {
+        return animalMapper.toAnimal(animalDTO);
+    }
+
+    @Benchmark
+    public VolunteerDTO volunteerToDTO() {
+        return volunteerMapper.toDTO(volunteer, schedule);
+    }
+
+    @Benchmark
+    public VolunteerDTO joinedVolunteerToDTO() {
+        return volunteerMapper.toDTO(volunteerWithSchedule);
+    }
+
+    @Benchmark
+    public AdoptionProcessDTO adoptionProcessToDTO() {
+        return adoptionProcessMapper.toAdoptionProcessDTO(adoptionProcess);
+    }
+
+    @Benchmark
+    public AdoptionProcess adoptionProcessFromDTO() {
+        return adoptionProcessMapper.toAdoptionProcess(adoptionProcessDTO);
+    }
+}
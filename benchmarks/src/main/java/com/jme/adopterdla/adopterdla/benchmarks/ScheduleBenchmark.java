@@ -0,0 +1,49 @@
+package com.jme.adopterdla.adopterdla.benchmarks;
+
+import com.jme.adopterdla.adopterdla.common.entity.Schedule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * {@link Schedule#toString()}, which renders the schedule of every volunteer listed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScheduleBenchmark {
+
+    @Param({"1", "3", "7"})
+    private int days;
+
+    private Schedule schedule;
+
+    @Setup
+    public void setUp() {
+        Set<Integer> dayValues = IntStream.rangeClosed(1, days).boxed().collect(Collectors.toCollection(TreeSet::new));
+        schedule = new Schedule(1L, LocalDate.of(2023, 1, 1), dayValues, 9, 0, 13, 30);
+    }
+
+    @Benchmark
+    public String scheduleToString() {
+        return schedule.toString();
+    }
+}
@@ -0,0 +1,71 @@
+package com.jme.adopterdla.adopterdla.benchmarks;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BaselineComparatorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void givenSlowerAverageTime_whenCompared_thenOnlyTheSlowdownAboveTheThresholdRegresses() throws IOException {
+        Path baseline = write("baseline.json",
+                result("MapperBenchmark.animalToDTO", "avgt", 100, ""),
+                result("ScheduleBenchmark.scheduleToString", "avgt", 100, "\"days\": \"3\""));
+        Path current = write("result.json",
+                result("MapperBenchmark.animalToDTO", "avgt", 105, ""),
+                result("ScheduleBenchmark.scheduleToString", "avgt", 120, "\"days\": \"3\""));
+
+        List<BaselineComparator.Comparison> comparisons = new BaselineComparator(10).compare(baseline, current);
+
+        assertThat(comparisons).extracting(BaselineComparator.Comparison::benchmark)
+                .containsExactly("MapperBenchmark.animalToDTO", "ScheduleBenchmark.scheduleToString(days=3)");
+        assertThat(comparisons).extracting(BaselineComparator.Comparison::regressed).containsExactly(false, true);
+        assertThat(comparisons.get(1).slowdownPercent()).isEqualTo(20.0);
+    }
+
+    @Test
+    public void givenLowerThroughput_whenCompared_thenItRegresses() throws IOException {
+        Path baseline = write("baseline.json", result("JwtBenchmark.parseToken", "thrpt", 1000, "\"cacheMaxSize\": \"0\""));
+        Path current = write("result.json", result("JwtBenchmark.parseToken", "thrpt", 800, "\"cacheMaxSize\": \"0\""));
+
+        List<BaselineComparator.Comparison> comparisons = new BaselineComparator(10).compare(baseline, current);
+
+        assertThat(comparisons).singleElement().satisfies(comparison -> {
+            assertThat(comparison.slowdownPercent()).isEqualTo(20.0);
+            assertThat(comparison.regressed()).isTrue();
+        });
+    }
+
+    @Test
+    public void givenAddedAndRemovedBenchmarks_whenCompared_thenTheyAreReportedWithoutRegressing() throws IOException {
+        Path baseline = write("baseline.json", result("ImageBenchmark.saveNewImage", "avgt", 100, ""));
+        Path current = write("result.json", result("ImageBenchmark.saveStoredImage", "avgt", 100, ""));
+
+        List<BaselineComparator.Comparison> comparisons = new BaselineComparator(10).compare(baseline, current);
+
+        assertThat(comparisons).hasSize(2);
+        assertThat(comparisons.get(0).baseline()).isNull();
+        assertThat(comparisons.get(1).result()).isNull();
+        assertThat(BaselineComparator.report(comparisons, System.out)).isFalse();
+    }
+
+    private Path write(String name, String... results) throws IOException {
+        return Files.writeString(directory.resolve(name), "[" + String.join(",", results) + "]");
+    }
+
+    private static String result(String benchmark, String mode, double score, String params) {
+        return """
+                {"benchmark": "com.jme.adopterdla.adopterdla.benchmarks.%s", "mode": "%s", "params": {%s},
+                 "primaryMetric": {"score": %s, "scoreError": 1.5, "scoreUnit": "ns/op"}}
+                """.formatted(benchmark, mode, params, score);
+    }
+}
@@ -11,6 +11,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
@@ -40,7 +41,7 @@ public class AdopterController {
         return adopterService.getAdopter(id);
     }
 
-    @GetMapping
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
     @Operation(summary = "Get all adopters")
     @ApiResponse(responseCode = "200", description = "List of adopters", content = @Content(array = @ArraySchema(schema = @Schema(implementation = AdopterDTO.class))))
     public Flux<AdopterDTO> getAllAdopters() {
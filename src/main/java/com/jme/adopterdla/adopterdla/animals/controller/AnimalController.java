@@ -1,8 +1,14 @@
 package com.jme.adopterdla.adopterdla.animals.controller;
 
 import com.jme.adopterdla.adopterdla.animals.dto.AnimalDTO;
+import com.jme.adopterdla.adopterdla.animals.dto.AnimalFilterDTO;
+import com.jme.adopterdla.adopterdla.animals.dto.AnimalImportResultDTO;
 import com.jme.adopterdla.adopterdla.animals.dto.AnimalNameAndIdDTO;
+import com.jme.adopterdla.adopterdla.animals.dto.AnimalPageDTO;
+import com.jme.adopterdla.adopterdla.animals.enums.Gender;
+import com.jme.adopterdla.adopterdla.animals.service.AnimalImportService;
 import com.jme.adopterdla.adopterdla.animals.service.AnimalService;
+import com.jme.adopterdla.adopterdla.common.utils.ConditionalRequests;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -12,19 +18,28 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("api/animals")
 @RequiredArgsConstructor
@@ -33,42 +48,107 @@ import reactor.core.publisher.Mono;
 public class AnimalController {
 
     private final AnimalService animalService;
+    private final AnimalImportService animalImportService;
 
-    @PostMapping
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.CREATED)
-    @Operation(summary = "Create a new animal")
+    @Operation(summary = "Create a new animal, with its photo base64 encoded in imageBase64")
     @ApiResponse(responseCode = "201", description = "Animal created", content = @Content(schema = @Schema(implementation = AnimalDTO.class)))
     public Mono<AnimalDTO> createAnimal(@RequestBody AnimalDTO animalDTO) {
-        log.info("Animal request {}", animalDTO);
+        log.info("Animal request {}", animalDTO.name());
         return animalService.createAnimal(animalDTO);
     }
 
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Create a new animal, uploading its photo as a file")
+    @ApiResponse(responseCode = "201", description = "Animal created", content = @Content(schema = @Schema(implementation = AnimalDTO.class)))
+    public Mono<AnimalDTO> createAnimal(@Parameter(description = "Animal data") @RequestPart("data") AnimalDTO animalDTO,
+                                        @Parameter(description = "Photo of the animal") @RequestPart(value = "imageData", required = false) FilePart imageData) {
+        return animalService.createAnimal(animalDTO, imageData);
+    }
+
+    @PutMapping(value = "/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Update an animal, optionally uploading a new photo as a file")
+    @ApiResponse(responseCode = "200", description = "Animal updated", content = @Content(schema = @Schema(implementation = AnimalDTO.class)))
+    @ApiResponse(responseCode = "404", description = "Animal not found")
+    @ApiResponse(responseCode = "409", description = "Animal updated concurrently")
+    public Mono<AnimalDTO> updateAnimal(@Parameter(description = "Animal ID") @PathVariable Long id,
+                                        @Parameter(description = "Animal data, missing fields are left untouched") @RequestPart("data") AnimalDTO animalDTO,
+                                        @Parameter(description = "New photo of the animal") @RequestPart(value = "imageData", required = false) FilePart imageData) {
+        return animalService.updateAnimal(id, animalDTO, imageData);
+    }
+
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Import animals in bulk from a CSV or NDJSON file")
+    @ApiResponse(responseCode = "200", description = "Result of every row, streamed as it is imported", content = @Content(array = @ArraySchema(schema = @Schema(implementation = AnimalImportResultDTO.class))))
+    public Flux<AnimalImportResultDTO> importAnimals(@RequestBody Flux<DataBuffer> content, ServerWebExchange exchange) {
+        return animalImportService.importAnimals(content, exchange.getRequest().getHeaders().getContentType(), null);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Import animals in bulk from a CSV or NDJSON file, along with a ZIP archive of their photos")
+    @ApiResponse(responseCode = "200", description = "Result of every row, streamed as it is imported", content = @Content(array = @ArraySchema(schema = @Schema(implementation = AnimalImportResultDTO.class))))
+    public Flux<AnimalImportResultDTO> importAnimals(@Parameter(description = "CSV or NDJSON file") @RequestPart("animals") FilePart animals,
+                                                     @Parameter(description = "ZIP archive of the photos") @RequestPart(value = "images", required = false) FilePart images) {
+        MediaType format = animals.filename().toLowerCase().endsWith(".csv")
+                ? MediaType.parseMediaType("text/csv")
+                : animals.headers().getContentType();
+        return animalImportService.importAnimals(animals.content(), format, images);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get an animal by ID")
     @ApiResponse(responseCode = "200", description = "Animal found", content = @Content(schema = @Schema(implementation = AnimalDTO.class)))
+    @ApiResponse(responseCode = "304", description = "Animal not modified since the ETag given in If-None-Match")
     @ApiResponse(responseCode = "404", description = "Animal not found")
-    public Mono<AnimalDTO> getAnimal(@Parameter(description = "Animal ID") @PathVariable Long id) {
-        return animalService.getAnimal(id);
+    public Mono<ResponseEntity<AnimalDTO>> getAnimal(@Parameter(description = "Animal ID") @PathVariable Long id,
+                                                     ServerWebExchange exchange) {
+        return ConditionalRequests.ifNoneMatch(exchange, animalService.getAnimalRevision(id), () -> animalService.getAnimal(id));
     }
 
-    @GetMapping
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
     @Operation(summary = "Get all animals")
     @ApiResponse(responseCode = "200", description = "List of animals", content = @Content(array = @ArraySchema(schema = @Schema(implementation = AnimalDTO.class))))
     public Flux<AnimalDTO> getAllAnimals() {
         return animalService.getAllAnimals();
     }
 
-    @GetMapping("/available")
+    @GetMapping(value = "/available", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
     @Operation(summary = "Get all animals by availability")
     @ApiResponse(responseCode = "200", description = "List of animals", content = @Content(array = @ArraySchema(schema = @Schema(implementation = AnimalDTO.class))))
     public Flux<AnimalDTO> getAllAnimalsByIsAvailable(@Parameter(description = "Availability status") @RequestParam boolean isAvailable) {
         return animalService.getAllAnimalsByIsAvailable(isAvailable);
     }
 
+    @GetMapping("/catalogue")
+    @Operation(summary = "Get a page of animals matching the given filters")
+    @ApiResponse(responseCode = "200", description = "Page of animals and the cursor of the next page", content = @Content(schema = @Schema(implementation = AnimalPageDTO.class)))
+    public Mono<AnimalPageDTO> getAnimalsPage(@Parameter(description = "Cursor returned as 'next' by the previous page") @RequestParam(required = false) Long after,
+                                              @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size,
+                                              @Parameter(description = "Gender") @RequestParam(required = false) Gender gender,
+                                              @Parameter(description = "Breed") @RequestParam(required = false) String breed,
+                                              @Parameter(description = "Vaccinated") @RequestParam(required = false) Boolean vaccinated,
+                                              @Parameter(description = "Castrated") @RequestParam(required = false) Boolean castrated,
+                                              @Parameter(description = "Wormed") @RequestParam(required = false) Boolean wormed,
+                                              @Parameter(description = "Availability status") @RequestParam(required = false) Boolean isAvailable,
+                                              @Parameter(description = "Adoption status") @RequestParam(required = false) Boolean hasBeenAdopted) {
+        var filter = AnimalFilterDTO.builder()
+                .gender(gender)
+                .breed(breed)
+                .vaccinated(vaccinated)
+                .castrated(castrated)
+                .wormed(wormed)
+                .isAvailable(isAvailable)
+                .hasBeenAdopted(hasBeenAdopted)
+                .build();
+        return animalService.getAnimalsPage(filter, after, size);
+    }
+
     @GetMapping("/names-ids")
     @Operation(summary = "Get animal names and IDs by availability")
     @ApiResponse(responseCode = "200", description = "List of animal names and IDs")
-    public Flux<AnimalNameAndIdDTO> getAvailableAnimalNamesAndIds() {
+    public Mono<List<AnimalNameAndIdDTO>> getAvailableAnimalNamesAndIds() {
         return animalService.getAvailableAnimalNamesAndIds();
     }
 
@@ -3,6 +3,8 @@ package com.jme.adopterdla.adopterdla.animals.dto;
 import com.jme.adopterdla.adopterdla.animals.enums.Gender;
 import lombok.Builder;
 
+import java.util.Map;
+
 public record AnimalDTO(
 
         Long id,
@@ -12,6 +14,7 @@ public record AnimalDTO(
         String age,
         String arrivalDate,
         String imageUrl,
+        Map<Integer, String> imageVariants,
         Gender gender,
         Boolean vaccinated,
         Boolean castrated,
@@ -0,0 +1,23 @@
+package com.jme.adopterdla.adopterdla.animals.dto;
+
+import com.jme.adopterdla.adopterdla.animals.enums.Gender;
+import lombok.Builder;
+
+/**
+ * Optional filters of the animal catalogue. A {@code null} value means the filter is not applied.
+ */
+public record AnimalFilterDTO(
+        Gender gender,
+        String breed,
+        Boolean vaccinated,
+        Boolean castrated,
+        Boolean wormed,
+        Boolean isAvailable,
+        Boolean hasBeenAdopted
+) {
+
+    @Builder
+    public AnimalFilterDTO {
+
+    }
+}
@@ -0,0 +1,24 @@
+package com.jme.adopterdla.adopterdla.animals.dto;
+
+/**
+ * Outcome of one row of a bulk import.
+ *
+ * @param line  the line of the row in the uploaded file, or {@code null} when the whole import was rolled back
+ * @param id    the ID of the inserted animal, or {@code null} if the row was rejected
+ * @param code  the code assigned to the inserted animal, or {@code null} if the row was rejected
+ * @param error why the row was rejected or the import rolled back, {@code null} on success
+ */
+public record AnimalImportResultDTO(Long line, Long id, String code, String error) {
+
+    public static AnimalImportResultDTO imported(long line, Long id, String code) {
+        return new AnimalImportResultDTO(line, id, code, null);
+    }
+
+    public static AnimalImportResultDTO rejected(long line, String error) {
+        return new AnimalImportResultDTO(line, null, null, error);
+    }
+
+    public static AnimalImportResultDTO rolledBack(String error) {
+        return new AnimalImportResultDTO(null, null, null, error);
+    }
+}
@@ -0,0 +1,27 @@
+package com.jme.adopterdla.adopterdla.animals.dto;
+
+import com.jme.adopterdla.adopterdla.animals.enums.Gender;
+
+/**
+ * One animal of a bulk import, read from a CSV row or an NDJSON line.
+ *
+ * @param imageFile   the name of the photo inside the image archive sent along with the rows
+ * @param imageBase64 the photo itself, base64 encoded, as an alternative to {@code imageFile}
+ */
+public record AnimalImportRowDTO(
+        String name,
+        String breed,
+        String age,
+        String arrivalDate,
+        Gender gender,
+        Boolean vaccinated,
+        Boolean castrated,
+        Boolean wormed,
+        String electronicChip,
+        String illness,
+        String notes,
+        Boolean isAvailable,
+        String imageFile,
+        String imageBase64
+) {
+}
@@ -0,0 +1,12 @@
+package com.jme.adopterdla.adopterdla.animals.dto;
+
+import java.util.List;
+
+/**
+ * One page of the animal catalogue.
+ *
+ * @param content the animals of this page, ordered by id
+ * @param next    the cursor to pass as {@code after} to fetch the next page, or {@code null} on the last page
+ */
+public record AnimalPageDTO(List<AnimalDTO> content, Long next) {
+}
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Table;
 
 @Table("animals")
@@ -30,4 +32,9 @@ public class Animal{
     private String notes;
     private Boolean isAvailable;
     private Boolean hasBeenAdopted;
+    @Version
+    private Long version;
+    // Whether the resized variants of the image are stored, looked up when the animal is read
+    @Transient
+    private boolean imageVariantsStored;
 }
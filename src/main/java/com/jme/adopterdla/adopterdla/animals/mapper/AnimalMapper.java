@@ -1,18 +1,39 @@
 package com.jme.adopterdla.adopterdla.animals.mapper;
 
 import com.jme.adopterdla.adopterdla.animals.dto.AnimalDTO;
+import com.jme.adopterdla.adopterdla.animals.dto.AnimalImportRowDTO;
 import com.jme.adopterdla.adopterdla.animals.entity.Animal;
+import com.jme.adopterdla.adopterdla.common.utils.ImageVariantGenerator;
 import org.mapstruct.*;
 
+import java.util.Map;
 import java.util.Optional;
 
-@Mapper(componentModel = "spring", nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS, nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+@Mapper(componentModel = "spring", nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS, nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE,
+        imports = {ImageVariantGenerator.class, Map.class})
 public interface AnimalMapper {
 
+    @Mapping(target = "imageVariants", expression = "java(animal.isImageVariantsStored() ? ImageVariantGenerator.variantUrls(animal.getImageUrl()) : Map.of())")
     AnimalDTO toAnimalDTO(Animal animal);
 
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "imageVariantsStored", ignore = true)
     Animal toAnimalUpdate(AnimalDTO animalDto, @MappingTarget Animal animal);
 
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "imageVariantsStored", ignore = true)
     Animal toAnimal(AnimalDTO animalDto);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "code", ignore = true)
+    @Mapping(target = "imageUrl", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "imageVariantsStored", ignore = true)
+    @Mapping(target = "vaccinated", defaultValue = "false")
+    @Mapping(target = "castrated", defaultValue = "false")
+    @Mapping(target = "wormed", defaultValue = "false")
+    @Mapping(target = "isAvailable", defaultValue = "true")
+    @Mapping(target = "hasBeenAdopted", constant = "false")
+    Animal toAnimal(AnimalImportRowDTO importRow);
+
 }
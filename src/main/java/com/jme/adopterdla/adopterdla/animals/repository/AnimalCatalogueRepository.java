@@ -0,0 +1,82 @@
+package com.jme.adopterdla.adopterdla.animals.repository;
+
+import com.jme.adopterdla.adopterdla.animals.dto.AnimalFilterDTO;
+import com.jme.adopterdla.adopterdla.animals.entity.Animal;
+import lombok.AllArgsConstructor;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Search of the animal catalogue.
+ */
+@Repository
+@AllArgsConstructor
+public class AnimalCatalogueRepository {
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcConverter r2dbcConverter;
+
+    /**
+     * Reads one page of the catalogue using keyset pagination on {@code id}, so the cost of a page does not depend on
+     * how deep into the catalogue it is.
+     * <p>
+     * Only the filters that are set are added to the query, so its plan is chosen for them alone: with a catch-all
+     * predicate such as {@code :x IS NULL OR column = :x}, a selective filter like a rare breed is checked while
+     * walking the primary key, reading most of the table to fill a page.
+     *
+     * @param filter the filters to apply
+     * @param after  the ID the page starts after
+     * @param limit  the maximum number of animals to read
+     * @return the animals of the page, ordered by ID
+     */
+    public Flux<Animal> findPage(AnimalFilterDTO filter, long after, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT *")
+                .append("\nFROM animals")
+                .append("\nWHERE id > :after");
+        Map<String, Object> bindings = new LinkedHashMap<>();
+        bindings.put("after", after);
+        if (filter.gender() != null) {
+            sql.append("\n  AND gender = :gender");
+            bindings.put("gender", filter.gender().name());
+        }
+        if (filter.breed() != null) {
+            sql.append("\n  AND lower(breed) = lower(:breed)");
+            bindings.put("breed", filter.breed());
+        }
+        if (filter.vaccinated() != null) {
+            sql.append("\n  AND vaccinated = :vaccinated");
+            bindings.put("vaccinated", filter.vaccinated());
+        }
+        if (filter.castrated() != null) {
+            sql.append("\n  AND castrated = :castrated");
+            bindings.put("castrated", filter.castrated());
+        }
+        if (filter.wormed() != null) {
+            sql.append("\n  AND wormed = :wormed");
+            bindings.put("wormed", filter.wormed());
+        }
+        if (filter.isAvailable() != null) {
+            sql.append("\n  AND is_available = :isAvailable");
+            bindings.put("isAvailable", filter.isAvailable());
+        }
+        if (filter.hasBeenAdopted() != null) {
+            sql.append("\n  AND has_been_adopted = :hasBeenAdopted");
+            bindings.put("hasBeenAdopted", filter.hasBeenAdopted());
+        }
+        sql.append("\nORDER BY id")
+                .append("\nLIMIT :limit");
+        bindings.put("limit", limit);
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+            spec = spec.bind(binding.getKey(), binding.getValue());
+        }
+        return spec.map((row, metadata) -> r2dbcConverter.read(Animal.class, row, metadata))
+                .all();
+    }
+}
@@ -2,10 +2,12 @@ package com.jme.adopterdla.adopterdla.animals.repository;
 
 import com.jme.adopterdla.adopterdla.animals.dto.AnimalNameAndIdDTO;
 import com.jme.adopterdla.adopterdla.animals.entity.Animal;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Repository
 public interface AnimalRepository extends ReactiveCrudRepository<Animal, Long> {
@@ -19,4 +21,43 @@ public interface AnimalRepository extends ReactiveCrudRepository<Animal, Long> {
             WHERE is_available = true
                 """)
     Flux<AnimalNameAndIdDTO> findNameAndIdByIsAvailable();
+
+    /**
+     * Reads the revision of an animal, to answer conditional requests without loading the row: its version, and
+     * whether the variants of its photo are stored, as they are linked once the background generation completes
+     * without changing the version.
+     *
+     * @return the revision as {@code <version>-<1 if the variants are stored, 0 otherwise>}
+     */
+    @Query("""
+            SELECT an.version || '-' || CASE WHEN br.variants_stored THEN 1 ELSE 0 END
+            FROM animals an
+            LEFT JOIN blob_refs br ON br.name = substring(an.image_url from '[^/]+$')
+            WHERE an.id = :id
+                """)
+    Mono<String> findRevisionById(Long id);
+
+    /**
+     * Takes an animal out of the available ones once its adoption is approved, unless it has already been adopted.
+     *
+     * @param id the ID of the animal
+     * @return the number of updated animals, 0 if the animal has already been adopted
+     */
+    @Modifying
+    @Query("UPDATE animals SET is_available = false, has_been_adopted = true, version = version + 1 WHERE id = :id AND has_been_adopted = false")
+    Mono<Integer> markAdopted(Long id);
+
+    /**
+     * Reserves the next block of animal codes.
+     *
+     * @return the first code of the block
+     */
+    @Query("SELECT nextval('animal_code_seq')")
+    Mono<Long> reserveCodeBlock();
+
+    /**
+     * @return the number of codes reserved by {@link #reserveCodeBlock()}
+     */
+    @Query("SELECT increment_by FROM pg_sequences WHERE sequencename = 'animal_code_seq'")
+    Mono<Long> findCodeBlockSize();
 }
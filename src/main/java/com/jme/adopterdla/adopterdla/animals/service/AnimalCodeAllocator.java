@@ -0,0 +1,71 @@
+package com.jme.adopterdla.adopterdla.animals.service;
+
+import com.jme.adopterdla.adopterdla.animals.repository.AnimalRepository;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands out unique animal codes.
+ * <p>
+ * Codes come from the {@code animal_code_seq} Postgres sequence, which reserves a block of codes on every call, so
+ * several application nodes never hand out the same code. The current block is kept in memory and codes are taken from
+ * it with a single atomic increment; the database is only queried once per block, and concurrent requests exhausting
+ * a block share the query reserving the next one. Codes left in a block when the application stops are skipped.
+ */
+@Component
+public class AnimalCodeAllocator {
+
+    private final AnimalRepository animalRepository;
+    private final AtomicReference<Block> block = new AtomicReference<>(new Block(new AtomicLong(), 0));
+    private final AtomicReference<Mono<Block>> reservation = new AtomicReference<>();
+
+    public AnimalCodeAllocator(AnimalRepository animalRepository) {
+        this.animalRepository = animalRepository;
+    }
+
+    /**
+     * Returns a code no other animal has or will get.
+     *
+     * @return a Mono emitting the code
+     */
+    public Mono<String> nextCode() {
+        return Mono.defer(() -> {
+            Block current = block.get();
+            long code = current.next().getAndIncrement();
+            if (code < current.end()) {
+                return Mono.just(Long.toString(code));
+            }
+            return reserve(current).then(nextCode());
+        });
+    }
+
+    /**
+     * Reserves a new block once the given one is exhausted, sharing the reservation between concurrent callers.
+     */
+    private Mono<Block> reserve(Block exhausted) {
+        if (block.get() != exhausted) {
+            // Another caller has already replaced it
+            return Mono.empty();
+        }
+        AtomicReference<Mono<Block>> self = new AtomicReference<>();
+        Mono<Block> newReservation = Mono.zip(animalRepository.reserveCodeBlock(), animalRepository.findCodeBlockSize())
+                .map(startAndSize -> new Block(new AtomicLong(startAndSize.getT1()), startAndSize.getT1() + startAndSize.getT2()))
+                .doOnNext(reserved -> block.compareAndSet(exhausted, reserved))
+                // Cleared before the waiting callers resume, so they never retry on a completed reservation
+                .doOnTerminate(() -> reservation.compareAndSet(self.get(), null))
+                .cache();
+        self.set(newReservation);
+        if (reservation.compareAndSet(null, newReservation)) {
+            return newReservation;
+        }
+        // When the pending reservation has completed in the meantime, the caller simply takes a code again
+        Mono<Block> pending = reservation.get();
+        return pending != null ? pending : Mono.empty();
+    }
+
+    private record Block(AtomicLong next, long end) {
+    }
+}
@@ -0,0 +1,384 @@
+package com.jme.adopterdla.adopterdla.animals.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.jme.adopterdla.adopterdla.animals.dto.AnimalImportResultDTO;
+import com.jme.adopterdla.adopterdla.animals.dto.AnimalImportRowDTO;
+import com.jme.adopterdla.adopterdla.animals.entity.Animal;
+import com.jme.adopterdla.adopterdla.animals.mapper.AnimalMapper;
+import com.jme.adopterdla.adopterdla.common.utils.AzurePersistImageUtils;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Imports animals in bulk from a CSV or NDJSON stream, optionally along with a ZIP archive of their photos.
+ * <p>
+ * Rows are parsed as they arrive and inserted in batches, one multi-row insert per batch, all of them inside a single
+ * transaction: either every valid row is kept or none is. Invalid rows are rejected one by one without aborting the
+ * import. Photos are uploaded while the rows are read, a bounded number at a time, and the result of every row is
+ * streamed back in order as soon as its batch is inserted.
+ * <p>
+ * Photos are stored and referenced outside the transaction, so their reference counts are not locked for the whole
+ * import. If the import is rolled back, the photos it stored are released again.
+ */
+@Service
+@Log4j2
+public class AnimalImportService {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv");
+    private static final int ARCHIVE_READ_BUFFER_SIZE = 64 * 1024;
+
+    private static final List<Column> COLUMNS = List.of(
+            new Column("code", String.class, Animal::getCode),
+            new Column("name", String.class, Animal::getName),
+            new Column("breed", String.class, Animal::getBreed),
+            new Column("arrival_date", String.class, Animal::getArrivalDate),
+            new Column("image_url", String.class, Animal::getImageUrl),
+            new Column("gender", String.class, animal -> animal.getGender().name()),
+            new Column("age", String.class, Animal::getAge),
+            new Column("vaccinated", Boolean.class, Animal::getVaccinated),
+            new Column("castrated", Boolean.class, Animal::getCastrated),
+            new Column("wormed", Boolean.class, Animal::getWormed),
+            new Column("electronic_chip", String.class, Animal::getElectronicChip),
+            new Column("illness", String.class, Animal::getIllness),
+            new Column("notes", String.class, Animal::getNotes),
+            new Column("is_available", Boolean.class, Animal::getIsAvailable),
+            new Column("has_been_adopted", Boolean.class, Animal::getHasBeenAdopted));
+
+    private static final String INSERT_COLUMNS = COLUMNS.stream().map(Column::name).collect(Collectors.joining(", "));
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final ObjectReader jsonRowReader;
+    private final CsvMapper csvMapper;
+    private final StringDecoder lineDecoder;
+    private final AnimalMapper animalMapper;
+    private final AzurePersistImageUtils azurePersistImageUtils;
+    private final AnimalCodeAllocator animalCodeAllocator;
+    private final AvailableAnimalsCache availableAnimalsCache;
+    private final int batchSize;
+    private final int imageConcurrency;
+
+    public AnimalImportService(DatabaseClient databaseClient,
+                               TransactionalOperator transactionalOperator,
+                               ObjectMapper objectMapper,
+                               AnimalMapper animalMapper,
+                               AzurePersistImageUtils azurePersistImageUtils,
+                               AnimalCodeAllocator animalCodeAllocator,
+                               AvailableAnimalsCache availableAnimalsCache,
+                               @Value("${animals.import.batch-size}") int batchSize,
+                               @Value("${animals.import.image-concurrency}") int imageConcurrency,
+                               @Value("${spring.codec.max-in-memory-size}") DataSize maxLineSize) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.jsonRowReader = objectMapper.readerFor(AnimalImportRowDTO.class);
+        this.csvMapper = CsvMapper.builder()
+                .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+        this.lineDecoder = StringDecoder.allMimeTypes();
+        this.lineDecoder.setMaxInMemorySize((int) maxLineSize.toBytes());
+        this.animalMapper = animalMapper;
+        this.azurePersistImageUtils = azurePersistImageUtils;
+        this.animalCodeAllocator = animalCodeAllocator;
+        this.availableAnimalsCache = availableAnimalsCache;
+        this.batchSize = batchSize;
+        this.imageConcurrency = imageConcurrency;
+    }
+
+    /**
+     * Imports the animals of the given file, one per CSV row or NDJSON line.
+     * <p>
+     * The returned results are only final once the stream completes, as that is when the transaction commits. If the
+     * import fails half way, the stream ends with a single result without line explaining why it was rolled back, and
+     * the photos stored for it are released.
+     *
+     * @param content the CSV, with a header row naming the fields, or NDJSON file
+     * @param format  the media type of the content, anything but {@code text/csv} is read as NDJSON
+     * @param images  a ZIP archive with the photos the rows refer to as {@code imageFile}, or {@code null}
+     *
+     * @return a Flux emitting the result of every row, in the order of the file
+     */
+    public Flux<AnimalImportResultDTO> importAnimals(Flux<DataBuffer> content, MediaType format, FilePart images) {
+        return Flux.usingWhen(Mono.fromSupplier(ConcurrentLinkedQueue<String>::new),
+                        storedImages -> transactionalOperator.transactional(Flux.usingWhen(openArchive(images),
+                                archive -> parse(content, format)
+                                        .flatMapSequential(row -> prepare(row, archive, storedImages), imageConcurrency)
+                                        .buffer(batchSize)
+                                        .concatMap(this::insertBatch),
+                                ImageArchive::close)),
+                        storedImages -> Mono.empty(),
+                        (storedImages, e) -> releaseImages(storedImages),
+                        this::releaseImages)
+                .doOnComplete(availableAnimalsCache::invalidate)
+                .onErrorResume(e -> {
+                    log.error("Animal import rolled back", e);
+                    return Flux.just(AnimalImportResultDTO.rolledBack("Import rolled back, no animal was kept: " + e.getMessage()));
+                });
+    }
+
+    private Flux<ParsedRow> parse(Flux<DataBuffer> content, MediaType format) {
+        Flux<String> lines = lineDecoder.decode(content, ResolvableType.forClass(String.class), null, null);
+        return format != null && TEXT_CSV.isCompatibleWith(format) ? parseCsv(lines) : parseNdjson(lines);
+    }
+
+    private Flux<ParsedRow> parseNdjson(Flux<String> lines) {
+        return lines.index()
+                .filter(line -> !line.getT2().isBlank())
+                .map(line -> parseRow(line.getT1() + 1, line.getT2(), jsonRowReader));
+    }
+
+    private Flux<ParsedRow> parseCsv(Flux<String> lines) {
+        return Flux.defer(() -> {
+            // The header row names the columns of every following row
+            AtomicReference<ObjectReader> rowReader = new AtomicReference<>();
+            return lines.index()
+                    .filter(line -> !line.getT2().isBlank())
+                    .handle((line, sink) -> {
+                        if (rowReader.get() == null) {
+                            try {
+                                rowReader.set(csvRowReader(line.getT2()));
+                            } catch (IOException e) {
+                                sink.error(new IllegalArgumentException("Invalid CSV header: " + e.getMessage(), e));
+                            }
+                            return;
+                        }
+                        sink.next(parseRow(line.getT1() + 1, line.getT2(), rowReader.get()));
+                    });
+        });
+    }
+
+    private ObjectReader csvRowReader(String header) throws IOException {
+        String[] columns = csvMapper.readerFor(String[].class)
+                .with(CsvParser.Feature.WRAP_AS_ARRAY)
+                .<String[]>readValues(header)
+                .next();
+        CsvSchema.Builder schema = CsvSchema.builder();
+        for (String column : columns) {
+            schema.addColumn(column.trim());
+        }
+        return csvMapper.readerFor(AnimalImportRowDTO.class).with(schema.build());
+    }
+
+    private static ParsedRow parseRow(long line, String content, ObjectReader reader) {
+        try {
+            return new ParsedRow(line, reader.readValue(content), null);
+        } catch (JsonProcessingException e) {
+            return new ParsedRow(line, null, "Invalid row: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            return new ParsedRow(line, null, "Invalid row: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Releases the photos stored for an import that was rolled back, each in its own transaction, queueing the
+     * deletion of those no other animal uses.
+     */
+    private Mono<Void> releaseImages(Queue<String> imageUrls) {
+        return Flux.fromIterable(imageUrls)
+                .concatMap(imageUrl -> azurePersistImageUtils.releaseImage(imageUrl)
+                        .as(transactionalOperator::transactional)
+                        .onErrorResume(e -> {
+                            log.error("Error releasing the image {} of a rolled back import", imageUrl, e);
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    /**
+     * Validates a row and stores its photo, turning it into the animal to insert. The stored photo is added to the
+     * given queue, so it can be released if the import is rolled back.
+     */
+    private Mono<PreparedRow> prepare(ParsedRow row, ImageArchive archive, Queue<String> storedImages) {
+        if (row.error() != null) {
+            return Mono.just(PreparedRow.rejected(row.line(), row.error()));
+        }
+        AnimalImportRowDTO data = row.data();
+        List<String> missing = new ArrayList<>();
+        if (StringUtils.isBlank(data.name())) {
+            missing.add("name");
+        }
+        if (data.gender() == null) {
+            missing.add("gender");
+        }
+        if (StringUtils.isBlank(data.age())) {
+            missing.add("age");
+        }
+        if (!missing.isEmpty()) {
+            return Mono.just(PreparedRow.rejected(row.line(), "Missing " + String.join(", ", missing)));
+        }
+
+        Mono<String> imageUrlMono;
+        if (data.imageFile() != null) {
+            ZipEntry entry = archive.entry(data.imageFile());
+            if (entry == null) {
+                return Mono.just(PreparedRow.rejected(row.line(), "Image " + data.imageFile() + " not found in the archive"));
+            }
+            imageUrlMono = azurePersistImageUtils.saveImageData(archive.read(entry),
+                    azurePersistImageUtils.getExtensionByStringHandling(data.imageFile()).orElse("jpeg"));
+        } else if (data.imageBase64() != null) {
+            imageUrlMono = azurePersistImageUtils.saveImageData(data.imageBase64());
+        } else {
+            imageUrlMono = Mono.empty();
+        }
+
+        return imageUrlMono
+                // Referenced outside the import transaction, which would otherwise lock the counter until it ends
+                .contextWrite(context -> Context.empty())
+                .doOnNext(storedImages::add)
+                .map(imageUrl -> toPreparedRow(row, imageUrl))
+                .switchIfEmpty(Mono.fromSupplier(() -> toPreparedRow(row, null)))
+                .onErrorResume(e -> {
+                    log.error("Error storing the image of line {}", row.line(), e);
+                    return Mono.just(PreparedRow.rejected(row.line(), "Image could not be stored"));
+                });
+    }
+
+    private PreparedRow toPreparedRow(ParsedRow row, String imageUrl) {
+        Animal animal = animalMapper.toAnimal(row.data());
+        animal.setImageUrl(imageUrl);
+        return new PreparedRow(row.line(), animal, null);
+    }
+
+    private Flux<AnimalImportResultDTO> insertBatch(List<PreparedRow> batch) {
+        List<Animal> animals = batch.stream()
+                .map(PreparedRow::animal)
+                .filter(Objects::nonNull)
+                .toList();
+
+        Mono<Map<String, Long>> idsByCode = animals.isEmpty()
+                ? Mono.just(Map.of())
+                : Flux.fromIterable(animals)
+                // The code block reservation is shared with concurrent requests, so it must not join this transaction
+                .concatMap(animal -> animalCodeAllocator.nextCode()
+                        .contextWrite(context -> Context.empty())
+                        .doOnNext(animal::setCode))
+                .then(Mono.defer(() -> insert(animals)));
+
+        return idsByCode.flatMapIterable(ids -> batch.stream()
+                .map(row -> row.animal() == null
+                        ? AnimalImportResultDTO.rejected(row.line(), row.error())
+                        : AnimalImportResultDTO.imported(row.line(), ids.get(row.animal().getCode()), row.animal().getCode()))
+                .toList());
+    }
+
+    /**
+     * Inserts the given animals with a single multi-row insert.
+     *
+     * @return a Mono emitting the IDs of the inserted animals by their code
+     */
+    private Mono<Map<String, Long>> insert(List<Animal> animals) {
+        String values = IntStream.range(0, animals.size())
+                .mapToObj(row -> COLUMNS.stream()
+                        .map(column -> ":" + column.name() + row)
+                        .collect(Collectors.joining(", ", "(", ")")))
+                .collect(Collectors.joining(", "));
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+                "insert into animals (" + INSERT_COLUMNS + ") values " + values + " returning id, code");
+        for (int row = 0; row < animals.size(); row++) {
+            for (Column column : COLUMNS) {
+                Object value = column.value().apply(animals.get(row));
+                spec = value != null
+                        ? spec.bind(column.name() + row, value)
+                        : spec.bindNull(column.name() + row, column.type());
+            }
+        }
+        return spec.map(row -> Map.entry(row.get("code", String.class), row.get("id", Long.class)))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    /**
+     * Spools the uploaded archive to a temporary file, so its entries can be read in any order without holding it in
+     * memory. The file is deleted as soon as it is opened, and freed once the archive is closed.
+     */
+    private Mono<ImageArchive> openArchive(FilePart images) {
+        if (images == null) {
+            return Mono.just(new ImageArchive(null));
+        }
+        return Mono.fromCallable(() -> Files.createTempFile("animal-import-", ".zip"))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(path -> images.transferTo(path)
+                        .then(Mono.fromCallable(() -> new ImageArchive(new ZipFile(path.toFile(), ZipFile.OPEN_READ | ZipFile.OPEN_DELETE))))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .onErrorResume(e -> Mono.fromCallable(() -> Files.deleteIfExists(path))
+                                .onErrorComplete()
+                                .then(Mono.error(new IllegalArgumentException("Invalid image archive: " + e.getMessage(), e)))));
+    }
+
+    private record ParsedRow(long line, AnimalImportRowDTO data, String error) {
+    }
+
+    private record PreparedRow(long line, Animal animal, String error) {
+
+        static PreparedRow rejected(long line, String error) {
+            return new PreparedRow(line, null, error);
+        }
+    }
+
+    private record Column(String name, Class<?> type, Function<Animal, Object> value) {
+    }
+
+    private record ImageArchive(ZipFile zip) {
+
+        ZipEntry entry(String name) {
+            return zip != null ? zip.getEntry(name) : null;
+        }
+
+        Flux<DataBuffer> read(ZipEntry entry) {
+            return DataBufferUtils.readInputStream(() -> zip.getInputStream(entry),
+                            DefaultDataBufferFactory.sharedInstance, ARCHIVE_READ_BUFFER_SIZE)
+                    .subscribeOn(Schedulers.boundedElastic());
+        }
+
+        Mono<Void> close() {
+            if (zip == null) {
+                return Mono.empty();
+            }
+            return Mono.<Void>fromRunnable(() -> {
+                try {
+                    zip.close();
+                } catch (IOException e) {
+                    log.warn("Error closing the image archive", e);
+                }
+            }).subscribeOn(Schedulers.boundedElastic());
+        }
+    }
+}
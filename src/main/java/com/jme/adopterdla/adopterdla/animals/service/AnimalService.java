@@ -1,36 +1,46 @@
 package com.jme.adopterdla.adopterdla.animals.service;
 
 import com.jme.adopterdla.adopterdla.animals.dto.AnimalDTO;
+import com.jme.adopterdla.adopterdla.animals.dto.AnimalFilterDTO;
 import com.jme.adopterdla.adopterdla.animals.dto.AnimalNameAndIdDTO;
+import com.jme.adopterdla.adopterdla.animals.dto.AnimalPageDTO;
 import com.jme.adopterdla.adopterdla.animals.entity.Animal;
 import com.jme.adopterdla.adopterdla.animals.mapper.AnimalMapper;
+import com.jme.adopterdla.adopterdla.animals.repository.AnimalCatalogueRepository;
 import com.jme.adopterdla.adopterdla.animals.repository.AnimalRepository;
 import com.jme.adopterdla.adopterdla.common.utils.AzurePersistImageUtils;
-import com.jme.adopterdla.adopterdla.common.service.AzureFileUploadService;
 import com.jme.adopterdla.adopterdla.user.entity.User;
 import com.jme.adopterdla.adopterdla.utils.RandomPasswordGenerator;
 import com.jme.adopterdla.adopterdla.volunteers.entity.Volunteer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 import java.util.List;
-import java.util.Random;
 
 @Service
 @RequiredArgsConstructor
 @Log4j2
 public class AnimalService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int VARIANTS_LOOKUP_BATCH_SIZE = 100;
+
     private final AnimalRepository animalRepository;
+    private final AnimalCatalogueRepository animalCatalogueRepository;
     private final AnimalMapper animalMapper;
-    private final AzureFileUploadService azureFileUploadService;
     private final AzurePersistImageUtils azurePersistImageUtils;
+    private final AvailableAnimalsCache availableAnimalsCache;
+    private final AnimalCodeAllocator animalCodeAllocator;
+    private final TransactionalOperator transactionalOperator;
 
     /**
      * Get an animal by ID
@@ -41,7 +51,20 @@ public class AnimalService {
      */
     public Mono<AnimalDTO> getAnimal(Long id) {
         return animalRepository.findById(id)
-                .map(animalMapper::toAnimalDTO);
+                .flux()
+                .transform(this::toAnimalDTOs)
+                .next();
+    }
+
+    /**
+     * Get the revision of an animal, which changes on every update and once the variants of its photo are stored
+     *
+     * @param id the ID of the animal
+     *
+     * @return the revision of the animal with the given ID, or empty if not found
+     */
+    public Mono<String> getAnimalRevision(Long id) {
+        return animalRepository.findRevisionById(id);
     }
 
     /**
@@ -51,7 +74,7 @@ public class AnimalService {
      */
     public Flux<AnimalDTO> getAllAnimals() {
         return animalRepository.findAll()
-                .map(animalMapper::toAnimalDTO);
+                .transform(this::toAnimalDTOs);
     }
 
     /**
@@ -63,55 +86,172 @@ public class AnimalService {
      */
     public Flux<AnimalDTO> getAllAnimalsByIsAvailable(boolean isAvailable) {
         Flux<Animal> animals = animalRepository.findAllByIsAvailable(isAvailable);
-        return animals.map(animalMapper::toAnimalDTO);
+        return animals.transform(this::toAnimalDTOs);
+    }
+
+    /**
+     * Get one page of animals matching the given filter, ordered by ID
+     *
+     * @param filter the filters to apply
+     * @param after  the cursor returned with the previous page, or null for the first page
+     * @param size   the maximum number of animals in the page, capped at {@value #MAX_PAGE_SIZE}
+     *
+     * @return the page of animals together with the cursor of the next page
+     */
+    public Mono<AnimalPageDTO> getAnimalsPage(AnimalFilterDTO filter, Long after, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        // Fetch one extra row to know whether there is a next page without a count query
+        return animalCatalogueRepository.findPage(filter, after != null ? after : 0L, pageSize + 1)
+                .transform(this::toAnimalDTOs)
+                .collectList()
+                .map(animals -> {
+                    if (animals.size() <= pageSize) {
+                        return new AnimalPageDTO(animals, null);
+                    }
+                    var content = animals.subList(0, pageSize);
+                    return new AnimalPageDTO(content, content.get(pageSize - 1).id());
+                });
     }
 
     /**
      * Get the names and IDs of all animals by availability
      *
-     * @return Flux of AnimalNameAndIdDTO representing the names and IDs of animals with the given availability status
+     * @return Mono of the immutable list of AnimalNameAndIdDTO representing the names and IDs of the available animals,
+     * served from a memoized snapshot
      */
-    public Flux<AnimalNameAndIdDTO> getAvailableAnimalNamesAndIds() {
-        return animalRepository.findNameAndIdByIsAvailable();
+    public Mono<List<AnimalNameAndIdDTO>> getAvailableAnimalNamesAndIds() {
+        return availableAnimalsCache.get();
     }
 
     /**
-     * Creates a new animal with the given data and image data.
+     * Creates a new animal with the given data and image data, or updates it if the data carries an ID.
      *
-     * @param animalDTO the data for the animal to be created
+     * @param animalDTO the data for the animal to be created, with the photo base64 encoded in {@code imageBase64}
      *
      * @return a Mono containing the created AnimalDTO
      */
     public Mono<AnimalDTO> createAnimal(AnimalDTO animalDTO) {
-
-        Mono<String> imageUrlMono = animalDTO.imageBase64() != null
+        Mono<String> imageUpload = animalDTO.imageBase64() != null
                 ? azurePersistImageUtils.saveImageData(animalDTO.imageBase64())
-                : Mono.empty();
+                : null;
+        return saveAnimal(animalDTO.id(), animalDTO, imageUpload);
+    }
 
-        return imageUrlMono.defaultIfEmpty("").flatMap(imageUrl -> {
-                    if (animalDTO.id() == null) {
-                        var animal = animalMapper.toAnimal(animalDTO);
-                        animal.setImageUrl(imageUrl);
-                        animal.setCode(generateCode());
-                        return animalRepository.save(animal);
-                    } else {
-                        return animalRepository.findById(animalDTO.id())
-                                .doOnNext(existingAnimal -> {
-                                    if (animalDTO.imageBase64() != null) {
-                                        // If an image is being updated, delete the old image and upload the new one.
-                                        Mono.fromCallable(() -> azureFileUploadService.deleteImage(existingAnimal.getImageUrl()))
-                                                .subscribeOn(Schedulers.boundedElastic())
-                                                .subscribe();
-                                    }
-                                })
-                                .doOnNext(existingAnimal -> animalMapper.toAnimalUpdate(animalDTO, existingAnimal))
-                                .flatMap(animalRepository::save);
-                    }
-                }
+    /**
+     * Creates a new animal with the given data and photo, or updates it if the data carries an ID.
+     * The photo is streamed to the blob storage as it is read, so it is never held in memory whole.
+     *
+     * @param animalDTO the data for the animal to be created
+     * @param imageData the photo of the animal, or null to keep it without one
+     *
+     * @return a Mono containing the created AnimalDTO
+     */
+    public Mono<AnimalDTO> createAnimal(AnimalDTO animalDTO, FilePart imageData) {
+        return saveAnimal(animalDTO.id(), animalDTO, uploadImage(imageData));
+    }
 
-        ).map(animalMapper::toAnimalDTO);
+    /**
+     * Updates the animal with the given ID, replacing its photo if a new one is given.
+     * Fields missing from the data are left untouched.
+     *
+     * @param id        the ID of the animal to update
+     * @param animalDTO the data to update
+     * @param imageData the new photo of the animal, or null to keep the current one
+     *
+     * @return a Mono containing the updated AnimalDTO, or a 404 error if there is no animal with the given ID
+     */
+    public Mono<AnimalDTO> updateAnimal(Long id, AnimalDTO animalDTO, FilePart imageData) {
+        return saveAnimal(id, animalDTO, uploadImage(imageData))
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Animal not found")));
     }
 
+    private Mono<String> uploadImage(FilePart imageData) {
+        if (imageData == null) {
+            return null;
+        }
+        return azurePersistImageUtils.saveImageData(imageData.content(),
+                azurePersistImageUtils.getExtensionByStringHandling(imageData.filename()).orElse("jpeg"));
+    }
+
+    /**
+     * Inserts the animal if there is no ID, or updates the one with the given ID.
+     * The photo is uploaded before the transaction, so it does not hold a connection; it is released if the animal is
+     * not saved, either because there is no animal with the given ID or because the transaction is rolled back.
+     *
+     * @param imageUpload stores the new photo and emits its URL, or null if the photo does not change
+     */
+    private Mono<AnimalDTO> saveAnimal(Long id, AnimalDTO animalDTO, Mono<String> imageUpload) {
+
+        Mono<String> imageUrlMono = imageUpload != null ? imageUpload : Mono.empty();
+
+        return imageUrlMono.defaultIfEmpty("").flatMap(imageUrl -> persistAnimal(id, animalDTO, imageUpload != null, imageUrl)
+                        .switchIfEmpty(Mono.defer(() -> releaseUploadedImage(imageUrl).then(Mono.empty())))
+                        .onErrorResume(e -> releaseUploadedImage(imageUrl).then(Mono.error(e))))
+                .doOnNext(savedAnimal -> availableAnimalsCache.invalidate())
+                .flux()
+                .transform(this::toAnimalDTOs)
+                .next()
+                .onErrorMap(OptimisticLockingFailureException.class,
+                        e -> new ResponseStatusException(HttpStatus.CONFLICT, "Animal was updated concurrently", e));
+    }
+
+    /**
+     * Drops the reference taken by the upload of a photo that no animal points at.
+     */
+    private Mono<Void> releaseUploadedImage(String imageUrl) {
+        return azurePersistImageUtils.releaseImage(imageUrl)
+                .as(transactionalOperator::transactional)
+                .onErrorResume(e -> {
+                    log.error("Error releasing the unused image {}", imageUrl, e);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Animal> persistAnimal(Long id, AnimalDTO animalDTO, boolean imageChanged, String imageUrl) {
+        if (id == null) {
+            var animal = animalMapper.toAnimal(animalDTO);
+            animal.setImageUrl(imageUrl);
+            return animalCodeAllocator.nextCode()
+                    .flatMap(code -> {
+                        animal.setCode(code);
+                        return animalRepository.save(animal);
+                    });
+        } else {
+            return animalRepository.findById(id)
+                    .flatMap(existingAnimal -> {
+                        String previousImageUrl = existingAnimal.getImageUrl();
+                        animalMapper.toAnimalUpdate(animalDTO, existingAnimal);
+                        existingAnimal.setId(id);
+                        if (!imageChanged) {
+                            return animalRepository.save(existingAnimal);
+                        }
+                        // If an image is being updated, point to the new one and release the old one in the same
+                        // transaction, so its deletion is queued if and only if the update is committed.
+                        // Re-uploading the same photo leaves the image untouched, as both share the same blob.
+                        existingAnimal.setImageUrl(imageUrl);
+                        return animalRepository.save(existingAnimal)
+                                .flatMap(savedAnimal -> azurePersistImageUtils.releaseImage(previousImageUrl)
+                                        .thenReturn(savedAnimal));
+                    })
+                    .as(transactionalOperator::transactional);
+        }
+    }
+
+    /**
+     * Maps the animals to DTOs, linking the image variants only of the photos whose variants are stored.
+     * The stored variants are looked up in batches, so a long listing costs one query per batch.
+     */
+    private Flux<AnimalDTO> toAnimalDTOs(Flux<Animal> animals) {
+        return animals.buffer(VARIANTS_LOOKUP_BATCH_SIZE)
+                .concatMap(batch -> azurePersistImageUtils.findImagesWithVariants(batch.stream().map(Animal::getImageUrl).toList())
+                        .flatMapIterable(imagesWithVariants -> batch.stream()
+                                .map(animal -> {
+                                    animal.setImageVariantsStored(imagesWithVariants.contains(animal.getImageUrl()));
+                                    return animalMapper.toAnimalDTO(animal);
+                                })
+                                .toList()));
+    }
 
     /**
      * Delete an animal by ID
@@ -122,20 +262,10 @@ public class AnimalService {
      */
     public Mono<Void> deleteAnimal(Long id) {
         return animalRepository.findById(id)
-                .flatMap(animal -> {
-                    Mono<Void> deleteImageMono = Mono.empty();
-                    if (animal.getImageUrl() != null) {
-                        deleteImageMono = Mono.fromCallable(() -> azureFileUploadService.deleteImage(animal.getImageUrl()).block())
-                                .subscribeOn(Schedulers.boundedElastic());
-                    }
-                    return deleteImageMono.then(animalRepository.deleteById(id));
-                });
-    }
-
-    public String generateCode() {
-        Random random = new Random();
-        int codeNumber = random.nextInt(9000) + 1000; // generate a random number between 1000 and 9999
-        return Integer.toString(codeNumber);
+                .flatMap(animal -> animalRepository.deleteById(id)
+                        .then(azurePersistImageUtils.releaseImage(animal.getImageUrl())))
+                .as(transactionalOperator::transactional)
+                .doOnSuccess(deleted -> availableAnimalsCache.invalidate());
     }
 
 }
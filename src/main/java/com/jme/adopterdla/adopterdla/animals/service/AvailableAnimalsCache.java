@@ -0,0 +1,87 @@
+package com.jme.adopterdla.adopterdla.animals.service;
+
+import com.jme.adopterdla.adopterdla.animals.dto.AnimalNameAndIdDTO;
+import com.jme.adopterdla.adopterdla.animals.repository.AnimalRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Memoized snapshot of the names and IDs of the available animals, backing the dropdown of the visit booking form.
+ * <p>
+ * The snapshot is loaded on the first request and kept as an immutable list. Every later request is answered with the
+ * same cached Mono, without touching the database or allocating. It must be invalidated whenever an animal or the
+ * status of an adoption process changes; the time to live only bounds the staleness of changes made outside the
+ * application. Concurrent misses share a single load, and failed loads are not kept.
+ */
+@Component
+public class AvailableAnimalsCache {
+
+    private final AnimalRepository animalRepository;
+    private final long timeToLiveNanos;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public AvailableAnimalsCache(AnimalRepository animalRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${animals.names-ids-cache.ttl}") Duration timeToLive) {
+        this.animalRepository = animalRepository;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.hitCounter = Counter.builder("animals.names-ids.cache")
+                .description("Requests for the available animal names and IDs")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("animals.names-ids.cache")
+                .description("Requests for the available animal names and IDs")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the names and IDs of the available animals, loading them only if there is no valid snapshot.
+     *
+     * @return a Mono emitting the immutable list of names and IDs
+     */
+    public Mono<List<AnimalNameAndIdDTO>> get() {
+        Snapshot current = snapshot.get();
+        if (current != null && System.nanoTime() - current.loadedAt() < timeToLiveNanos) {
+            hitCounter.increment();
+            return current.animals();
+        }
+        Snapshot loading = load();
+        if (!snapshot.compareAndSet(current, loading)) {
+            // Another request has just started a load or invalidated the snapshot
+            return get();
+        }
+        missCounter.increment();
+        return loading.animals();
+    }
+
+    /**
+     * Drops the snapshot, so the next request reads the available animals from the database again.
+     */
+    public void invalidate() {
+        snapshot.set(null);
+    }
+
+    private Snapshot load() {
+        AtomicReference<Snapshot> self = new AtomicReference<>();
+        Mono<List<AnimalNameAndIdDTO>> animals = animalRepository.findNameAndIdByIsAvailable()
+                .collectList()
+                .<List<AnimalNameAndIdDTO>>map(List::copyOf)
+                .doOnError(e -> snapshot.compareAndSet(self.get(), null))
+                .cache();
+        self.set(new Snapshot(animals, System.nanoTime()));
+        return self.get();
+    }
+
+    private record Snapshot(Mono<List<AnimalNameAndIdDTO>> animals, long loadedAt) {
+    }
+}
@@ -29,7 +29,8 @@ public class AuthController {
     @Operation(summary = "Authenticates a user and generates a JWT token for further requests.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Authentication successful."),
-            @ApiResponse(responseCode = "401", description = "Authentication failed, invalid credentials.")
+            @ApiResponse(responseCode = "401", description = "Authentication failed, invalid credentials."),
+            @ApiResponse(responseCode = "503", description = "Too many logins in progress, retry later.")
     })
     public Mono<ResponseEntity<JwtResponse>> login(@RequestBody LoginRequest loginRequest) {
         return authService.login(loginRequest);
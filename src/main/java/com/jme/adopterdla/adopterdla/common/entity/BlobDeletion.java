@@ -0,0 +1,27 @@
+package com.jme.adopterdla.adopterdla.common.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+
+/**
+ * Pending deletion of a blob that is no longer referenced, drained by the blob deletion worker.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table("blob_deletions")
+public class BlobDeletion {
+
+    @Id
+    private Long id;
+    private String name;
+    private Instant createdAt;
+    private int attempts;
+    private Instant nextAttemptAt;
+    private String lastError;
+}
@@ -0,0 +1,25 @@
+package com.jme.adopterdla.adopterdla.common.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Number of entities pointing at a content-addressed blob. The blob is deleted once the count drops to zero.
+ * It is only marked as stored once an upload of its content has succeeded, and its resized variants only once they
+ * have all been generated.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table("blob_refs")
+public class BlobReference {
+
+    @Id
+    private String name;
+    private int refCount;
+    private boolean stored;
+    private boolean variantsStored;
+}
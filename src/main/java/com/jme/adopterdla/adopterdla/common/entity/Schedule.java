@@ -29,6 +29,17 @@ public class Schedule {
 
     @Override
     public String toString() {
+        return describe(days, startTimeHour, startTimeMinute, endTimeHour, endTimeMinute);
+    }
+
+    /**
+     * Describes a schedule read without loading it, e.g. as columns of a joined query.
+     *
+     * @param days the ISO days of the week, 1 being Monday
+     * @return the days and hours of the schedule, e.g. {@code Days: MON, WED from 09:00 to 13:00}
+     */
+    public static String describe(Iterable<Integer> days, int startTimeHour, int startTimeMinute,
+                                  int endTimeHour, int endTimeMinute) {
         StringBuilder sb = new StringBuilder();
         sb.append("Days: ");
         for (Integer dayValue : days) {
@@ -0,0 +1,83 @@
+package com.jme.adopterdla.adopterdla.common.entity.repository;
+
+import com.jme.adopterdla.adopterdla.common.entity.BlobDeletion;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+@Repository
+public interface BlobDeletionRepository extends ReactiveCrudRepository<BlobDeletion, Long> {
+
+    /**
+     * Queues the deletion of the given blob.
+     *
+     * @param name the name of the blob
+     * @return the number of queued deletions
+     */
+    @Modifying
+    @Query("INSERT INTO blob_deletions (name) VALUES (:name)")
+    Mono<Integer> enqueue(String name);
+
+    /**
+     * Claims the oldest due deletions, skipping the ones claimed by other nodes. Each claimed deletion is pushed back
+     * by its retry delay straight away, so it is retried after that delay unless it is deleted first.
+     *
+     * @param limit               the maximum number of deletions to claim
+     * @param initialDelaySeconds the delay before the first retry, doubled on each attempt
+     * @param maxDelaySeconds     the maximum delay between two attempts
+     * @return the claimed deletions
+     */
+    @Query("""
+            UPDATE blob_deletions
+            SET attempts = attempts + 1,
+                next_attempt_at = now() + least(:initialDelaySeconds * power(2, attempts), :maxDelaySeconds) * interval '1 second'
+            WHERE id IN (SELECT id FROM blob_deletions
+                         WHERE next_attempt_at <= now()
+                         ORDER BY next_attempt_at
+                         LIMIT :limit
+                         FOR UPDATE SKIP LOCKED)
+            RETURNING *""")
+    Flux<BlobDeletion> claim(int limit, long initialDelaySeconds, long maxDelaySeconds);
+
+    /**
+     * Records why the last attempt of a deletion failed.
+     *
+     * @param id    the ID of the deletion
+     * @param error the error of the last attempt
+     * @return the number of updated deletions
+     */
+    @Modifying
+    @Query("UPDATE blob_deletions SET last_error = :error WHERE id = :id")
+    Mono<Integer> recordFailure(Long id, String error);
+
+    /**
+     * Removes the given deletions once their blobs are gone.
+     *
+     * @param ids the IDs of the deletions
+     * @return the number of removed deletions
+     */
+    @Modifying
+    @Query("DELETE FROM blob_deletions WHERE id IN (:ids)")
+    Mono<Integer> deleteAllByIdIn(Collection<Long> ids);
+
+    /**
+     * Returns the number of pending deletions and the age of the oldest one.
+     */
+    @Query("""
+            SELECT count(*) AS pending,
+                   coalesce(extract(epoch FROM now() - min(created_at)), 0)::float8 AS oldest_age_seconds
+            FROM blob_deletions""")
+    Mono<Backlog> findBacklog();
+
+    /**
+     * @param pending          the number of pending deletions
+     * @param oldestAgeSeconds the seconds since the oldest pending deletion was queued, 0 if there is none
+     */
+    record Backlog(long pending, double oldestAgeSeconds) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.jme.adopterdla.adopterdla.common.entity.repository;
+
+import com.jme.adopterdla.adopterdla.common.entity.BlobReference;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+@Repository
+public interface BlobReferenceRepository extends ReactiveCrudRepository<BlobReference, String> {
+
+    /**
+     * Adds a reference to the given blob, creating its counter if needed.
+     *
+     * @param name the name of the blob
+     * @return the counter after the increment, telling whether the blob is already stored
+     */
+    @Query("""
+            INSERT INTO blob_refs (name, ref_count) VALUES (:name, 1)
+            ON CONFLICT (name) DO UPDATE SET ref_count = blob_refs.ref_count + 1
+            RETURNING *""")
+    Mono<BlobReference> increment(String name);
+
+    /**
+     * Records that the content of the given blob has been uploaded.
+     *
+     * @param name the name of the blob
+     * @return 1 if the blob was not marked as stored yet, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE blob_refs SET stored = true WHERE name = :name AND NOT stored")
+    Mono<Integer> markStored(String name);
+
+    /**
+     * Records that the resized variants of the given blob have all been stored.
+     *
+     * @param name the name of the blob
+     * @return the number of updated counters, 0 if the blob is no longer referenced
+     */
+    @Modifying
+    @Query("UPDATE blob_refs SET variants_stored = true WHERE name = :name")
+    Mono<Integer> markVariantsStored(String name);
+
+    /**
+     * Finds which of the given blobs have their resized variants stored.
+     *
+     * @param names the names of the blobs, never empty
+     * @return the names of the blobs with stored variants
+     */
+    @Query("SELECT name FROM blob_refs WHERE name IN (:names) AND variants_stored")
+    Flux<String> findNamesWithVariantsStored(Collection<String> names);
+
+    /**
+     * Removes a reference to the given blob.
+     *
+     * @param name the name of the blob
+     * @return the number of references after the decrement, or empty if the blob is not reference counted
+     */
+    @Query("""
+            UPDATE blob_refs SET ref_count = ref_count - 1
+            WHERE name = :name AND ref_count > 0
+            RETURNING ref_count""")
+    Mono<Integer> decrement(String name);
+
+    /**
+     * Locks the counter of the given blob until the end of the current transaction, creating an unreferenced one if
+     * there is none, so that no reference can be added to the blob in the meantime.
+     *
+     * @param name the name of the blob
+     * @return the locked counter
+     */
+    @Query("""
+            INSERT INTO blob_refs (name, ref_count) VALUES (:name, 0)
+            ON CONFLICT (name) DO UPDATE SET ref_count = blob_refs.ref_count
+            RETURNING *""")
+    Mono<BlobReference> lock(String name);
+
+    /**
+     * Deletes the counter of the given blob if it is still unreferenced.
+     *
+     * @param name the name of the blob
+     * @return the number of deleted counters
+     */
+    @Modifying
+    @Query("DELETE FROM blob_refs WHERE name = :name AND ref_count = 0")
+    Mono<Integer> deleteUnreferenced(String name);
+}
@@ -0,0 +1,100 @@
+package com.jme.adopterdla.adopterdla.common.storage;
+
+import com.azure.core.util.polling.LongRunningOperationStatus;
+import com.azure.storage.blob.BlobContainerAsyncClient;
+import com.azure.storage.blob.models.ParallelTransferOptions;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+/**
+ * {@link BlobStore} backed by an Azure Blob Storage container, using the asynchronous client.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.blob.type", havingValue = "azure", matchIfMissing = true)
+@AllArgsConstructor
+public class AzureBlobStore implements BlobStore {
+
+    private static final long BLOCK_SIZE = 4L * 1024 * 1024;
+
+    // Blobs up to one block are sent in a single request, larger ones are staged block by block,
+    // so the client never buffers more than a couple of blocks of an upload.
+    private static final ParallelTransferOptions TRANSFER_OPTIONS = new ParallelTransferOptions()
+            .setBlockSizeLong(BLOCK_SIZE)
+            .setMaxSingleUploadSizeLong(BLOCK_SIZE)
+            .setMaxConcurrency(2);
+
+    // Copies within the same account usually complete on the first poll
+    private static final Duration COPY_POLL_INTERVAL = Duration.ofMillis(500);
+
+    private final BlobContainerAsyncClient blobContainerAsyncClient;
+
+    @Override
+    public Mono<String> put(String name, Flux<DataBuffer> content) {
+        return Mono.defer(() -> {
+            var blobClient = blobContainerAsyncClient.getBlobAsyncClient(name);
+            return blobClient.upload(content.map(this::toByteBuffer), TRANSFER_OPTIONS, true)
+                    .thenReturn(blobClient.getBlobUrl());
+        });
+    }
+
+    @Override
+    public Flux<DataBuffer> get(String name) {
+        return Flux.defer(() -> blobContainerAsyncClient.getBlobAsyncClient(name).downloadStream())
+                .map(DefaultDataBufferFactory.sharedInstance::wrap);
+    }
+
+    @Override
+    public Mono<Boolean> delete(String name) {
+        return Mono.defer(() -> blobContainerAsyncClient.getBlobAsyncClient(name).deleteIfExists());
+    }
+
+    @Override
+    public Mono<Boolean> exists(String name) {
+        return Mono.defer(() -> blobContainerAsyncClient.getBlobAsyncClient(name).exists());
+    }
+
+    /**
+     * Azure has no rename, so the blob is copied server-side and the source is deleted once the copy completes.
+     */
+    @Override
+    public Mono<String> move(String sourceName, String targetName) {
+        return Mono.defer(() -> {
+            var source = blobContainerAsyncClient.getBlobAsyncClient(sourceName);
+            var target = blobContainerAsyncClient.getBlobAsyncClient(targetName);
+            return target.beginCopy(source.getBlobUrl(), COPY_POLL_INTERVAL)
+                    .last()
+                    .flatMap(response -> response.getStatus() == LongRunningOperationStatus.SUCCESSFULLY_COMPLETED
+                            ? source.delete().thenReturn(target.getBlobUrl())
+                            : Mono.error(new IllegalStateException("Copy of blob " + sourceName + " to " + targetName
+                            + " did not complete: " + response.getStatus())));
+        });
+    }
+
+    @Override
+    public String urlOf(String name) {
+        return blobContainerAsyncClient.getBlobAsyncClient(name).getBlobUrl();
+    }
+
+    /**
+     * Copies the readable bytes of the given buffer into a heap {@link ByteBuffer} and releases the buffer,
+     * as the Azure client may hold on to the chunk after the (possibly pooled) buffer is recycled.
+     */
+    private ByteBuffer toByteBuffer(DataBuffer dataBuffer) {
+        try {
+            byte[] bytes = new byte[dataBuffer.readableByteCount()];
+            dataBuffer.read(bytes);
+            return ByteBuffer.wrap(bytes);
+        } finally {
+            DataBufferUtils.release(dataBuffer);
+        }
+    }
+}
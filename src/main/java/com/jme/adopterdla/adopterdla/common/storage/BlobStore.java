@@ -0,0 +1,80 @@
+package com.jme.adopterdla.adopterdla.common.storage;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reactive SPI for storing binary objects (blobs) such as images.
+ * <p>
+ * The implementation in use is selected with the {@code storage.blob.type} property:
+ * {@code azure} (default), {@code local} or {@code memory}.
+ */
+public interface BlobStore {
+
+    /**
+     * Stores the given content under the given name, replacing any existing blob with the same name.
+     * The content buffers are released by the store once consumed.
+     *
+     * @param name    the name of the blob
+     * @param content the content of the blob
+     * @return a Mono emitting the public URL of the stored blob
+     */
+    Mono<String> put(String name, Flux<DataBuffer> content);
+
+    /**
+     * Reads the content of the blob with the given name.
+     *
+     * @param name the name of the blob
+     * @return a Flux emitting the content of the blob in chunks, or an error if the blob does not exist
+     */
+    Flux<DataBuffer> get(String name);
+
+    /**
+     * Deletes the blob with the given name.
+     *
+     * @param name the name of the blob
+     * @return a Mono emitting true if the blob existed and was deleted, false otherwise
+     */
+    Mono<Boolean> delete(String name);
+
+    /**
+     * Checks whether a blob with the given name exists.
+     *
+     * @param name the name of the blob
+     * @return a Mono emitting true if the blob exists, false otherwise
+     */
+    Mono<Boolean> exists(String name);
+
+    /**
+     * Renames a blob, replacing any existing blob with the target name.
+     *
+     * @param sourceName the current name of the blob
+     * @param targetName the new name of the blob
+     * @return a Mono emitting the public URL of the renamed blob, or an error if the source blob does not exist
+     */
+    Mono<String> move(String sourceName, String targetName);
+
+    /**
+     * Returns the public URL of the blob with the given name, without checking that it exists.
+     *
+     * @param name the name of the blob
+     * @return the public URL of the blob
+     */
+    String urlOf(String name);
+
+    /**
+     * Extracts the blob name from a public URL returned by {@link #put(String, Flux)}.
+     *
+     * @param publicUrl the public URL of the blob
+     * @return the name of the blob
+     */
+    default String nameOf(String publicUrl) {
+        // Decode the public URL to obtain the actual URL of the blob and extract the file name from it
+        String decodedUrl = URLDecoder.decode(publicUrl, StandardCharsets.UTF_8);
+        return decodedUrl.substring(decodedUrl.lastIndexOf("/") + 1);
+    }
+}
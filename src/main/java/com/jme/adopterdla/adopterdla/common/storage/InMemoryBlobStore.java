@@ -0,0 +1,72 @@
+package com.jme.adopterdla.adopterdla.common.storage;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.FileNotFoundException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link BlobStore} keeping blobs on the heap. Meant for tests and for load-testing the upload path offline.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.blob.type", havingValue = "memory")
+public class InMemoryBlobStore implements BlobStore {
+
+    static final String URL_PREFIX = "memory://blobs/";
+
+    private final Map<String, byte[]> blobs = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<String> put(String name, Flux<DataBuffer> content) {
+        return DataBufferUtils.join(content)
+                .map(dataBuffer -> {
+                    try {
+                        byte[] bytes = new byte[dataBuffer.readableByteCount()];
+                        dataBuffer.read(bytes);
+                        return bytes;
+                    } finally {
+                        DataBufferUtils.release(dataBuffer);
+                    }
+                })
+                .defaultIfEmpty(new byte[0])
+                .doOnNext(bytes -> blobs.put(name, bytes))
+                .thenReturn(urlOf(name));
+    }
+
+    @Override
+    public Flux<DataBuffer> get(String name) {
+        return Mono.fromCallable(() -> blobs.get(name))
+                .switchIfEmpty(Mono.error(() -> new FileNotFoundException(name)))
+                .flatMapMany(bytes -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(bytes)));
+    }
+
+    @Override
+    public Mono<Boolean> delete(String name) {
+        return Mono.fromCallable(() -> blobs.remove(name) != null);
+    }
+
+    @Override
+    public Mono<Boolean> exists(String name) {
+        return Mono.fromCallable(() -> blobs.containsKey(name));
+    }
+
+    @Override
+    public Mono<String> move(String sourceName, String targetName) {
+        return Mono.fromCallable(() -> blobs.remove(sourceName))
+                .switchIfEmpty(Mono.error(() -> new FileNotFoundException(sourceName)))
+                .doOnNext(bytes -> blobs.put(targetName, bytes))
+                .thenReturn(urlOf(targetName));
+    }
+
+    @Override
+    public String urlOf(String name) {
+        return URL_PREFIX + name;
+    }
+}
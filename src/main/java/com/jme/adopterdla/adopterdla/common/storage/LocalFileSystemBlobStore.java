@@ -0,0 +1,116 @@
+package com.jme.adopterdla.adopterdla.common.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * {@link BlobStore} keeping blobs as files in a local directory.
+ * <p>
+ * Writes go to a temporary file that is atomically moved into place, so readers never see a partial blob.
+ * Reads memory-map the file and emit slices of the mapping, so no copy of the blob is made on the heap.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.blob.type", havingValue = "local")
+public class LocalFileSystemBlobStore implements BlobStore {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final Path rootDirectory;
+
+    public LocalFileSystemBlobStore(@Value("${storage.blob.local.root-dir}") Path rootDirectory) {
+        try {
+            this.rootDirectory = Files.createDirectories(rootDirectory).toAbsolutePath().normalize();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create blob directory " + rootDirectory, e);
+        }
+    }
+
+    @Override
+    public Mono<String> put(String name, Flux<DataBuffer> content) {
+        return Mono.fromCallable(() -> resolve(name))
+                .flatMap(target -> {
+                    Path tempFile = rootDirectory.resolve("." + UUID.randomUUID() + ".tmp");
+                    return DataBufferUtils.write(content, tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)
+                            .then(Mono.fromCallable(() -> Files.move(tempFile, target,
+                                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING)))
+                            .onErrorResume(e -> Mono.fromCallable(() -> Files.deleteIfExists(tempFile))
+                                    .then(Mono.error(e)))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .thenReturn(urlOf(name));
+                });
+    }
+
+    @Override
+    public Flux<DataBuffer> get(String name) {
+        return Mono.fromCallable(() -> {
+                    try (FileChannel channel = FileChannel.open(resolve(name), StandardOpenOption.READ)) {
+                        // The mapping stays valid after the channel is closed
+                        return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(this::slice);
+    }
+
+    @Override
+    public Mono<Boolean> delete(String name) {
+        return Mono.fromCallable(() -> Files.deleteIfExists(resolve(name)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<Boolean> exists(String name) {
+        return Mono.fromCallable(() -> Files.exists(resolve(name)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<String> move(String sourceName, String targetName) {
+        return Mono.fromCallable(() -> Files.move(resolve(sourceName), resolve(targetName),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING))
+                .subscribeOn(Schedulers.boundedElastic())
+                .thenReturn(urlOf(targetName));
+    }
+
+    @Override
+    public String urlOf(String name) {
+        return resolve(name).toUri().toString();
+    }
+
+    private Flux<DataBuffer> slice(MappedByteBuffer mapping) {
+        int size = mapping.capacity();
+        return Flux.range(0, (size + CHUNK_SIZE - 1) / CHUNK_SIZE)
+                .map(chunk -> {
+                    int offset = chunk * CHUNK_SIZE;
+                    return DefaultDataBufferFactory.sharedInstance.wrap(mapping.slice(offset, Math.min(CHUNK_SIZE, size - offset)));
+                });
+    }
+
+    /**
+     * Resolves the file of the given blob, rejecting names that would escape the root directory.
+     */
+    private Path resolve(String name) {
+        Path path = rootDirectory.resolve(name).normalize();
+        if (!rootDirectory.equals(path.getParent())) {
+            throw new IllegalArgumentException("Invalid blob name: " + name);
+        }
+        return path;
+    }
+}
@@ -1,68 +1,184 @@
 package com.jme.adopterdla.adopterdla.common.utils;
 
-import com.jme.adopterdla.adopterdla.common.service.AzureFileUploadService;
+import com.jme.adopterdla.adopterdla.common.entity.repository.BlobDeletionRepository;
+import com.jme.adopterdla.adopterdla.common.entity.repository.BlobReferenceRepository;
+import com.jme.adopterdla.adopterdla.common.storage.BlobStore;
 import lombok.AllArgsConstructor;
+import lombok.extern.log4j.Log4j2;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @AllArgsConstructor
 @Service
+@Log4j2
 public class AzurePersistImageUtils {
 
-    private final AzureFileUploadService azureFileUploadService;
+    // Must be a multiple of 4 so that every chunk but the last is a complete base64 quantum
+    static final int BASE64_CHUNK_SIZE = 64 * 1024;
 
+    // Streamed uploads are stored under this prefix until their hash, and so their final name, is known
+    private static final String UPLOAD_PREFIX = "upload-";
 
+    private final BlobStore blobStore;
+    private final BlobReferenceRepository blobReferenceRepository;
+    private final BlobDeletionRepository blobDeletionRepository;
+    private final ImageVariantGenerator imageVariantGenerator;
+
+
+    /**
+     * Saves the given base64 encoded JPEG image under the SHA-256 of its content and returns a Mono that emits
+     * its public URL. The image is hashed before being sent, so the upload is skipped when it is already stored.
+     *
+     * @param base64ImageData the base64 encoded image
+     * @return a Mono<String> that emits the public URL of the saved image
+     */
     public Mono<String> saveImageData(String base64ImageData) {
-        byte[] decodedImageData = Base64.getDecoder().decode(base64ImageData);
-        DataBuffer dataBuffer = new DefaultDataBufferFactory().wrap(decodedImageData);
-        Flux<DataBuffer> imageDataFlux = Flux.just(dataBuffer);
-        return saveImageData(imageDataFlux, "jpeg");
+        return Mono.defer(() -> {
+            MessageDigest digest = sha256();
+            return decodeBase64(base64ImageData)
+                    .doOnNext(chunk -> update(digest, chunk))
+                    .then(Mono.fromCallable(() -> HexFormat.of().formatHex(digest.digest()) + ".jpeg"));
+        }).flatMap(name -> addReference(name,
+                () -> blobStore.put(name, decodeBase64(base64ImageData)),
+                Mono::empty));
     }
 
     /**
-     * Saves the given image data to a file and returns a Mono that emits the public URL of the saved image.
+     * Streams the given image data to the blob storage and returns a Mono that emits the public URL of the saved image.
+     * The image is hashed while it is uploaded and then renamed to the SHA-256 of its content, unless an identical
+     * image is already stored, in which case the upload is discarded.
+     * The resized variants of a newly stored image are generated in the background.
      *
      * @param imageData  The image data to save.
      * @param extension  The file extension to use for the saved image.
      * @return A Mono<String> that emits the public URL of the saved image.
      */
     public Mono<String> saveImageData(Flux<DataBuffer> imageData, String extension) {
-        return Mono.fromCallable(() -> createTempFile(extension))
-                .publishOn(Schedulers.boundedElastic())
-                .flatMap(tempFilePath -> {
-                    var writeMono = DataBufferUtils.write(imageData, tempFilePath, StandardOpenOption.CREATE);
-                    var uploadMono = Mono.fromCallable(() -> azureFileUploadService.uploadImageAndGetPublicUrl(tempFilePath.toString()));
-                    var deleteMono = Mono.fromCallable(() -> deleteTempFile(tempFilePath))
-                            .subscribeOn(Schedulers.boundedElastic()).then();
-                    return writeMono.then(uploadMono)
-                            .publishOn(Schedulers.boundedElastic())
-                            .doFinally(signalType -> deleteMono.subscribe());
-                });
+        return Mono.defer(() -> {
+            MessageDigest digest = sha256();
+            String uploadName = UPLOAD_PREFIX + UUID.randomUUID() + "." + extension;
+            return blobStore.put(uploadName, imageData.doOnNext(chunk -> update(digest, chunk)))
+                    .then(Mono.fromCallable(() -> HexFormat.of().formatHex(digest.digest()) + "." + extension))
+                    .flatMap(name -> addReference(name,
+                            () -> blobStore.move(uploadName, name),
+                            () -> blobStore.delete(uploadName).then()))
+                    .onErrorResume(e -> blobStore.delete(uploadName).onErrorComplete().then(Mono.error(e)));
+        });
     }
 
+    /**
+     * Removes a reference to the image with the given public URL, queueing the deletion of it and its resized variants
+     * once nothing points at it any more. Images stored before content addressing have no reference count and are
+     * queued straight away.
+     * <p>
+     * It only writes to the database, so when run inside the transaction of the change that drops the image, the
+     * deletion is queued if and only if that change is committed. The blobs are deleted later by the
+     * {@link BlobDeletionWorker}.
+     *
+     * @param publicUrl the public URL of the image to release
+     * @return a Mono<Void> completing once the image is dereferenced, or immediately if there is no image
+     */
+    public Mono<Void> releaseImage(String publicUrl) {
+        if (publicUrl == null || publicUrl.isBlank()) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> blobStore.nameOf(publicUrl))
+                .flatMap(name -> blobReferenceRepository.decrement(name)
+                        .map(refCount -> refCount == 0)
+                        .defaultIfEmpty(true)
+                        .filter(Boolean::booleanValue)
+                        .flatMap(unreferenced -> blobDeletionRepository.enqueue(name)))
+                .then();
+    }
 
     /**
-     * Creates a temporary file with a given filename and a default ".jpeg" extension if the filename does not have an extension.
+     * Finds which of the given images have their resized variants stored, so that only those are linked.
      *
-     * @param extension the extension from filename for the temporary file
-     * @return a Path object representing the path to the newly created temporary file
-     * @throws IOException if an I/O error occurs while creating the temporary file
+     * @param publicUrls the public URLs of the images, blank ones are ignored
+     * @return a Mono emitting the public URLs of the images whose variants are stored
      */
-    private Path createTempFile(String extension) throws IOException {
-        return Files.createTempFile(UUID.randomUUID().toString(), "." + extension);
+    public Mono<Set<String>> findImagesWithVariants(Collection<String> publicUrls) {
+        List<String> imageUrls = publicUrls.stream()
+                .filter(publicUrl -> publicUrl != null && !publicUrl.isBlank())
+                .distinct()
+                .toList();
+        if (imageUrls.isEmpty()) {
+            return Mono.just(Set.of());
+        }
+        return blobReferenceRepository.findNamesWithVariantsStored(imageUrls.stream().map(blobStore::nameOf).collect(Collectors.toSet()))
+                .collect(Collectors.toSet())
+                .map(names -> imageUrls.stream()
+                        .filter(imageUrl -> names.contains(blobStore.nameOf(imageUrl)))
+                        .collect(Collectors.toSet()));
+    }
+
+    /**
+     * Adds a reference to the content-addressed blob with the given name. Until an upload of the blob has succeeded,
+     * every reference stores it, which is idempotent as the name is derived from the content; the first upload to
+     * succeed starts generating its variants. Once it is stored, later references only run the given cleanup.
+     */
+    private Mono<String> addReference(String name, Supplier<Mono<String>> store, Supplier<Mono<Void>> discard) {
+        return blobReferenceRepository.increment(name)
+                .flatMap(reference -> reference.isStored()
+                        ? discard.get().thenReturn(blobStore.urlOf(name))
+                        : store.get()
+                        .flatMap(url -> blobReferenceRepository.markStored(name)
+                                .doOnNext(marked -> {
+                                    if (marked > 0) {
+                                        imageVariantGenerator.generateVariants(url);
+                                    }
+                                })
+                                .thenReturn(url))
+                        // The blob stays unstored, so the next upload of this image stores it again
+                        .onErrorResume(e -> blobReferenceRepository.decrement(name).then(Mono.error(e))));
+    }
+
+    /**
+     * Lazily decodes the given base64 string chunk by chunk, so only one decoded chunk is held at a time
+     * instead of a copy of the whole image.
+     *
+     * @param base64ImageData the base64 encoded image
+     * @return a Flux emitting the decoded image in chunks of at most 48 KiB
+     */
+    Flux<DataBuffer> decodeBase64(String base64ImageData) {
+        int length = base64ImageData.length();
+        int chunks = (length + BASE64_CHUNK_SIZE - 1) / BASE64_CHUNK_SIZE;
+        return Flux.range(0, chunks)
+                .map(chunk -> {
+                    int start = chunk * BASE64_CHUNK_SIZE;
+                    int end = Math.min(length, start + BASE64_CHUNK_SIZE);
+                    byte[] decoded = Base64.getDecoder().decode(base64ImageData.substring(start, end));
+                    return DefaultDataBufferFactory.sharedInstance.wrap(decoded);
+                });
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, DataBuffer chunk) {
+        try (DataBuffer.ByteBufferIterator iterator = chunk.readableByteBuffers()) {
+            iterator.forEachRemaining(digest::update);
+        }
     }
 
     /**
@@ -76,15 +192,4 @@ public class AzurePersistImageUtils {
                 .filter(f -> f.contains(".")) // Filter out filenames that don't contain a dot character (i.e., don't have an extension)
                 .map(f -> f.substring(filename.lastIndexOf(".") + 1)); // Extract the extension from the filename
     }
-
-    /**
-     * Deletes the given temporary file.
-     *
-     * @param tempFilePath a {@link Path} representing the path to the file to be deleted
-     * @return true if the file was successfully deleted, false otherwise
-     * @throws IOException if an I/O error occurs while deleting the file
-     */
-    private boolean deleteTempFile(Path tempFilePath) throws IOException {
-        return Files.deleteIfExists(tempFilePath);
-    }
 }
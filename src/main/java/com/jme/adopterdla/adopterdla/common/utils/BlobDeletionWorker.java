@@ -0,0 +1,174 @@
+package com.jme.adopterdla.adopterdla.common.utils;
+
+import com.jme.adopterdla.adopterdla.common.entity.BlobDeletion;
+import com.jme.adopterdla.adopterdla.common.entity.repository.BlobDeletionRepository;
+import com.jme.adopterdla.adopterdla.common.entity.repository.BlobReferenceRepository;
+import com.jme.adopterdla.adopterdla.common.storage.BlobStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Drains the outbox of unreferenced blobs filled by {@link AzurePersistImageUtils#releaseImage(String)}.
+ * <p>
+ * Every poll claims batches of due deletions until none is left, deletes their blobs and variants a bounded number at
+ * a time and removes the successful ones from the outbox with a single statement per batch. Claims skip locked rows,
+ * so several nodes can drain the outbox at once. A failed deletion stays in the outbox and is retried with an
+ * exponential backoff; so is one whose node dies half way.
+ * <p>
+ * The number of pending deletions and the age of the oldest one are published as the {@code blob.deletions.pending}
+ * and {@code blob.deletions.lag} gauges.
+ */
+@Component
+@Log4j2
+public class BlobDeletionWorker {
+
+    private final BlobStore blobStore;
+    private final BlobReferenceRepository blobReferenceRepository;
+    private final BlobDeletionRepository blobDeletionRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final Duration pollInterval;
+    private final int batchSize;
+    private final int concurrency;
+    private final long initialBackoffSeconds;
+    private final long maxBackoffSeconds;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final AtomicReference<Disposable> polling = new AtomicReference<>();
+    private final Counter deletedCounter;
+    private final Counter failedCounter;
+
+    public BlobDeletionWorker(BlobStore blobStore,
+                              BlobReferenceRepository blobReferenceRepository,
+                              BlobDeletionRepository blobDeletionRepository,
+                              TransactionalOperator transactionalOperator,
+                              MeterRegistry meterRegistry,
+                              @Value("${blob.deletions.poll-interval}") Duration pollInterval,
+                              @Value("${blob.deletions.batch-size}") int batchSize,
+                              @Value("${blob.deletions.concurrency}") int concurrency,
+                              @Value("${blob.deletions.initial-backoff}") Duration initialBackoff,
+                              @Value("${blob.deletions.max-backoff}") Duration maxBackoff) {
+        this.blobStore = blobStore;
+        this.blobReferenceRepository = blobReferenceRepository;
+        this.blobDeletionRepository = blobDeletionRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.initialBackoffSeconds = Math.max(1, initialBackoff.toSeconds());
+        this.maxBackoffSeconds = Math.max(initialBackoffSeconds, maxBackoff.toSeconds());
+        this.deletedCounter = Counter.builder("blob.deletions")
+                .description("Blob deletion attempts")
+                .tag("result", "deleted")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("blob.deletions")
+                .description("Blob deletion attempts")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        Gauge.builder("blob.deletions.pending", pending, AtomicLong::get)
+                .description("Blob deletions waiting in the outbox")
+                .register(meterRegistry);
+        TimeGauge.builder("blob.deletions.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Time since the oldest pending blob deletion was queued")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts polling once the application, and so the database schema, is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        polling.set(Flux.interval(pollInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> drain()
+                        .onErrorResume(e -> {
+                            log.error("Error draining the blob deletion outbox", e);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe());
+    }
+
+    @PreDestroy
+    void stop() {
+        Disposable current = polling.getAndSet(null);
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    /**
+     * Processes batches of due deletions until a batch comes back short, then refreshes the backlog gauges.
+     *
+     * @return a Mono completing once the due deletions are processed
+     */
+    Mono<Void> drain() {
+        return Mono.defer(this::drainBatch)
+                .repeat()
+                .takeUntil(claimed -> claimed < batchSize)
+                .then(blobDeletionRepository.findBacklog())
+                .doOnNext(backlog -> {
+                    pending.set(backlog.pending());
+                    lagMillis.set(Math.round(backlog.oldestAgeSeconds() * 1000));
+                })
+                .then();
+    }
+
+    private Mono<Integer> drainBatch() {
+        return blobDeletionRepository.claim(batchSize, initialBackoffSeconds, maxBackoffSeconds)
+                .collectList()
+                .flatMap(batch -> Flux.fromIterable(batch)
+                        .flatMap(deletion -> delete(deletion.getName())
+                                .doOnSuccess(deleted -> deletedCounter.increment())
+                                .thenReturn(deletion.getId())
+                                .onErrorResume(e -> recordFailure(deletion, e)), concurrency)
+                        .collectList()
+                        .flatMap(this::removeFromOutbox)
+                        .thenReturn(batch.size()));
+    }
+
+    /**
+     * Deletes the blob and its variants, unless it has been referenced again since its deletion was queued.
+     * <p>
+     * The counter of the blob stays locked until its blobs and the counter itself are deleted, so a concurrent upload
+     * of the same image waits, then finds no stored blob and uploads it again. If a deletion fails, the transaction
+     * rolls back and the counter is left as it was.
+     */
+    private Mono<Void> delete(String name) {
+        return blobReferenceRepository.lock(name)
+                .filter(reference -> reference.getRefCount() == 0)
+                .flatMap(unreferenced -> Flux.concat(Flux.just(name), Flux.fromIterable(ImageVariantGenerator.variantNames(name)))
+                        .flatMap(blobStore::delete)
+                        .then(blobReferenceRepository.deleteUnreferenced(name)))
+                .then()
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<Long> recordFailure(BlobDeletion deletion, Throwable error) {
+        log.warn("Error deleting blob {} on attempt {}, it will be retried", deletion.getName(), deletion.getAttempts(), error);
+        failedCounter.increment();
+        return blobDeletionRepository.recordFailure(deletion.getId(), String.valueOf(error.getMessage()))
+                .onErrorComplete()
+                .then(Mono.empty());
+    }
+
+    private Mono<Integer> removeFromOutbox(List<Long> ids) {
+        return ids.isEmpty() ? Mono.just(0) : blobDeletionRepository.deleteAllByIdIn(ids);
+    }
+}
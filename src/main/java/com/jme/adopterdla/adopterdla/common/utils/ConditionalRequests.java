@@ -0,0 +1,44 @@
+package com.jme.adopterdla.adopterdla.common.utils;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+/**
+ * Answers conditional GET requests ({@code If-None-Match}) from the version of an entity, using it as a strong ETag.
+ * The version is anything that changes whenever the body does, e.g. the version column of the row, together with the
+ * state of what the body is derived from outside of it.
+ */
+public final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * Returns 304 Not Modified when the client already has the given version, and only loads the body otherwise.
+     * <p>
+     * The version is read before the body, so a concurrent update can only make the body newer than its ETag. The
+     * client then gets the newer body again on its next request, instead of keeping a stale one.
+     *
+     * @param exchange the current exchange, holding the {@code If-None-Match} header
+     * @param version  a Mono emitting the current version of the entity, or empty if it does not exist; its string
+     *                 form is the ETag
+     * @param body     loads the body, only called when it has to be sent
+     * @return a Mono emitting the response with its ETag, or the body as a plain 200 response if there is no version
+     */
+    public static <T> Mono<ResponseEntity<T>> ifNoneMatch(ServerWebExchange exchange, Mono<?> version,
+                                                          Supplier<Mono<T>> body) {
+        return version
+                .flatMap(currentVersion -> {
+                    String eTag = "\"" + currentVersion + "\"";
+                    if (exchange.checkNotModified(eTag)) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<T>build());
+                    }
+                    return body.get().map(content -> ResponseEntity.ok().eTag(eTag).body(content));
+                })
+                .switchIfEmpty(Mono.defer(() -> body.get().map(ResponseEntity::ok)));
+    }
+}
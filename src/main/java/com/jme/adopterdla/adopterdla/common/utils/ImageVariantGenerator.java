@@ -0,0 +1,232 @@
+package com.jme.adopterdla.adopterdla.common.utils;
+
+import com.jme.adopterdla.adopterdla.common.entity.repository.BlobReferenceRepository;
+import com.jme.adopterdla.adopterdla.common.storage.BlobStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates fixed-width JPEG variants of stored images, so listings can download a small picture
+ * instead of the original.
+ * <p>
+ * Variants are stored next to the original, named {@code <name>_<extension>_<width>w.jpeg} after the original
+ * {@code <name>.<extension>}, which lets their URLs be derived from the original URL without storing them. Keeping the
+ * extension makes the names unique per original: the same content uploaded as {@code .jpg} and {@code .jpeg} is stored
+ * as two blobs with separate reference counts, and deleting one must not delete the variants of the other. Once they are all stored, the
+ * reference counter of the original records it, so only images whose variants exist link to them. Images are never
+ * upscaled: when the original is narrower than a variant, the variant keeps the original width.
+ * <p>
+ * The pixel dimensions are read from the image header before it is decoded, and images with more pixels than
+ * {@code images.variants.max-pixels} are rejected: a small, highly compressed file can decode to gigabytes of pixels.
+ * <p>
+ * Decoding and resizing run on a dedicated bounded scheduler, off the request path.
+ */
+@Component
+@Log4j2
+public class ImageVariantGenerator {
+
+    public static final List<Integer> WIDTHS = List.of(160, 480, 1024);
+
+    private static final String VARIANT_EXTENSION = "jpeg";
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private final BlobStore blobStore;
+    private final BlobReferenceRepository blobReferenceRepository;
+    private final Scheduler scheduler;
+    private final long maxPixels;
+
+    public ImageVariantGenerator(BlobStore blobStore,
+                                 BlobReferenceRepository blobReferenceRepository,
+                                 @Value("${images.variants.threads}") int threads,
+                                 @Value("${images.variants.queue-size}") int queueSize,
+                                 @Value("${images.variants.max-pixels}") long maxPixels) {
+        this.blobStore = blobStore;
+        this.blobReferenceRepository = blobReferenceRepository;
+        this.maxPixels = maxPixels;
+        this.scheduler = Schedulers.newBoundedElastic(threads, queueSize, "image-variants");
+    }
+
+    /**
+     * Returns the URLs of the variants of the image with the given URL, keyed by width. Only link them once the
+     * variants of the image are recorded as stored.
+     *
+     * @param imageUrl the public URL of the original image
+     * @return the variant URLs keyed by width, or an empty map if there is no image
+     */
+    public static Map<Integer, String> variantUrls(String imageUrl) {
+        if (imageUrl == null || imageUrl.isBlank()) {
+            return Map.of();
+        }
+        int nameStart = imageUrl.lastIndexOf('/') + 1;
+        Map<Integer, String> urls = new LinkedHashMap<>();
+        for (int width : WIDTHS) {
+            urls.put(width, imageUrl.substring(0, nameStart) + variantName(imageUrl.substring(nameStart), width));
+        }
+        return urls;
+    }
+
+    /**
+     * Returns the blob names of the variants of the blob with the given name.
+     *
+     * @param name the blob name of the original image
+     * @return the blob names of its variants
+     */
+    public static List<String> variantNames(String name) {
+        return WIDTHS.stream().map(width -> variantName(name, width)).toList();
+    }
+
+    /**
+     * Starts generating the variants of the given stored image in the background.
+     * Failures are logged and leave the variants unrecorded, so clients keep getting the original image.
+     *
+     * @param imageUrl the public URL of the original image
+     */
+    public void generateVariants(String imageUrl) {
+        createVariants(blobStore.nameOf(imageUrl))
+                .subscribe(null, e -> log.warn("Could not generate variants of image {}", imageUrl, e));
+    }
+
+    /**
+     * Generates and stores the variants of the blob with the given name, then records that they exist.
+     *
+     * @param name the blob name of the original image
+     * @return a Mono completing once every variant is stored and recorded
+     */
+    Mono<Void> createVariants(String name) {
+        return DataBufferUtils.join(blobStore.get(name))
+                .publishOn(scheduler)
+                .map(this::render)
+                .flatMapMany(variants -> Flux.fromIterable(variants.entrySet()))
+                .concatMap(variant -> blobStore.put(variantName(name, variant.getKey()),
+                        Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(variant.getValue()))))
+                .then(Mono.defer(() -> blobReferenceRepository.markVariantsStored(name)))
+                .then();
+    }
+
+    @PreDestroy
+    void dispose() {
+        scheduler.dispose();
+    }
+
+    private Map<Integer, byte[]> render(DataBuffer original) {
+        BufferedImage image;
+        try (InputStream inputStream = original.asInputStream(true);
+             ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+            image = decode(imageInputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        Map<Integer, byte[]> variants = new LinkedHashMap<>();
+        for (int width : WIDTHS) {
+            variants.put(width, encodeJpeg(resize(image, Math.min(width, image.getWidth()))));
+        }
+        return variants;
+    }
+
+    /**
+     * Decodes the image once its header shows its dimensions are within {@link #maxPixels}.
+     */
+    private BufferedImage decode(ImageInputStream imageInputStream) throws IOException {
+        Iterator<ImageReader> readers = imageInputStream != null ? ImageIO.getImageReaders(imageInputStream) : null;
+        if (readers == null || !readers.hasNext()) {
+            throw new IllegalArgumentException("Unsupported image format");
+        }
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(imageInputStream, true, true);
+            long width = reader.getWidth(0);
+            long height = reader.getHeight(0);
+            if (width * height > maxPixels) {
+                throw new IllegalArgumentException("Image of %dx%d pixels exceeds the limit of %d pixels"
+                        .formatted(width, height, maxPixels));
+            }
+            return reader.read(0);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * Resizes the image to the given width keeping its aspect ratio. Large reductions are done in halving steps,
+     * which keeps bilinear interpolation from skipping pixels and producing aliased thumbnails.
+     */
+    private BufferedImage resize(BufferedImage image, int width) {
+        int height = Math.max(1, Math.round((float) image.getHeight() * width / image.getWidth()));
+        BufferedImage current = image;
+        int currentWidth = image.getWidth();
+        int currentHeight = image.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = currentWidth == width ? height : Math.max(height, currentHeight / 2);
+            current = draw(current, currentWidth, currentHeight);
+        } while (currentWidth > width);
+        return current;
+    }
+
+    private BufferedImage draw(BufferedImage source, int width, int height) {
+        // Always draw on an opaque RGB canvas: the JPEG writer does not support alpha channels
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(VARIANT_EXTENSION).next();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(outputStream)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(imageOutputStream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writer.dispose();
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static String variantName(String name, int width) {
+        int extensionStart = name.lastIndexOf('.');
+        String stem = extensionStart > 0 ? name.substring(0, extensionStart) + "_" + name.substring(extensionStart + 1) : name;
+        return stem + "_" + width + "w." + VARIANT_EXTENSION;
+    }
+}
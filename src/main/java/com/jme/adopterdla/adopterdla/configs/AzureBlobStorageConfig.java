@@ -1,12 +1,14 @@
 package com.jme.adopterdla.adopterdla.configs;
 
-import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.BlobContainerAsyncClient;
 import com.azure.storage.blob.BlobContainerClientBuilder;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
+@ConditionalOnProperty(name = "storage.blob.type", havingValue = "azure", matchIfMissing = true)
 public class AzureBlobStorageConfig {
 
     @Value("${azure.storage.account-name}")
@@ -19,10 +21,10 @@ public class AzureBlobStorageConfig {
     private String containerName;
 
     @Bean
-    public BlobContainerClient blobContainerClient() {
+    public BlobContainerAsyncClient blobContainerAsyncClient() {
         return new BlobContainerClientBuilder()
                 .connectionString("DefaultEndpointsProtocol=https;AccountName=" + accountName + ";AccountKey=" + accountKey)
                 .containerName(containerName)
-                .buildClient();
+                .buildAsyncClient();
     }
 }
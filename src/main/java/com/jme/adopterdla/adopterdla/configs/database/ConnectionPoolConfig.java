@@ -0,0 +1,43 @@
+package com.jme.adopterdla.adopterdla.configs.database;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Instruments the R2DBC connection pool configured by the {@code spring.r2dbc.pool.*} properties.
+ * <p>
+ * The actuator already publishes the pool gauges ({@code r2dbc.pool.acquired}, {@code .pending}, {@code .idle}...);
+ * this adds the acquisition latency histogram and the cap on the connections a single request can hold, so one large
+ * listing cannot starve the login traffic. The cap is {@code database.max-queries-per-request}, overridden for
+ * specific routes by {@code database.max-queries-per-route}; a cap of 0 disables it.
+ */
+@Configuration
+public class ConnectionPoolConfig {
+
+    @Bean
+    public static BeanPostProcessor meteredConnectionFactoryPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ConnectionFactory connectionFactory && !(bean instanceof MeteredConnectionFactory)) {
+                    return new MeteredConnectionFactory(connectionFactory, meterRegistry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public QueryPermitsWebFilter queryPermitsWebFilter(@Value("${database.max-queries-per-request}") int maxQueriesPerRequest,
+                                                       @Value("${database.max-queries-per-route}") String[] maxQueriesPerRoute,
+                                                       @Value("${database.query-permit-timeout}") Duration permitTimeout) {
+        return new QueryPermitsWebFilter(maxQueriesPerRequest, maxQueriesPerRoute, permitTimeout);
+    }
+}
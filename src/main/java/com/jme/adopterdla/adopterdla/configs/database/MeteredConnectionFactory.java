@@ -0,0 +1,209 @@
+package com.jme.adopterdla.adopterdla.configs.database;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Batch;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.ConnectionMetadata;
+import io.r2dbc.spi.IsolationLevel;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.TransactionDefinition;
+import io.r2dbc.spi.ValidationDepth;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.pool.PooledRef;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Decorates the connection pool to time connection acquisition and to enforce the per-request cap of
+ * {@link QueryPermits}.
+ * <p>
+ * The acquisition timer only measures the wait for the pool, not for a permit of the request itself, so it shows
+ * whether the pool is sized for the load. Waits for a permit are counted separately. Connections created outside
+ * of a request, e.g. by migrations or background jobs, are not capped.
+ * <p>
+ * It implements {@link Wrapped}, so the actuator still finds the pool behind it and publishes its gauges.
+ */
+public class MeteredConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory> {
+
+    private final ConnectionFactory delegate;
+    private final Timer acquireTimer;
+    private final Counter throttledCounter;
+
+    public MeteredConnectionFactory(ConnectionFactory delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.acquireTimer = Timer.builder("r2dbc.pool.acquire")
+                .description("Time spent waiting for a connection from the pool")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.throttledCounter = Counter.builder("r2dbc.request.queries.throttled")
+                .description("Queries that waited because their request already held its maximum number of connections")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.deferContextual(context -> context.<QueryPermits>getOrEmpty(QueryPermits.CONTEXT_KEY)
+                .map(this::createWithPermit)
+                .orElseGet(this::acquire));
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    private Mono<Connection> createWithPermit(QueryPermits permits) {
+        return Mono.defer(() -> {
+            if (permits.exhausted()) {
+                throttledCounter.increment();
+            }
+            return permits.acquire();
+        }).flatMap(permit -> {
+            AtomicBoolean handedOver = new AtomicBoolean();
+            return acquire()
+                    .<Connection>map(connection -> new PermitConnection(connection, permit))
+                    .doOnNext(connection -> handedOver.set(true))
+                    // Give the permit back when no connection reached the caller, who would otherwise close it
+                    .doFinally(signal -> {
+                        if (!handedOver.get()) {
+                            permit.release().subscribe();
+                        }
+                    });
+        });
+    }
+
+    private Mono<Connection> acquire() {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return Mono.<Connection>from(delegate.create())
+                    .doOnNext(connection -> acquireTimer.record(Duration.ofNanos(System.nanoTime() - start)));
+        });
+    }
+
+    /**
+     * A pooled connection releasing the permit of its request when it is returned to the pool.
+     */
+    private static final class PermitConnection implements Connection, Wrapped<Connection> {
+
+        private final Connection delegate;
+        private final PooledRef<Boolean> permit;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private PermitConnection(Connection delegate, PooledRef<Boolean> permit) {
+            this.delegate = delegate;
+            this.permit = permit;
+        }
+
+        @Override
+        public Publisher<Void> close() {
+            return Mono.from(delegate.close())
+                    .doFinally(signal -> {
+                        if (released.compareAndSet(false, true)) {
+                            permit.release().subscribe();
+                        }
+                    });
+        }
+
+        @Override
+        public Connection unwrap() {
+            return delegate;
+        }
+
+        @Override
+        public Publisher<Void> beginTransaction() {
+            return delegate.beginTransaction();
+        }
+
+        @Override
+        public Publisher<Void> beginTransaction(TransactionDefinition definition) {
+            return delegate.beginTransaction(definition);
+        }
+
+        @Override
+        public Publisher<Void> commitTransaction() {
+            return delegate.commitTransaction();
+        }
+
+        @Override
+        public Batch createBatch() {
+            return delegate.createBatch();
+        }
+
+        @Override
+        public Publisher<Void> createSavepoint(String name) {
+            return delegate.createSavepoint(name);
+        }
+
+        @Override
+        public Statement createStatement(String sql) {
+            return delegate.createStatement(sql);
+        }
+
+        @Override
+        public boolean isAutoCommit() {
+            return delegate.isAutoCommit();
+        }
+
+        @Override
+        public ConnectionMetadata getMetadata() {
+            return delegate.getMetadata();
+        }
+
+        @Override
+        public IsolationLevel getTransactionIsolationLevel() {
+            return delegate.getTransactionIsolationLevel();
+        }
+
+        @Override
+        public Publisher<Void> releaseSavepoint(String name) {
+            return delegate.releaseSavepoint(name);
+        }
+
+        @Override
+        public Publisher<Void> rollbackTransaction() {
+            return delegate.rollbackTransaction();
+        }
+
+        @Override
+        public Publisher<Void> rollbackTransactionToSavepoint(String name) {
+            return delegate.rollbackTransactionToSavepoint(name);
+        }
+
+        @Override
+        public Publisher<Void> setAutoCommit(boolean autoCommit) {
+            return delegate.setAutoCommit(autoCommit);
+        }
+
+        @Override
+        public Publisher<Void> setLockWaitTimeout(Duration timeout) {
+            return delegate.setLockWaitTimeout(timeout);
+        }
+
+        @Override
+        public Publisher<Void> setStatementTimeout(Duration timeout) {
+            return delegate.setStatementTimeout(timeout);
+        }
+
+        @Override
+        public Publisher<Void> setTransactionIsolationLevel(IsolationLevel isolationLevel) {
+            return delegate.setTransactionIsolationLevel(isolationLevel);
+        }
+
+        @Override
+        public Publisher<Boolean> validate(ValidationDepth depth) {
+            return delegate.validate(depth);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.jme.adopterdla.adopterdla.configs.database;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.pool.InstrumentedPool;
+import reactor.pool.PoolBuilder;
+import reactor.pool.PooledRef;
+
+import java.time.Duration;
+
+/**
+ * Caps the number of database connections a single HTTP request may hold at once.
+ * <p>
+ * One instance is created per request by {@link QueryPermitsWebFilter} and stored in the Reactor context, where
+ * {@link MeteredConnectionFactory} finds it. Acquiring beyond the cap waits for one of the request's own queries to
+ * finish, so a listing fanning out into many queries queues behind itself instead of draining the shared pool.
+ * The wait is bounded: a request whose queries never finish fails with a 503 instead of hanging.
+ */
+public class QueryPermits {
+
+    static final String CONTEXT_KEY = QueryPermits.class.getName();
+
+    private final InstrumentedPool<Boolean> permits;
+    private final Duration timeout;
+
+    public QueryPermits(int maxInFlight, Duration timeout) {
+        // The pool handles cancelled waiters, which would otherwise leak a permit
+        this.permits = PoolBuilder.from(Mono.just(Boolean.TRUE))
+                .sizeBetween(0, maxInFlight)
+                .buildPool();
+        this.timeout = timeout;
+    }
+
+    /**
+     * Waits for a permit to run a query.
+     *
+     * @return a Mono emitting the permit, to be released once the connection is closed, or a 503 error if none is
+     * released within the timeout
+     */
+    public Mono<PooledRef<Boolean>> acquire() {
+        return permits.acquire()
+                .timeout(timeout, Mono.error(() -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Timed out waiting for a database connection")));
+    }
+
+    /**
+     * @return whether every permit is taken, so the next query of this request has to wait
+     */
+    public boolean exhausted() {
+        return permits.metrics().acquiredSize() >= permits.metrics().getMaxAllocatedSize();
+    }
+}
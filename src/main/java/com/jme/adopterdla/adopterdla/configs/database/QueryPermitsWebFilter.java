@@ -0,0 +1,62 @@
+package com.jme.adopterdla.adopterdla.configs.database;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Gives every request its own {@link QueryPermits}, capping the database connections it can hold at once.
+ * <p>
+ * The cap is the default one unless the path matches one of the route limits, checked in the order they are given.
+ * A limit of 0 leaves the requests it applies to uncapped.
+ */
+public class QueryPermitsWebFilter implements WebFilter {
+
+    private final int maxQueriesPerRequest;
+    private final Map<PathPattern, Integer> maxQueriesPerRoute = new LinkedHashMap<>();
+    private final Duration permitTimeout;
+
+    /**
+     * @param maxQueriesPerRequest the default cap
+     * @param routeLimits          the caps of specific routes, as {@code <path pattern>=<limit>} entries
+     * @param permitTimeout        how long a query waits for a connection of its request to be closed
+     */
+    public QueryPermitsWebFilter(int maxQueriesPerRequest, String[] routeLimits, Duration permitTimeout) {
+        this.maxQueriesPerRequest = maxQueriesPerRequest;
+        this.permitTimeout = permitTimeout;
+        for (String routeLimit : routeLimits) {
+            int separator = routeLimit.lastIndexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid route limit '%s', expected <path pattern>=<limit>".formatted(routeLimit));
+            }
+            maxQueriesPerRoute.put(PathPatternParser.defaultInstance.parse(routeLimit.substring(0, separator).trim()),
+                    Integer.parseInt(routeLimit.substring(separator + 1).trim()));
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        int maxQueries = maxQueries(exchange.getRequest().getPath().pathWithinApplication());
+        if (maxQueries <= 0) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange)
+                .contextWrite(context -> context.put(QueryPermits.CONTEXT_KEY, new QueryPermits(maxQueries, permitTimeout)));
+    }
+
+    private int maxQueries(PathContainer path) {
+        return maxQueriesPerRoute.entrySet().stream()
+                .filter(route -> route.getKey().matches(path))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(maxQueriesPerRequest);
+    }
+}
@@ -2,19 +2,19 @@ package com.jme.adopterdla.adopterdla.configs.security;
 
 import com.jme.adopterdla.adopterdla.auth.exception.UnauthorizedException;
 import com.jme.adopterdla.adopterdla.configs.security.service.JwtService;
+import com.jme.adopterdla.adopterdla.configs.security.service.ParsedToken;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.web.server.authentication.ServerAuthenticationConverter;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
-
 
 /**
  * The JwtAuthenticationConverter class is responsible for converting the ServerHttpRequest into an
@@ -51,13 +51,14 @@ public class JwtAuthenticationConverter implements ServerAuthenticationConverter
 
         if (StringUtils.hasText(authorizationHeader) && authorizationHeader.startsWith("Bearer ")) {
             String jwt = authorizationHeader.substring(7);
-            if (jwtService.isTokenExpired(jwt)) {
-                // Token is expired
+            try {
+                // The token is verified once and its claims are reused for the whole authentication
+                ParsedToken parsedToken = jwtService.parseToken(jwt);
+                return Mono.just(new UsernamePasswordAuthenticationToken(parsedToken.username(), null, parsedToken.authorities()));
+            } catch (ExpiredJwtException e) {
                 return Mono.error(new UnauthorizedException("Token is expired"));
-            } else if (jwtService.validateToken(jwt)) {
-                String username = jwtService.extractUsername(jwt);
-                List<SimpleGrantedAuthority> authorities = jwtService.extractAuthorities(jwt);
-                return Mono.just(new UsernamePasswordAuthenticationToken(username, null, authorities));
+            } catch (JwtException | IllegalArgumentException e) {
+                return Mono.error(new UnauthorizedException("Token is invalid"));
             }
         }
 
@@ -3,7 +3,7 @@ package com.jme.adopterdla.adopterdla.configs.security;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
 import org.springframework.security.web.server.authentication.ServerAuthenticationConverter;
-import org.springframework.security.web.server.context.WebSessionServerSecurityContextRepository;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
 import org.springframework.stereotype.Component;
 
 /**
@@ -14,6 +14,8 @@ import org.springframework.stereotype.Component;
  * If the JWT is valid, the filter sets the authenticated user in the security context. If the JWT is invalid, the
  * <p>
  * filter responds with a 401 Unauthorized status.
+ * <p>
+ * The security context is never stored: it is rebuilt from the JWT on every request, so no session is created.
  */
 @Component
 public class JwtAuthenticationFilter extends AuthenticationWebFilter {
@@ -29,6 +31,6 @@ public class JwtAuthenticationFilter extends AuthenticationWebFilter {
                                    ReactiveAuthenticationManager authenticationManager) {
         super(authenticationManager);
         setServerAuthenticationConverter(authenticationConverter);
-        setSecurityContextRepository(new WebSessionServerSecurityContextRepository());
+        setSecurityContextRepository(NoOpServerSecurityContextRepository.getInstance());
     }
 }
\ No newline at end of file
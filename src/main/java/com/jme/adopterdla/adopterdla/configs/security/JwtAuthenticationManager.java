@@ -1,36 +1,35 @@
 package com.jme.adopterdla.adopterdla.configs.security;
 
+import com.jme.adopterdla.adopterdla.configs.security.service.PasswordHashingService;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
 /**
  * Implementation of {@link ReactiveAuthenticationManager} that validates a username and password
- * against a {@link ReactiveUserDetailsService} using a {@link PasswordEncoder}.
+ * against a {@link ReactiveUserDetailsService} using the {@link PasswordHashingService}.
  */
 @Component
 public class JwtAuthenticationManager implements ReactiveAuthenticationManager {
 
     private final ReactiveUserDetailsService userDetailsService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
 
     /**
      * Constructs a new instance of {@link JwtAuthenticationManager} with the provided user details service
-     * and password encoder.
+     * and password hashing service.
      *
-     * @param userDetailsService the {@link ReactiveUserDetailsService} used to retrieve user details
-     * @param passwordEncoder    the {@link PasswordEncoder} used to encode and compare passwords
+     * @param userDetailsService     the {@link ReactiveUserDetailsService} used to retrieve user details
+     * @param passwordHashingService the {@link PasswordHashingService} used to compare passwords off the event loop
      */
-    public JwtAuthenticationManager(ReactiveUserDetailsService userDetailsService, PasswordEncoder passwordEncoder) {
+    public JwtAuthenticationManager(ReactiveUserDetailsService userDetailsService, PasswordHashingService passwordHashingService) {
         this.userDetailsService = userDetailsService;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
     }
 
     /**
@@ -44,7 +43,6 @@ public class JwtAuthenticationManager implements ReactiveAuthenticationManager {
     public Mono<Authentication> authenticate(Authentication authentication) {
         if (authentication.isAuthenticated()) {
             // If the authentication object is already authenticated, return it as is
-            SecurityContextHolder.getContext().setAuthentication(authentication);
             return Mono.just(authentication);
         }
         return Mono.just(authentication)
@@ -52,16 +50,12 @@ public class JwtAuthenticationManager implements ReactiveAuthenticationManager {
                         // Find the user details using the user details service based on the username
                         .switchIfEmpty(Mono.error(new UsernameNotFoundException("Invalid username or password.")))
                         // Throw an error if the user is not found
-                        .flatMap(userDetails -> {
-                            // Check if the entered password matches the stored password using the password encoder
-                            if (passwordEncoder.matches(auth.getCredentials().toString(), userDetails.getPassword())) {
-                                SecurityContextHolder.getContext().setAuthentication(authentication);
-                                return Mono.just(userDetails);
-                            } else {
-                                // If the password does not match, throw a BadCredentialsException
-                                return Mono.error(new BadCredentialsException("Invalid username or password."));
-                            }
-                        }))
+                        // Check if the entered password matches the stored password using the password encoder
+                        .flatMap(userDetails -> passwordHashingService.matches(auth.getCredentials().toString(), userDetails.getPassword())
+                                .flatMap(matches -> matches
+                                        ? Mono.just(userDetails)
+                                        // If the password does not match, throw a BadCredentialsException
+                                        : Mono.error(new BadCredentialsException("Invalid username or password.")))))
                 // Create and return a new UsernamePasswordAuthenticationToken using the retrieved user details
                 .map(userDetails -> new UsernamePasswordAuthenticationToken(
                         userDetails,
@@ -12,6 +12,8 @@ import org.springframework.security.config.annotation.web.reactive.EnableWebFlux
 import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.savedrequest.NoOpServerRequestCache;
 import org.springframework.security.web.server.util.matcher.PathPatternParserServerWebExchangeMatcher;
 import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
 
@@ -44,6 +46,11 @@ public class SecurityConfig {
                                                             ReactiveAuthenticationManager authenticationManager) {
         // Disable CSRF protection
         http.csrf().disable()
+                // Stateless: the security context is rebuilt from the JWT on every request and requests rejected
+                // with a 401 are not saved for a later redirect, so nothing is ever stored in a WebSession
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .requestCache().requestCache(NoOpServerRequestCache.getInstance())
+                .and()
                 // Authorize access to /api/auth/** for all users
                 .authorizeExchange()
                 .pathMatchers("/api/auth/**","/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**", "/webjars/**").permitAll()
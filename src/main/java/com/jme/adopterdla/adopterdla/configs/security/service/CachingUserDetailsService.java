@@ -0,0 +1,53 @@
+package com.jme.adopterdla.adopterdla.configs.security.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * {@link ReactiveUserDetailsService} keeping the user details loaded by another service for a short time,
+ * so the login and refresh flows read each user from the database at most once.
+ * <p>
+ * Concurrent lookups of the same user share a single load. Unknown users are not cached.
+ * Entries must be evicted whenever the password or the existence of a user changes.
+ */
+public class CachingUserDetailsService implements ReactiveUserDetailsService {
+
+    private final ReactiveUserDetailsService delegate;
+    private final AsyncCache<String, UserDetails> userDetails;
+
+    /**
+     * Creates the cache.
+     *
+     * @param delegate   the service loading the user details on a cache miss
+     * @param timeToLive how long user details are kept after being loaded
+     * @param maxSize    the maximum number of cached users
+     */
+    public CachingUserDetailsService(ReactiveUserDetailsService delegate, Duration timeToLive, long maxSize) {
+        this.delegate = delegate;
+        this.userDetails = Caffeine.newBuilder()
+                .expireAfterWrite(timeToLive)
+                .maximumSize(maxSize)
+                .buildAsync();
+    }
+
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        // Cancelling one lookup must not cancel the load shared with concurrent lookups
+        return Mono.defer(() -> Mono.fromFuture(
+                userDetails.get(username, (key, executor) -> delegate.findByUsername(key).toFuture()), true));
+    }
+
+    /**
+     * Removes the cached details of the given user.
+     *
+     * @param username the username of the user
+     */
+    public void evict(String username) {
+        userDetails.synchronous().invalidate(username);
+    }
+}
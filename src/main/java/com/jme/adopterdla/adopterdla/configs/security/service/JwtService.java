@@ -1,5 +1,8 @@
 package com.jme.adopterdla.adopterdla.configs.security.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,33 +12,50 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
 /**
  * This class provides utility methods for working with JSON Web Tokens (JWT).
+ * <p>
+ * The signing key and the parser are built once. Parsed tokens are cached by the SHA-256 of the token until they
+ * expire, so a token presented on every request is only verified the first time.
  */
 @Component
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
-
-    @Value("${jwt.expiration.minutes}")
-    private long jwtExpirationInMinutes;
+    private final long jwtExpirationInMinutes;
+    private final Key signingKey;
+    private final JwtParser jwtParser;
+    private final Cache<String, ParsedToken> parsedTokens;
 
     /**
-     * Get the key to be used for signing JWTs.
+     * Creates the JWT service.
      *
-     * @return The signing key.
+     * @param jwtSecret              The secret used to sign and verify tokens.
+     * @param jwtExpirationInMinutes The lifetime of access tokens.
+     * @param cacheMaxSize           The maximum number of parsed tokens to cache, 0 to disable the cache.
      */
-    private Key getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JwtService(@Value("${jwt.secret}") String jwtSecret,
+                      @Value("${jwt.expiration.minutes}") long jwtExpirationInMinutes,
+                      @Value("${jwt.cache.max-size}") long cacheMaxSize) {
+        this.jwtExpirationInMinutes = jwtExpirationInMinutes;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.parsedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new UntilTokenExpiration())
+                .build();
     }
 
     /**
@@ -75,10 +95,29 @@ public class JwtService {
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(expiration)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
+    /**
+     * Verifies a JWT and returns its claims, parsing it only if it is not cached yet.
+     *
+     * @param token The token to parse.
+     * @return The verified claims of the token.
+     * @throws ExpiredJwtException if the token is expired.
+     * @throws JwtException        if the token is invalid.
+     */
+    public ParsedToken parseToken(String token) {
+        String digest = digest(token);
+        ParsedToken parsedToken = parsedTokens.getIfPresent(digest);
+        if (parsedToken == null) {
+            Claims claims = extractAllClaims(token);
+            parsedToken = new ParsedToken(claims.getSubject(), extractAuthorities(claims), claims.getExpiration().toInstant());
+            parsedTokens.put(digest, parsedToken);
+        }
+        return parsedToken;
+    }
+
     /**
      * Validate a JWT.
      *
@@ -87,7 +126,7 @@ public class JwtService {
      */
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token);
+            parseToken(token);
             return true;
         } catch (JwtException e) {
             return false;
@@ -115,7 +154,7 @@ public class JwtService {
      * @return The extracted claims.
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token).getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 
     /**
@@ -125,7 +164,7 @@ public class JwtService {
      * @return the username extracted from the token.
      */
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return parseToken(token).username();
     }
 
     /**
@@ -135,7 +174,7 @@ public class JwtService {
      * @return the expiration date extracted from the token.
      */
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return Date.from(parseToken(token).expiration());
     }
 
     /**
@@ -146,8 +185,7 @@ public class JwtService {
      */
     public boolean isTokenExpired(String token) {
         try {
-            final Date expiration = extractExpiration(token);
-            return expiration.before(new Date());
+            return parseToken(token).expiration().isBefore(Instant.now());
         } catch (JwtException e) {
             return true;
         }
@@ -160,11 +198,44 @@ public class JwtService {
      * @return a list of SimpleGrantedAuthority objects representing the authorities in the token.
      */
     public List<SimpleGrantedAuthority> extractAuthorities(String token) {
-        Claims claims = extractAllClaims(token);
+        return parseToken(token).authorities();
+    }
+
+    private List<SimpleGrantedAuthority> extractAuthorities(Claims claims) {
         return ((List<?>) claims.get("authorities"))
                 .stream()
                 .map(authority -> (String) authority)
                 .map(SimpleGrantedAuthority::new)
                 .toList();
     }
-}
\ No newline at end of file
+
+    private static String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Evicts a cached token once it expires, so an expired token is always parsed again and rejected.
+     */
+    private static class UntilTokenExpiration implements Expiry<String, ParsedToken> {
+
+        @Override
+        public long expireAfterCreate(String digest, ParsedToken parsedToken, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), parsedToken.expiration()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, ParsedToken parsedToken, long currentTime, long currentDuration) {
+            return expireAfterCreate(digest, parsedToken, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String digest, ParsedToken parsedToken, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
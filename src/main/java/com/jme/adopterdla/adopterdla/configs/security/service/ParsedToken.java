@@ -0,0 +1,20 @@
+package com.jme.adopterdla.adopterdla.configs.security.service;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The claims of a JWT whose signature and expiration have been verified.
+ *
+ * @param username    the subject of the token
+ * @param authorities the authorities granted by the token
+ * @param expiration  the instant the token expires
+ */
+public record ParsedToken(
+        String username,
+        List<SimpleGrantedAuthority> authorities,
+        Instant expiration
+) {
+}
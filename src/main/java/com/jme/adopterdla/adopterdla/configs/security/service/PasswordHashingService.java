@@ -0,0 +1,118 @@
+package com.jme.adopterdla.adopterdla.configs.security.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing (BCrypt) on a dedicated bounded scheduler, so a burst of logins cannot block
+ * the event loop serving every other request.
+ * <p>
+ * At most {@code threads} hashes run at once and at most {@code queue-size} wait for a thread. Further requests are
+ * rejected straight away with a 503 Service Unavailable instead of piling up behind the queue.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final Scheduler scheduler;
+    private final int maxPending;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final Timer matchesTimer;
+    private final Timer encodeTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${security.password-hashing.threads}") int threads,
+                                  @Value("${security.password-hashing.queue-size}") int queueSize) {
+        this.passwordEncoder = passwordEncoder;
+        this.scheduler = Schedulers.newBoundedElastic(threads, queueSize, "password-hashing");
+        this.maxPending = threads + queueSize;
+        this.matchesTimer = Timer.builder("security.password.hashing")
+                .description("Time spent hashing passwords")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("security.password.hashing")
+                .description("Time spent hashing passwords")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("security.password.hashing.rejected")
+                .description("Password hashing requests rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("security.password.hashing.queue", () -> Math.max(0, pending.get() - running.get()))
+                .description("Password hashing requests waiting for a thread")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks a raw password against its encoded form.
+     *
+     * @param rawPassword     the password to check
+     * @param encodedPassword the stored encoded password
+     * @return a Mono emitting whether the passwords match, or a 503 error if too many hashes are pending
+     */
+    public Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return hash(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Encodes a raw password.
+     *
+     * @param rawPassword the password to encode
+     * @return a Mono emitting the encoded password, or a 503 error if too many hashes are pending
+     */
+    public Mono<String> encode(CharSequence rawPassword) {
+        return hash(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    @PreDestroy
+    void dispose() {
+        scheduler.dispose();
+    }
+
+    private <T> Mono<T> hash(Timer timer, Callable<T> hashing) {
+        return Mono.defer(() -> {
+            if (pending.incrementAndGet() > maxPending) {
+                pending.decrementAndGet();
+                rejectedCounter.increment();
+                return Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many password hashing requests"));
+            }
+            // Released as soon as the hash is computed, or when the request is cancelled before it runs
+            AtomicBoolean released = new AtomicBoolean();
+            Runnable release = () -> {
+                if (released.compareAndSet(false, true)) {
+                    pending.decrementAndGet();
+                }
+            };
+            return Mono.fromCallable(() -> {
+                        running.incrementAndGet();
+                        try {
+                            return timer.recordCallable(hashing);
+                        } finally {
+                            running.decrementAndGet();
+                            release.run();
+                        }
+                    })
+                    .subscribeOn(scheduler)
+                    .doFinally(signal -> release.run())
+                    // Hand the result back so the rest of the request does not hold a hashing thread
+                    .publishOn(Schedulers.parallel());
+        });
+    }
+}
@@ -2,6 +2,7 @@ package com.jme.adopterdla.adopterdla.configs.security.service;
 
 import com.jme.adopterdla.adopterdla.auth.CustomUserDetails;
 import com.jme.adopterdla.adopterdla.user.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
@@ -9,18 +10,25 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Component
 public class UserDetailService {
 
     /**
      * Bean for creating a ReactiveUserDetailsService that retrieves user details from the UserRepository.
+     * The details are cached for a short time, so a login or refresh reads the user at most once.
      *
      * @param userRepository The repository for accessing user details.
+     * @param timeToLive     How long user details are cached.
+     * @param maxSize        The maximum number of cached users.
      * @return A ReactiveUserDetailsService implementation.
      */
     @Bean
-    public ReactiveUserDetailsService userDetailsService(UserRepository userRepository) {
-        return username -> userRepository.findByUsername(username)
+    public CachingUserDetailsService userDetailsService(UserRepository userRepository,
+                                                        @Value("${security.user-details-cache.ttl}") Duration timeToLive,
+                                                        @Value("${security.user-details-cache.max-size}") long maxSize) {
+        ReactiveUserDetailsService repositoryUserDetailsService = username -> userRepository.findByUsername(username)
                 .map(user -> CustomUserDetails.customBuilder()
                         .username(user.getUsername())
                         .password(user.getPassword())
@@ -29,6 +37,7 @@ public class UserDetailService {
                                 .map(SimpleGrantedAuthority::new)
                                 .toList())
                         .build());
+        return new CachingUserDetailsService(repositoryUserDetailsService, timeToLive, maxSize);
     }
 
     /**
@@ -1,17 +1,33 @@
 package com.jme.adopterdla.adopterdla.processes.controller;
 
+import com.jme.adopterdla.adopterdla.common.utils.ConditionalRequests;
 import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessDTO;
+import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessFilterDTO;
+import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessPageDTO;
+import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessTransitionDTO;
 import com.jme.adopterdla.adopterdla.processes.service.AdoptionProcessService;
+import com.jme.adopterdla.adopterdla.processes.utils.AdoptionProcessExpansion;
+import com.jme.adopterdla.adopterdla.processes.utils.AdoptionProcessStatus;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
 /**
  * REST controller for managing adoption processes.
  */
@@ -41,29 +57,75 @@ public class AdoptionProcessController {
 
     /**
      * Get an adoption process by its ID.
+     * <p>
+     * Answers 304 Not Modified without loading it when the If-None-Match header holds its current version.
      *
-     * @param id the ID of the adoption process to retrieve
-     * @return the found adoption process DTO
+     * @param id       the ID of the adoption process to retrieve
+     * @param exchange the current exchange, holding the If-None-Match header
+     * @return the found adoption process DTO, with its version as ETag
      */
     @GetMapping("/{id}")
     @Operation(summary = "Get an adoption process by ID")
-    public Mono<AdoptionProcessDTO> getAdoptionProcess(
+    @ApiResponse(responseCode = "304", description = "Adoption process not modified since the version given in If-None-Match")
+    public Mono<ResponseEntity<AdoptionProcessDTO>> getAdoptionProcess(
             @Parameter(description = "Adoption Process ID", required = true)
-            @PathVariable Long id) {
-        // Call the service to get the adoption process by ID and return the result
-        return adoptionProcessService.getAdoptionProcess(id);
+            @PathVariable Long id,
+            ServerWebExchange exchange) {
+        return ConditionalRequests.ifNoneMatch(exchange, adoptionProcessService.getAdoptionProcessVersion(id),
+                () -> adoptionProcessService.getAdoptionProcess(id));
     }
 
     /**
      * Get all adoption processes.
      *
+     * @param expand the related resources to embed, among {@code adopter}, {@code animal} and {@code volunteer}
      * @return a Flux of adoption process DTOs
      */
-    @GetMapping
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
     @Operation(summary = "Get all adoption processes")
-    public Flux<AdoptionProcessDTO> getAllAdoptionProcesses() {
+    public Flux<AdoptionProcessDTO> getAllAdoptionProcesses(
+            @Parameter(description = "Related resources to embed, e.g. adopter,animal,volunteer")
+            @RequestParam(required = false) List<String> expand) {
         // Call the service to get all adoption processes and return the result
-        return adoptionProcessService.getAllAdoptionProcesses();
+        return adoptionProcessService.getAllAdoptionProcesses(AdoptionProcessExpansion.parse(expand));
+    }
+
+    /**
+     * Get one page of adoption processes matching the given filters, ordered by ID.
+     *
+     * @param after          the cursor returned as {@code next} by the previous page
+     * @param size           the page size
+     * @param status         the statuses to match, any if none is given
+     * @param adopterId      the adopter to match
+     * @param animalId       the animal to match
+     * @param volunteerId    the volunteer to match
+     * @param inspectionFrom the earliest inspection date, inclusive
+     * @param inspectionTo   the latest inspection date, exclusive
+     * @return the page of adoption processes and the cursor of the next page
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Get a page of adoption processes matching the given filters")
+    @ApiResponse(responseCode = "200", description = "Page of adoption processes and the cursor of the next page", content = @Content(schema = @Schema(implementation = AdoptionProcessPageDTO.class)))
+    public Mono<AdoptionProcessPageDTO> searchAdoptionProcesses(
+            @Parameter(description = "Cursor returned as 'next' by the previous page") @RequestParam(required = false) Long after,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Statuses, repeat to match several") @RequestParam(required = false) Set<AdoptionProcessStatus> status,
+            @Parameter(description = "Adopter ID") @RequestParam(required = false) Long adopterId,
+            @Parameter(description = "Animal ID") @RequestParam(required = false) Long animalId,
+            @Parameter(description = "Volunteer ID") @RequestParam(required = false) Long volunteerId,
+            @Parameter(description = "Earliest inspection date, inclusive") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inspectionFrom,
+            @Parameter(description = "Latest inspection date, exclusive") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inspectionTo) {
+        var filter = AdoptionProcessFilterDTO.builder()
+                .statuses(status)
+                .adopterId(adopterId)
+                .animalId(animalId)
+                .volunteerId(volunteerId)
+                .inspectionFrom(inspectionFrom)
+                .inspectionTo(inspectionTo)
+                .build();
+        return adoptionProcessService.searchAdoptionProcesses(filter, after, size);
     }
 
     /**
@@ -83,4 +145,23 @@ public class AdoptionProcessController {
         // Call the service to update the adoption process and return the result
         return adoptionProcessService.updateAdoptionProcess(id, adoptionProcessDTO);
     }
+
+    /**
+     * Move an adoption process from the status the client last saw to a new one.
+     *
+     * @param id         the ID of the adoption process to move
+     * @param transition the expected and the new status
+     * @return the moved adoption process DTO
+     */
+    @PostMapping("/{id}/transitions")
+    @Operation(summary = "Move an adoption process to a new status")
+    @ApiResponse(responseCode = "400", description = "The move is not allowed from the given status")
+    @ApiResponse(responseCode = "409", description = "Adoption process no longer in the given status, or its animal already adopted")
+    public Mono<AdoptionProcessDTO> transitionAdoptionProcess(
+            @Parameter(description = "Adoption Process ID", required = true)
+            @PathVariable Long id,
+            @Parameter(description = "Expected and new status", required = true, schema = @Schema(implementation = AdoptionProcessTransitionDTO.class))
+            @RequestBody AdoptionProcessTransitionDTO transition) {
+        return adoptionProcessService.transitionAdoptionProcess(id, transition);
+    }
 }
@@ -0,0 +1,29 @@
+package com.jme.adopterdla.adopterdla.processes.dto;
+
+import com.jme.adopterdla.adopterdla.processes.utils.AdoptionProcessStatus;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Optional filters of the adoption process search. A {@code null} value, or an empty set of statuses, means the
+ * filter is not applied.
+ *
+ * @param inspectionFrom the earliest inspection date, inclusive
+ * @param inspectionTo   the latest inspection date, exclusive
+ */
+public record AdoptionProcessFilterDTO(
+        Set<AdoptionProcessStatus> statuses,
+        Long adopterId,
+        Long animalId,
+        Long volunteerId,
+        LocalDateTime inspectionFrom,
+        LocalDateTime inspectionTo
+) {
+
+    @Builder
+    public AdoptionProcessFilterDTO {
+
+    }
+}
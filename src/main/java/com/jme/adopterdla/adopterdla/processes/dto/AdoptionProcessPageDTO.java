@@ -0,0 +1,12 @@
+package com.jme.adopterdla.adopterdla.processes.dto;
+
+import java.util.List;
+
+/**
+ * One page of the adoption process search.
+ *
+ * @param content the adoption processes of this page, ordered by id
+ * @param next    the cursor to pass as {@code after} to fetch the next page, or {@code null} on the last page
+ */
+public record AdoptionProcessPageDTO(List<AdoptionProcessDTO> content, Long next) {
+}
@@ -0,0 +1,15 @@
+package com.jme.adopterdla.adopterdla.processes.dto;
+
+import com.jme.adopterdla.adopterdla.processes.utils.AdoptionProcessStatus;
+
+/**
+ * Move of an adoption process from the status the client last saw to a new one.
+ *
+ * @param from the status the process is expected to be in
+ * @param to   the status to move it to
+ */
+public record AdoptionProcessTransitionDTO(
+        AdoptionProcessStatus from,
+        AdoptionProcessStatus to
+) {
+}
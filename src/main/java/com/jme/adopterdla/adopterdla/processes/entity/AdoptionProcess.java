@@ -4,11 +4,12 @@ import com.jme.adopterdla.adopterdla.processes.utils.AdoptionProcessStatus;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Table;
 
 import java.time.LocalDateTime;
 
-@Table("AdoptionProcess")
+@Table("adoption_process")
 @Data
 @NoArgsConstructor
 public class AdoptionProcess {
@@ -24,5 +25,7 @@ public class AdoptionProcess {
     private String feedbackNotes;
     private String approvalNotes;
     private AdoptionProcessStatus status;
+    @Version
+    private Long version;
 
 }
@@ -9,9 +9,11 @@ public interface AdoptionProcessMapper {
 
     AdoptionProcessDTO toAdoptionProcessDTO(AdoptionProcess adoptionProcess);
 
+    @Mapping(target = "version", ignore = true)
     AdoptionProcess toAdoptionProcess(AdoptionProcessDTO adoptionProcessDTO);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "version", ignore = true)
     void updateAdoptionProcessFromDTO(AdoptionProcessDTO adoptionProcessDTO, @MappingTarget AdoptionProcess adoptionProcess);
 
 }
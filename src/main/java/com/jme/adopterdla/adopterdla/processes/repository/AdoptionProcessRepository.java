@@ -1,9 +1,33 @@
 package com.jme.adopterdla.adopterdla.processes.repository;
 
 import com.jme.adopterdla.adopterdla.processes.entity.AdoptionProcess;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
 
 @Repository
 public interface AdoptionProcessRepository extends ReactiveCrudRepository<AdoptionProcess, Long> {
+
+    /**
+     * Reads only the version of an adoption process, to answer conditional requests without loading the row.
+     */
+    @Query("SELECT version FROM adoption_process WHERE id = :id")
+    Mono<Long> findVersionById(Long id);
+
+    /**
+     * Moves an adoption process to a new status only if it is still in the expected one. The check and the update
+     * are a single statement, so of several concurrent moves from the same status exactly one succeeds.
+     *
+     * @param id       the ID of the adoption process
+     * @param expected the status the process must be in
+     * @param target   the status to move it to
+     * @return the updated adoption process, or empty if it does not exist or is no longer in the expected status
+     */
+    @Query("""
+            UPDATE adoption_process
+            SET status = :target, version = version + 1
+            WHERE id = :id AND status = :expected
+            RETURNING *""")
+    Mono<AdoptionProcess> transition(Long id, String expected, String target);
 }
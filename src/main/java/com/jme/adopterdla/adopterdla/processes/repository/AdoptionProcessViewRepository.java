@@ -0,0 +1,235 @@
+package com.jme.adopterdla.adopterdla.processes.repository;
+
+import com.jme.adopterdla.adopterdla.adopters.dto.AdopterDTO;
+import com.jme.adopterdla.adopterdla.animals.dto.AnimalDTO;
+import com.jme.adopterdla.adopterdla.animals.enums.Gender;
+import com.jme.adopterdla.adopterdla.common.entity.Schedule;
+import com.jme.adopterdla.adopterdla.common.utils.ImageVariantGenerator;
+import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessDTO;
+import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessFilterDTO;
+import com.jme.adopterdla.adopterdla.processes.utils.AdoptionProcessExpansion;
+import com.jme.adopterdla.adopterdla.processes.utils.AdoptionProcessStatus;
+import com.jme.adopterdla.adopterdla.volunteers.dto.VolunteerDTO;
+import io.r2dbc.spi.Row;
+import lombok.AllArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Read model of adoption processes embedding their adopter, animal and volunteer, and of their search.
+ * <p>
+ * The requested resources are joined into a single query, and each row is projected straight into the DTOs, without
+ * loading the entities of the four tables.
+ */
+@Repository
+@AllArgsConstructor
+public class AdoptionProcessViewRepository {
+
+    private static final String PROCESS_COLUMNS = """
+            p.id, p.process_number, p.adopter_id, p.animal_id, p.volunteer_id, p.inspection_date, p.notify_adopter,
+            p.feedback_notes, p.approval_notes, p.status""";
+
+    private static final String ADOPTER_COLUMNS = """
+            ad.name AS adopter_name, ad.image_url AS adopter_image_url, ad.address AS adopter_address,
+            ad.phone AS adopter_phone, ad.email AS adopter_email, ad.process_number AS adopter_process_number""";
+
+    private static final String ANIMAL_COLUMNS = """
+            an.code AS animal_code, an.name AS animal_name, an.breed AS animal_breed, an.age AS animal_age,
+            an.arrival_date AS animal_arrival_date, an.image_url AS animal_image_url, an.gender AS animal_gender,
+            an.vaccinated AS animal_vaccinated, an.castrated AS animal_castrated, an.wormed AS animal_wormed,
+            an.electronic_chip AS animal_electronic_chip, an.illness AS animal_illness, an.notes AS animal_notes,
+            an.is_available AS animal_is_available, an.has_been_adopted AS animal_has_been_adopted,
+            EXISTS (SELECT 1 FROM blob_refs br
+                    WHERE br.name = substring(an.image_url from '[^/]+$') AND br.variants_stored) AS animal_image_variants_stored""";
+
+    private static final String VOLUNTEER_COLUMNS = """
+            v.name AS volunteer_name, v.notes AS volunteer_notes, v.email AS volunteer_email, v.phone AS volunteer_phone,
+            v.address AS volunteer_address, v.image_url AS volunteer_image_url, v.active AS volunteer_active,
+            v.schedule_id AS volunteer_schedule_id, s.days AS volunteer_days,
+            s.start_time_hour AS volunteer_start_time_hour, s.start_time_minute AS volunteer_start_time_minute,
+            s.end_time_hour AS volunteer_end_time_hour, s.end_time_minute AS volunteer_end_time_minute""";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Reads all adoption processes, ordered by ID, with the given resources embedded.
+     *
+     * @param expand the resources to embed; the others are only referenced by ID
+     * @return the adoption processes
+     */
+    public Flux<AdoptionProcessDTO> findAll(Set<AdoptionProcessExpansion> expand) {
+        boolean adopter = expand.contains(AdoptionProcessExpansion.ADOPTER);
+        boolean animal = expand.contains(AdoptionProcessExpansion.ANIMAL);
+        boolean volunteer = expand.contains(AdoptionProcessExpansion.VOLUNTEER);
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(PROCESS_COLUMNS);
+        if (adopter) {
+            sql.append(",\n").append(ADOPTER_COLUMNS);
+        }
+        if (animal) {
+            sql.append(",\n").append(ANIMAL_COLUMNS);
+        }
+        if (volunteer) {
+            sql.append(",\n").append(VOLUNTEER_COLUMNS);
+        }
+        sql.append("\nFROM adoption_process p");
+        if (adopter) {
+            sql.append("\n         JOIN adopters ad ON ad.id = p.adopter_id");
+        }
+        if (animal) {
+            sql.append("\n         JOIN animals an ON an.id = p.animal_id");
+        }
+        if (volunteer) {
+            sql.append("\n         JOIN volunteers v ON v.id = p.volunteer_id")
+                    .append("\n         JOIN schedules s ON s.id = v.schedule_id");
+        }
+        sql.append("\nORDER BY p.id");
+
+        return databaseClient.sql(sql.toString())
+                .map((row, metadata) -> toProcess(row, adopter, animal, volunteer))
+                .all();
+    }
+
+    /**
+     * Reads one page of the search using keyset pagination on {@code id}, so the cost of a page does not depend on
+     * how deep into the history it is.
+     * <p>
+     * Only the filters that are set are added to the query, so its plan is chosen for them alone: a catch-all
+     * predicate such as {@code :x IS NULL OR column = :x} can make a cached generic plan fall back to walking the
+     * primary key.
+     *
+     * @param filter the filters to apply
+     * @param after  the ID the page starts after
+     * @param limit  the maximum number of adoption processes to read
+     * @return the adoption processes of the page, ordered by ID
+     */
+    public Flux<AdoptionProcessDTO> findPage(AdoptionProcessFilterDTO filter, long after, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(PROCESS_COLUMNS)
+                .append("\nFROM adoption_process p")
+                .append("\nWHERE p.id > :after");
+        Map<String, Object> bindings = new LinkedHashMap<>();
+        bindings.put("after", after);
+        if (filter.statuses() != null && !filter.statuses().isEmpty()) {
+            sql.append("\n  AND p.status IN (:statuses)");
+            bindings.put("statuses", filter.statuses().stream().map(AdoptionProcessStatus::name).toList());
+        }
+        if (filter.adopterId() != null) {
+            sql.append("\n  AND p.adopter_id = :adopterId");
+            bindings.put("adopterId", filter.adopterId());
+        }
+        if (filter.animalId() != null) {
+            sql.append("\n  AND p.animal_id = :animalId");
+            bindings.put("animalId", filter.animalId());
+        }
+        if (filter.volunteerId() != null) {
+            sql.append("\n  AND p.volunteer_id = :volunteerId");
+            bindings.put("volunteerId", filter.volunteerId());
+        }
+        if (filter.inspectionFrom() != null) {
+            sql.append("\n  AND p.inspection_date >= :inspectionFrom");
+            bindings.put("inspectionFrom", filter.inspectionFrom());
+        }
+        if (filter.inspectionTo() != null) {
+            sql.append("\n  AND p.inspection_date < :inspectionTo");
+            bindings.put("inspectionTo", filter.inspectionTo());
+        }
+        sql.append("\nORDER BY p.id")
+                .append("\nLIMIT :limit");
+        bindings.put("limit", limit);
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+            spec = spec.bind(binding.getKey(), binding.getValue());
+        }
+        return spec.map((row, metadata) -> toProcess(row, false, false, false))
+                .all();
+    }
+
+    private static AdoptionProcessDTO toProcess(Row row, boolean adopter, boolean animal, boolean volunteer) {
+        return new AdoptionProcessDTO(
+                row.get("id", Long.class),
+                row.get("process_number", String.class),
+                row.get("adopter_id", Long.class),
+                adopter ? toAdopter(row) : null,
+                animal ? toAnimal(row) : null,
+                volunteer ? toVolunteer(row) : null,
+                row.get("animal_id", Long.class),
+                row.get("volunteer_id", Long.class),
+                row.get("inspection_date", LocalDateTime.class),
+                row.get("notify_adopter", Boolean.class),
+                row.get("feedback_notes", String.class),
+                row.get("approval_notes", String.class),
+                AdoptionProcessStatus.valueOf(row.get("status", String.class)));
+    }
+
+    private static AdopterDTO toAdopter(Row row) {
+        return AdopterDTO.builder()
+                .id(row.get("adopter_id", Long.class))
+                .name(row.get("adopter_name", String.class))
+                .imageUrl(row.get("adopter_image_url", String.class))
+                .address(row.get("adopter_address", String.class))
+                .phone(row.get("adopter_phone", String.class))
+                .email(row.get("adopter_email", String.class))
+                .processNumber(row.get("adopter_process_number", String.class))
+                .build();
+    }
+
+    private static AnimalDTO toAnimal(Row row) {
+        String imageUrl = row.get("animal_image_url", String.class);
+        return AnimalDTO.builder()
+                .id(row.get("animal_id", Long.class))
+                .code(row.get("animal_code", String.class))
+                .name(row.get("animal_name", String.class))
+                .breed(row.get("animal_breed", String.class))
+                .age(row.get("animal_age", String.class))
+                .arrivalDate(row.get("animal_arrival_date", String.class))
+                .imageUrl(imageUrl)
+                .imageVariants(Boolean.TRUE.equals(row.get("animal_image_variants_stored", Boolean.class))
+                        ? ImageVariantGenerator.variantUrls(imageUrl) : Map.of())
+                .gender(Gender.valueOf(row.get("animal_gender", String.class)))
+                .vaccinated(row.get("animal_vaccinated", Boolean.class))
+                .castrated(row.get("animal_castrated", Boolean.class))
+                .wormed(row.get("animal_wormed", Boolean.class))
+                .electronicChip(row.get("animal_electronic_chip", String.class))
+                .illness(row.get("animal_illness", String.class))
+                .notes(row.get("animal_notes", String.class))
+                .isAvailable(row.get("animal_is_available", Boolean.class))
+                .hasBeenAdopted(row.get("animal_has_been_adopted", Boolean.class))
+                .build();
+    }
+
+    private static VolunteerDTO toVolunteer(Row row) {
+        List<Integer> days = Arrays.asList(row.get("volunteer_days", Integer[].class));
+        int startTimeHour = row.get("volunteer_start_time_hour", Integer.class);
+        int startTimeMinute = row.get("volunteer_start_time_minute", Integer.class);
+        int endTimeHour = row.get("volunteer_end_time_hour", Integer.class);
+        int endTimeMinute = row.get("volunteer_end_time_minute", Integer.class);
+        return new VolunteerDTO(
+                row.get("volunteer_id", Long.class),
+                row.get("volunteer_notes", String.class),
+                row.get("volunteer_schedule_id", Long.class),
+                days.stream().map(DayOfWeek::of).collect(Collectors.toSet()),
+                startTimeHour,
+                startTimeMinute,
+                endTimeHour,
+                endTimeMinute,
+                row.get("volunteer_name", String.class),
+                row.get("volunteer_image_url", String.class),
+                row.get("volunteer_address", String.class),
+                row.get("volunteer_phone", String.class),
+                row.get("volunteer_email", String.class),
+                Schedule.describe(days, startTimeHour, startTimeMinute, endTimeHour, endTimeMinute),
+                Boolean.TRUE.equals(row.get("volunteer_active", Boolean.class)),
+                null);
+    }
+}
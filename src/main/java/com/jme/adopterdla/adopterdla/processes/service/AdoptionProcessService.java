@@ -1,16 +1,23 @@
 package com.jme.adopterdla.adopterdla.processes.service;
 
 import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessDTO;
+import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessFilterDTO;
+import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessPageDTO;
+import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessTransitionDTO;
+import com.jme.adopterdla.adopterdla.processes.utils.AdoptionProcessExpansion;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Set;
+
 /**
  * Service interface for managing adoption processes.
  */
 public interface AdoptionProcessService {
 
     /**
-     * Create a new adoption process.
+     * Create a new adoption process. It starts {@code IN_PROGRESS}, any other
+     * status is rejected.
      *
      * @param adoptionProcessDTO the adoption process DTO to create
      * @return the created adoption process DTO
@@ -26,18 +33,48 @@ public interface AdoptionProcessService {
     Mono<AdoptionProcessDTO> getAdoptionProcess(Long id);
 
     /**
-     * Get all adoption processes.
+     * Get the version of an adoption process, which changes on every update.
      *
+     * @param id the ID of the adoption process
+     * @return the version of the adoption process, or empty if not found
+     */
+    Mono<Long> getAdoptionProcessVersion(Long id);
+
+    /**
+     * Get all adoption processes, with their adopter, animal and volunteer embedded if asked.
+     *
+     * @param expand the related resources to embed, read in the same query; none if empty
      * @return a Flux of adoption process DTOs
      */
-    Flux<AdoptionProcessDTO> getAllAdoptionProcesses();
+    Flux<AdoptionProcessDTO> getAllAdoptionProcesses(Set<AdoptionProcessExpansion> expand);
 
     /**
-     * Update an adoption process by its ID.
+     * Get one page of adoption processes matching the given filter, ordered by ID.
+     *
+     * @param filter the filters to apply
+     * @param after  the cursor returned with the previous page, or null for the first page
+     * @param size   the maximum number of adoption processes in the page
+     * @return the page of adoption processes together with the cursor of the next page
+     */
+    Mono<AdoptionProcessPageDTO> searchAdoptionProcesses(AdoptionProcessFilterDTO filter, Long after, int size);
+
+    /**
+     * Update an adoption process by its ID. Its status can only be changed with
+     * {@link #transitionAdoptionProcess(Long, AdoptionProcessTransitionDTO)}.
      *
      * @param id               the ID of the adoption process to update
      * @param adoptionProcessDTO the adoption process DTO containing updated information
      * @return the updated adoption process DTO
      */
     Mono<AdoptionProcessDTO> updateAdoptionProcess(Long id, AdoptionProcessDTO adoptionProcess);
+
+    /**
+     * Move an adoption process to a new status, if the move is allowed and the process is still in the expected
+     * status. Approving a process marks its animal as adopted, and fails if the animal has already been adopted.
+     *
+     * @param id         the ID of the adoption process to move
+     * @param transition the expected and the new status
+     * @return the moved adoption process DTO
+     */
+    Mono<AdoptionProcessDTO> transitionAdoptionProcess(Long id, AdoptionProcessTransitionDTO transition);
 }
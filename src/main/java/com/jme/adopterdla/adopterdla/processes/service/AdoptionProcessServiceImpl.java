@@ -1,14 +1,28 @@
 package com.jme.adopterdla.adopterdla.processes.service;
 
+import com.jme.adopterdla.adopterdla.animals.repository.AnimalRepository;
+import com.jme.adopterdla.adopterdla.animals.service.AvailableAnimalsCache;
 import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessDTO;
+import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessFilterDTO;
+import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessPageDTO;
+import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessTransitionDTO;
 import com.jme.adopterdla.adopterdla.processes.entity.AdoptionProcess;
 import com.jme.adopterdla.adopterdla.processes.mapper.AdoptionProcessMapper;
 import com.jme.adopterdla.adopterdla.processes.repository.AdoptionProcessRepository;
+import com.jme.adopterdla.adopterdla.processes.repository.AdoptionProcessViewRepository;
+import com.jme.adopterdla.adopterdla.processes.utils.AdoptionProcessExpansion;
+import com.jme.adopterdla.adopterdla.processes.utils.AdoptionProcessStatus;
 import lombok.AllArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Set;
+
 /**
  * Service implementation for managing adoption processes.
  */
@@ -16,20 +30,39 @@ import reactor.core.publisher.Mono;
 @AllArgsConstructor
 public class AdoptionProcessServiceImpl implements AdoptionProcessService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final AdoptionProcessRepository adoptionProcessRepository;
 
+    private final AdoptionProcessViewRepository adoptionProcessViewRepository;
+
     private final AdoptionProcessMapper adoptionProcessMapper;
 
+    private final AvailableAnimalsCache availableAnimalsCache;
+
+    private final AnimalRepository animalRepository;
+
+    private final TransactionalOperator transactionalOperator;
+
     /**
      * {@inheritDoc}
      */
     @Override
     public Mono<AdoptionProcessDTO> createAdoptionProcess(AdoptionProcessDTO adoptionProcessDTO) {
+        // Every process starts in progress, any other status is reached through the state machine
+        if (adoptionProcessDTO.status() != null && adoptionProcessDTO.status() != AdoptionProcessStatus.IN_PROGRESS) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "An AdoptionProcess starts " + AdoptionProcessStatus.IN_PROGRESS + ", its status can only be changed through its transitions"));
+        }
+
         // Convert the DTO to an entity
         AdoptionProcess adoptionProcess = adoptionProcessMapper.toAdoptionProcess(adoptionProcessDTO);
+        adoptionProcess.setStatus(AdoptionProcessStatus.IN_PROGRESS);
 
         // Save the entity and convert it back to a DTO before returning
+        // A new process may take its animal out of the available ones
         return adoptionProcessRepository.save(adoptionProcess)
+                .doOnNext(savedAdoptionProcess -> availableAnimalsCache.invalidate())
                 .map(adoptionProcessMapper::toAdoptionProcessDTO);
     }
 
@@ -47,12 +80,46 @@ public class AdoptionProcessServiceImpl implements AdoptionProcessService {
      * {@inheritDoc}
      */
     @Override
-    public Flux<AdoptionProcessDTO> getAllAdoptionProcesses() {
+    public Mono<Long> getAdoptionProcessVersion(Long id) {
+        return adoptionProcessRepository.findVersionById(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<AdoptionProcessDTO> getAllAdoptionProcesses(Set<AdoptionProcessExpansion> expand) {
+        // Embedded resources are joined in by the read model, in one query
+        if (!expand.isEmpty()) {
+            return adoptionProcessViewRepository.findAll(expand);
+        }
+
         // Retrieve all entities and convert each one to a DTO before returning
         return adoptionProcessRepository.findAll()
                 .map(adoptionProcessMapper::toAdoptionProcessDTO);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The page size is capped at {@value #MAX_PAGE_SIZE}.
+     */
+    @Override
+    public Mono<AdoptionProcessPageDTO> searchAdoptionProcesses(AdoptionProcessFilterDTO filter, Long after, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        // Fetch one extra row to know whether there is a next page without a count query
+        return adoptionProcessViewRepository.findPage(filter, after != null ? after : 0L, pageSize + 1)
+                .collectList()
+                .map(processes -> {
+                    if (processes.size() <= pageSize) {
+                        return new AdoptionProcessPageDTO(processes, null);
+                    }
+                    var content = processes.subList(0, pageSize);
+                    return new AdoptionProcessPageDTO(content, content.get(pageSize - 1).id());
+                });
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -61,6 +128,12 @@ public class AdoptionProcessServiceImpl implements AdoptionProcessService {
         // Find the existing entity by ID
         return adoptionProcessRepository.findById(id)
                 .flatMap(existingAdoptionProcess -> {
+                    // Status changes must go through the state machine, see transitionAdoptionProcess
+                    if (adoptionProcessDTO.status() != null && adoptionProcessDTO.status() != existingAdoptionProcess.getStatus()) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                                "The status of an AdoptionProcess can only be changed through its transitions"));
+                    }
+
                     // Update the existing entity with non-null fields from the DTO
                     adoptionProcessMapper.updateAdoptionProcessFromDTO(adoptionProcessDTO, existingAdoptionProcess);
 
@@ -68,7 +141,43 @@ public class AdoptionProcessServiceImpl implements AdoptionProcessService {
                     return adoptionProcessRepository.save(existingAdoptionProcess);
                 })
                 .map(adoptionProcessMapper::toAdoptionProcessDTO)
+                .onErrorMap(OptimisticLockingFailureException.class,
+                        e -> new ResponseStatusException(HttpStatus.CONFLICT, "AdoptionProcess was updated concurrently", e))
                 .switchIfEmpty(Mono.error(new RuntimeException("AdoptionProcess not found")));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<AdoptionProcessDTO> transitionAdoptionProcess(Long id, AdoptionProcessTransitionDTO transition) {
+        AdoptionProcessStatus from = transition.from();
+        AdoptionProcessStatus to = transition.to();
+        if (from == null || to == null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Both from and to statuses are required"));
+        }
+        if (!from.canTransitionTo(to)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "An AdoptionProcess cannot move from " + from + " to " + to + ", only to " + from.nextStatuses()));
+        }
+
+        // The conditional update both checks and changes the status, so concurrent moves cannot both succeed
+        return adoptionProcessRepository.transition(id, from.name(), to.name())
+                // An approved adoption takes the animal out of the available ones, in the same transaction, and
+                // rolls back if another process has adopted it first
+                .flatMap(process -> to == AdoptionProcessStatus.APPROVED
+                        ? animalRepository.markAdopted(process.getAnimalId())
+                        .filter(updated -> updated > 0)
+                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "Animal has already been adopted")))
+                        .thenReturn(process)
+                        : Mono.just(process))
+                .switchIfEmpty(Mono.defer(() -> adoptionProcessRepository.findById(id)
+                        .flatMap(current -> Mono.<AdoptionProcess>error(new ResponseStatusException(HttpStatus.CONFLICT,
+                                "AdoptionProcess is " + current.getStatus() + ", not " + from)))
+                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "AdoptionProcess not found")))))
+                .as(transactionalOperator::transactional)
+                .doOnNext(process -> availableAnimalsCache.invalidate())
+                .map(adoptionProcessMapper::toAdoptionProcessDTO);
+    }
+
 }
\ No newline at end of file
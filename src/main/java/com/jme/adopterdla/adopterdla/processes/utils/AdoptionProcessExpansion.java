@@ -0,0 +1,42 @@
+package com.jme.adopterdla.adopterdla.processes.utils;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Related resource embedded in an adoption process read, instead of only its ID.
+ */
+public enum AdoptionProcessExpansion {
+    ADOPTER,
+    ANIMAL,
+    VOLUNTEER;
+
+    /**
+     * Parses the values of an {@code expand} parameter, e.g. {@code adopter,animal}, ignoring case.
+     *
+     * @param parameters the parameter values, each holding one or more comma separated names
+     * @return the expansions, empty if none is given
+     * @throws ResponseStatusException with status 400 if a name is unknown
+     */
+    public static Set<AdoptionProcessExpansion> parse(Collection<String> parameters) {
+        Set<AdoptionProcessExpansion> expansions = EnumSet.noneOf(AdoptionProcessExpansion.class);
+        if (parameters == null) {
+            return expansions;
+        }
+        parameters.stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .forEach(name -> expansions.add(Arrays.stream(values())
+                        .filter(expansion -> expansion.name().equalsIgnoreCase(name))
+                        .findFirst()
+                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                                "Cannot expand " + name + ", only adopter, animal and volunteer"))));
+        return expansions;
+    }
+}
@@ -1,8 +1,37 @@
 package com.jme.adopterdla.adopterdla.processes.utils;
 
+import java.util.Set;
+
+/**
+ * Status of an adoption process. An approved process is final; a rejected one can be reopened.
+ */
 public enum AdoptionProcessStatus {
     IN_PROGRESS,
     PENDING,
     APPROVED,
-    REJECTED
+    REJECTED;
+
+    /**
+     * Returns the statuses a process in this status can be moved to.
+     *
+     * @return the allowed next statuses, empty for a final status
+     */
+    public Set<AdoptionProcessStatus> nextStatuses() {
+        return switch (this) {
+            case IN_PROGRESS -> Set.of(PENDING, REJECTED);
+            case PENDING -> Set.of(IN_PROGRESS, APPROVED, REJECTED);
+            case APPROVED -> Set.of();
+            case REJECTED -> Set.of(IN_PROGRESS);
+        };
+    }
+
+    /**
+     * Checks whether a process in this status can be moved to the given one.
+     *
+     * @param target the status to move to
+     * @return {@code true} if the move is allowed
+     */
+    public boolean canTransitionTo(AdoptionProcessStatus target) {
+        return nextStatuses().contains(target);
+    }
 }
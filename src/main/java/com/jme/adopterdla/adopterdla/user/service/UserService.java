@@ -1,15 +1,18 @@
 package com.jme.adopterdla.adopterdla.user.service;
 
 import com.jme.adopterdla.adopterdla.auth.CustomUserDetails;
+import com.jme.adopterdla.adopterdla.configs.security.service.CachingUserDetailsService;
+import com.jme.adopterdla.adopterdla.configs.security.service.PasswordHashingService;
 import com.jme.adopterdla.adopterdla.user.dto.ChangePasswordRequest;
 import com.jme.adopterdla.adopterdla.user.repository.UserRepository;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
@@ -17,27 +20,37 @@ import reactor.core.publisher.Mono;
 @Log4j2
 public class UserService {
 
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
 
     private final UserRepository userRepository;
 
-    public UserService(PasswordEncoder passwordEncoder, UserRepository userRepository) {
-        this.passwordEncoder = passwordEncoder;
+    private final CachingUserDetailsService userDetailsService;
+
+    public UserService(PasswordHashingService passwordHashingService, UserRepository userRepository,
+                       CachingUserDetailsService userDetailsService) {
+        this.passwordHashingService = passwordHashingService;
+        this.userDetailsService = userDetailsService;
         this.userRepository = userRepository;
     }
 
     public Mono<ResponseEntity<Object>> changePassword(ChangePasswordRequest changePasswordRequest) {
-        return Mono.defer(() -> {
-            String userDetails = (String) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-            String newPassword = changePasswordRequest.getNewPassword();
-            return userRepository.findByUsername(userDetails)
-                    .flatMap(user -> {
-                        user.setPassword(passwordEncoder.encode(newPassword));
-                        return userRepository.save(user);
-                    })
-                    .thenReturn(ResponseEntity.ok().build())
-                    .switchIfEmpty(Mono.error(new UsernameNotFoundException("Invalid user.")))
-                    .onErrorResume(AuthenticationException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build()));
-        });
+        // The authentication comes from the reactive context, as the request is not bound to a thread
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .map(Authentication::getName)
+                .flatMap(username -> {
+                    String newPassword = changePasswordRequest.getNewPassword();
+                    return userRepository.findByUsername(username)
+                            .flatMap(user -> passwordHashingService.encode(newPassword)
+                                    .flatMap(encodedPassword -> {
+                                        user.setPassword(encodedPassword);
+                                        return userRepository.save(user);
+                                    }))
+                            // The cached details hold the old password hash
+                            .doOnNext(user -> userDetailsService.evict(username))
+                            .thenReturn(ResponseEntity.ok().build());
+                })
+                .switchIfEmpty(Mono.error(new UsernameNotFoundException("Invalid user.")))
+                .onErrorResume(AuthenticationException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build()));
     }
 }
@@ -2,6 +2,7 @@ package com.jme.adopterdla.adopterdla.visits.controller;
 
 import com.jme.adopterdla.adopterdla.visits.dto.ShelterVisitDTO;
 import com.jme.adopterdla.adopterdla.visits.service.ShelterVisitService;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -21,7 +22,7 @@ public class ShelterVisitController {
         return shelterVisitService.findById(id);
     }
 
-    @GetMapping
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
     public Flux<ShelterVisitDTO> getAllShelterVisits() {
         return shelterVisitService.findAll();
     }
@@ -1,9 +1,37 @@
 package com.jme.adopterdla.adopterdla.visits.repository;
 
+import com.jme.adopterdla.adopterdla.visits.dto.ShelterVisitDTO;
 import com.jme.adopterdla.adopterdla.visits.entity.ShelterVisit;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Repository
 public interface ShelterVisitRepository extends ReactiveCrudRepository<ShelterVisit, Long> {
+
+    /**
+     * Reads every visit joined with its adopter and schedule, projected straight into {@link ShelterVisitDTO}
+     * so the listing costs a single round trip regardless of the number of rows.
+     */
+    @Query("""
+            SELECT sv.id, a.name, a.phone, a.email, sv.animal_id, a.id AS adopter_id_id,
+                   s.schedule_date AS date, s.start_time_hour AS hour, s.end_time_minute AS minute
+            FROM shelter_visit sv
+                     JOIN adopters a ON a.id = sv.adopter_id
+                     JOIN schedules s ON s.id = sv.schedule_id
+            ORDER BY sv.id
+                """)
+    Flux<ShelterVisitDTO> findAllVisits();
+
+    @Query("""
+            SELECT sv.id, a.name, a.phone, a.email, sv.animal_id, a.id AS adopter_id_id,
+                   s.schedule_date AS date, s.start_time_hour AS hour, s.end_time_minute AS minute
+            FROM shelter_visit sv
+                     JOIN adopters a ON a.id = sv.adopter_id
+                     JOIN schedules s ON s.id = sv.schedule_id
+            WHERE sv.id = :id
+                """)
+    Mono<ShelterVisitDTO> findVisitById(Long id);
 }
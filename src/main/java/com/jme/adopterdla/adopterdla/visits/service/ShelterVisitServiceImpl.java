@@ -32,19 +32,17 @@ public class ShelterVisitServiceImpl implements ShelterVisitService {
      */
     @Override
     public Mono<ShelterVisitDTO> findById(Long id) {
-        return shelterVisitRepository.findById(id)
-                .flatMap(this::toDTO);
+        return shelterVisitRepository.findVisitById(id);
     }
 
     /**
-     * Find all ShelterVisits.
+     * Find all ShelterVisits, resolved together with their adopter and schedule in a single query.
      *
      * @return A Flux of all ShelterVisitDTOs.
      */
     @Override
     public Flux<ShelterVisitDTO> findAll() {
-        return shelterVisitRepository.findAll()
-                .flatMap(this::toDTO);
+        return shelterVisitRepository.findAllVisits();
     }
 
     /**
@@ -94,7 +92,7 @@ public class ShelterVisitServiceImpl implements ShelterVisitService {
                     );
                 })
                 .flatMap(tuple -> shelterVisitRepository.save(tuple.getT3()))
-                .flatMap(this::toDTO);
+                .flatMap(savedVisit -> shelterVisitRepository.findVisitById(savedVisit.getId()));
     }
 
 
@@ -115,36 +113,4 @@ public class ShelterVisitServiceImpl implements ShelterVisitService {
                 );
     }
 
-
-    /**
-     * Convert a ShelterVisit entity to a ShelterVisitDTO.
-     *
-     * @param shelterVisit The ShelterVisit entity to convert.
-     *
-     * @return A Mono of the converted ShelterVisitDTO.
-     */
-    private Mono<ShelterVisitDTO> toDTO(ShelterVisit shelterVisit) {
-        return Mono.just(shelterVisit)
-                .zipWith(adopterRepository.findById(shelterVisit.getAdopterId()))
-                .zipWith(scheduleRepository.findById(shelterVisit.getScheduleId()))
-                .map(tuple -> {
-                    ShelterVisit shelter = tuple.getT1().getT1();
-                    Adopter adopter = tuple.getT1().getT2();
-                    Schedule schedule = tuple.getT2();
-
-                    return ShelterVisitDTO.builder()
-                            .id(shelter.getId())
-                            .name(adopter.getName())
-                            .phone(adopter.getPhone())
-                            .email(adopter.getEmail())
-                            .adopterIdId(adopter.getId())
-                            .animalId(shelter.getAnimalId())
-                            .date(schedule.getScheduleDate())
-                            .hour(schedule.getStartTimeHour())
-                            .minute(schedule.getEndTimeMinute())
-                            .build();
-                });
-    }
-
 }
-
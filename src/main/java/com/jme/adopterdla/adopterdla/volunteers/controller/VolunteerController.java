@@ -5,6 +5,7 @@ import com.jme.adopterdla.adopterdla.volunteers.service.VolunteerService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.http.MediaType;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
@@ -28,13 +29,13 @@ public class VolunteerController {
         return volunteerService.findById(id);
     }
 
-    @GetMapping
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
     @Operation(summary = "Get all volunteers")
     public Flux<VolunteerDTO> getAllVolunteers() {
         return volunteerService.findAll();
     }
 
-    @PostMapping
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "Create / Update volunteer ")
     public Mono<VolunteerDTO> createVolunteer(
             @RequestBody @Parameter(description = "Volunteer DTO with the volunteer's information", required = true, schema = @Schema(implementation = VolunteerDTO.class))
@@ -42,6 +43,16 @@ public class VolunteerController {
         return volunteerService.save(volunteerDTO);
     }
 
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Create / Update volunteer, uploading the photo as a file")
+    public Mono<VolunteerDTO> createVolunteer(
+            @RequestPart("data") @Parameter(description = "Volunteer DTO with the volunteer's information", required = true, schema = @Schema(implementation = VolunteerDTO.class))
+            VolunteerDTO volunteerDTO,
+            @RequestPart(value = "imageData", required = false) @Parameter(description = "Photo of the volunteer")
+            FilePart imageData) {
+        return volunteerService.save(volunteerDTO, imageData);
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete a volunteer by ID")
     public Mono<Void> deleteVolunteer(
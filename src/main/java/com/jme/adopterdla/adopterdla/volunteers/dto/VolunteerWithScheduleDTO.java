@@ -0,0 +1,25 @@
+package com.jme.adopterdla.adopterdla.volunteers.dto;
+
+import java.util.Set;
+
+/**
+ * Flat projection of a volunteer row joined with its schedule, read in a single query by
+ * {@link com.jme.adopterdla.adopterdla.volunteers.repository.VolunteerRepository}.
+ */
+public record VolunteerWithScheduleDTO(
+        Long id,
+        String name,
+        String notes,
+        String email,
+        String phone,
+        String address,
+        String imageUrl,
+        boolean active,
+        Long scheduleId,
+        Set<Integer> days,
+        int startTimeHour,
+        int startTimeMinute,
+        int endTimeHour,
+        int endTimeMinute
+) {
+}
@@ -2,6 +2,7 @@ package com.jme.adopterdla.adopterdla.volunteers.mapper;
 
 import com.jme.adopterdla.adopterdla.common.entity.Schedule;
 import com.jme.adopterdla.adopterdla.volunteers.dto.VolunteerDTO;
+import com.jme.adopterdla.adopterdla.volunteers.dto.VolunteerWithScheduleDTO;
 import com.jme.adopterdla.adopterdla.volunteers.entity.Volunteer;
 import org.mapstruct.*;
 
@@ -16,6 +17,10 @@ public interface VolunteerMapper {
     @Mapping(target = "days", expression = "java(toDayOfWeekSet(schedule.getDays()))")
     VolunteerDTO toDTO(Volunteer volunteer, Schedule schedule);
 
+    @Mapping(target = "scheduleString", expression = "java(joinedScheduleToString(volunteer))")
+    @Mapping(target = "days", expression = "java(toDayOfWeekSet(volunteer.days()))")
+    VolunteerDTO toDTO(VolunteerWithScheduleDTO volunteer);
+
     Volunteer toEntity(VolunteerDTO volunteerDTO);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
@@ -26,6 +31,12 @@ public interface VolunteerMapper {
         return schedule == null ? null : schedule.toString();
     }
 
+    @Named("joinedScheduleToString")
+    default String joinedScheduleToString(VolunteerWithScheduleDTO volunteer) {
+        return Schedule.describe(volunteer.days(), volunteer.startTimeHour(), volunteer.startTimeMinute(),
+                volunteer.endTimeHour(), volunteer.endTimeMinute());
+    }
+
     @Named("toDayOfWeekSet")
     default Set<DayOfWeek> toDayOfWeekSet(Set<Integer> dayValues) {
         return dayValues.stream()
@@ -1,9 +1,33 @@
 package com.jme.adopterdla.adopterdla.volunteers.repository;
 
+import com.jme.adopterdla.adopterdla.volunteers.dto.VolunteerWithScheduleDTO;
 import com.jme.adopterdla.adopterdla.volunteers.entity.Volunteer;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Repository
 public interface VolunteerRepository extends ReactiveCrudRepository<Volunteer, Long> {
+
+    @Query("""
+            SELECT v.id, v.name, v.notes, v.email, v.phone, v.address, v.image_url, v.active,
+                   s.id AS schedule_id, s.days, s.start_time_hour, s.start_time_minute,
+                   s.end_time_hour, s.end_time_minute
+            FROM volunteers v
+                     JOIN schedules s ON s.id = v.schedule_id
+            ORDER BY v.id
+                """)
+    Flux<VolunteerWithScheduleDTO> findAllWithSchedule();
+
+    @Query("""
+            SELECT v.id, v.name, v.notes, v.email, v.phone, v.address, v.image_url, v.active,
+                   s.id AS schedule_id, s.days, s.start_time_hour, s.start_time_minute,
+                   s.end_time_hour, s.end_time_minute
+            FROM volunteers v
+                     JOIN schedules s ON s.id = v.schedule_id
+            WHERE v.id = :id
+                """)
+    Mono<VolunteerWithScheduleDTO> findWithScheduleById(Long id);
 }
@@ -12,5 +12,7 @@ public interface VolunteerService {
 
     Mono<VolunteerDTO> save(VolunteerDTO volunteerDTO);
 
+    Mono<VolunteerDTO> save(VolunteerDTO volunteerDTO, FilePart imageData);
+
     Mono<Void> deleteById(Long id);
 }
@@ -1,7 +1,7 @@
 package com.jme.adopterdla.adopterdla.volunteers.service;
 
-import com.jme.adopterdla.adopterdla.common.service.AzureFileUploadService;
 import com.jme.adopterdla.adopterdla.common.utils.AzurePersistImageUtils;
+import com.jme.adopterdla.adopterdla.configs.security.service.CachingUserDetailsService;
 import com.jme.adopterdla.adopterdla.user.entity.User;
 import com.jme.adopterdla.adopterdla.user.repository.UserRepository;
 import com.jme.adopterdla.adopterdla.common.entity.Schedule;
@@ -12,10 +12,12 @@ import com.jme.adopterdla.adopterdla.volunteers.entity.Volunteer;
 import com.jme.adopterdla.adopterdla.volunteers.mapper.VolunteerMapper;
 import com.jme.adopterdla.adopterdla.volunteers.repository.VolunteerRepository;
 import lombok.AllArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 import java.time.DayOfWeek;
 import java.util.List;
@@ -26,6 +28,7 @@ import java.util.stream.Collectors;
  */
 @Service
 @AllArgsConstructor
+@Log4j2
 public class VolunteerServiceImpl implements VolunteerService {
 
     private final VolunteerRepository volunteerRepository;
@@ -33,7 +36,8 @@ public class VolunteerServiceImpl implements VolunteerService {
     private final UserRepository userRepository;
     private final VolunteerMapper volunteerMapper;
     private final AzurePersistImageUtils azurePersistImageUtils;
-    private final AzureFileUploadService azureFileUploadService;
+    private final CachingUserDetailsService userDetailsService;
+    private final TransactionalOperator transactionalOperator;
 
     /**
      * Finds a volunteer by their id and returns the corresponding VolunteerDTO.
@@ -44,106 +48,176 @@ public class VolunteerServiceImpl implements VolunteerService {
      */
     @Override
     public Mono<VolunteerDTO> findById(Long id) {
-        return volunteerRepository.findById(id)
-                .flatMap(volunteer -> scheduleRepository.findById(volunteer.getScheduleId())
-                        .map(schedule -> volunteerMapper.toDTO(volunteer, schedule)));
+        return volunteerRepository.findWithScheduleById(id)
+                .map(volunteerMapper::toDTO);
     }
 
     /**
      * Returns all volunteers as a Flux of VolunteerDTOs.
+     * The volunteers and their schedules are streamed from a single joined query.
      *
      * @return all volunteers as a Flux of VolunteerDTOs
      */
     @Override
     public Flux<VolunteerDTO> findAll() {
-        return volunteerRepository.findAll()
-                .flatMap(volunteer -> scheduleRepository.findById(volunteer.getScheduleId())
-                        .map(schedule -> volunteerMapper.toDTO(volunteer, schedule)));
+        return volunteerRepository.findAllWithSchedule()
+                .map(volunteerMapper::toDTO);
     }
 
     /**
      * Saves a volunteer based on the given VolunteerDTO and returns the saved VolunteerDTO.
      * Also handles updating or inserting the associated Schedule.
      *
-     * @param volunteerDTO the VolunteerDTO to be saved
+     * @param volunteerDTO the VolunteerDTO to be saved, with the photo base64 encoded in {@code imageBase64}
      *
      * @return the saved VolunteerDTO
      */
     @Override
     public Mono<VolunteerDTO> save(VolunteerDTO volunteerDTO) {
-
-        Mono<String> imageUrlMono = volunteerDTO.imageBase64() != null
+        Mono<String> imageUpload = volunteerDTO.imageBase64() != null
                 ? azurePersistImageUtils.saveImageData(volunteerDTO.imageBase64())
-                : Mono.empty();
-
-        return imageUrlMono.defaultIfEmpty("").flatMap(imageUrl -> {
-
-            var schedule = Schedule.builder()
-                    .days(volunteerDTO.days().stream().map(DayOfWeek::getValue).collect(Collectors.toSet()))
-                    .startTimeHour(volunteerDTO.startTimeHour())
-                    .startTimeMinute(volunteerDTO.startTimeMinute())
-                    .endTimeHour(volunteerDTO.endTimeHour())
-                    .endTimeMinute(volunteerDTO.endTimeMinute())
-                    .build();
-
-            // Determine if we need to save a new schedule or update an existing one
-            Mono<Schedule> scheduleMono;
-            if (volunteerDTO.scheduleId() == null) {
-                scheduleMono = scheduleRepository.save(schedule);
-            } else {
-                scheduleMono = scheduleRepository.findById(volunteerDTO.scheduleId())
-                        .doOnNext(existingSchedule -> {
-                            existingSchedule.setDays(schedule.getDays());
-                            existingSchedule.setStartTimeHour(schedule.getStartTimeHour());
-                            existingSchedule.setStartTimeMinute(schedule.getStartTimeMinute());
-                            existingSchedule.setEndTimeHour(schedule.getEndTimeHour());
-                            existingSchedule.setEndTimeMinute(schedule.getEndTimeMinute());
+                : null;
+        return save(volunteerDTO, imageUpload);
+    }
+
+    /**
+     * Saves a volunteer based on the given VolunteerDTO and photo and returns the saved VolunteerDTO.
+     * The photo is streamed to the blob storage as it is read, so it is never held in memory whole.
+     *
+     * @param volunteerDTO the VolunteerDTO to be saved
+     * @param imageData    the photo of the volunteer, or null to keep the current one
+     *
+     * @return the saved VolunteerDTO
+     */
+    @Override
+    public Mono<VolunteerDTO> save(VolunteerDTO volunteerDTO, FilePart imageData) {
+        Mono<String> imageUpload = imageData != null
+                ? azurePersistImageUtils.saveImageData(imageData.content(),
+                azurePersistImageUtils.getExtensionByStringHandling(imageData.filename()).orElse("jpeg"))
+                : null;
+        return save(volunteerDTO, imageUpload);
+    }
+
+    /**
+     * Saves the volunteer and its schedule in one transaction.
+     * The photo is uploaded before the transaction, so it does not hold a connection; it is released if the volunteer
+     * is not saved, either because there is no volunteer with the given ID or because the transaction is rolled back.
+     *
+     * @param imageUpload stores the new photo and emits its URL, or null if the photo does not change
+     */
+    private Mono<VolunteerDTO> save(VolunteerDTO volunteerDTO, Mono<String> imageUpload) {
+
+        Mono<String> imageUrlMono = imageUpload != null ? imageUpload : Mono.empty();
+
+        return imageUrlMono.defaultIfEmpty("").flatMap(imageUrl -> persistVolunteer(volunteerDTO, imageUpload != null, imageUrl)
+                        .as(transactionalOperator::transactional)
+                        // Evicted once the user is deleted for good, so a concurrent login cannot cache it again
+                        // from the row the transaction has not removed yet
+                        .doOnSuccess(savedVolunteer -> {
+                            if (savedVolunteer != null && !savedVolunteer.isActive()) {
+                                userDetailsService.evict(savedVolunteer.getEmail());
+                            }
                         })
-                        .flatMap(scheduleRepository::save);
-            }
+                        .switchIfEmpty(Mono.defer(() -> releaseUploadedImage(imageUrl).then(Mono.empty())))
+                        .onErrorResume(e -> releaseUploadedImage(imageUrl).then(Mono.error(e))))
+                .flatMap(savedVolunteer -> findById(savedVolunteer.getId()));
+    }
 
-            return scheduleMono.flatMap(savedSchedule -> {
-                Volunteer volunteer = volunteerMapper.toEntity(volunteerDTO);
-                volunteer.setScheduleId(savedSchedule.getId());
-
-                // Determine if we need to save a new volunteer or update an existing one
-                if (volunteerDTO.id() == null) {
-                    User newUser = new User(volunteer.getEmail(),
-                            volunteer.getEmail(),
-                            volunteer.getName(),
-                            RandomPasswordGenerator.generateRandomPassword(),
-                            List.of("ROLE_USER"));
-
-                    volunteer.setImageUrl(imageUrl);
-                    return userRepository.save(newUser)
-                            .then(volunteerRepository.save(volunteer));
-                } else {
-                    return volunteerRepository.findById(volunteerDTO.id())
-                            .doOnNext(existingVolunteer -> {
-                                if (volunteerDTO.imageBase64() != null) {
-                                    // If an image is being updated, delete the old image and upload the new one.
-                                    Mono.fromCallable(() -> azureFileUploadService.deleteImage(existingVolunteer.getImageUrl()))
-                                            .subscribeOn(Schedulers.boundedElastic())
-                                            .subscribe();
-                                }
-                            })
-                            .doOnNext(existingVolunteer -> volunteerMapper.updateVolunteerFromDTO(volunteerDTO, existingVolunteer))
-                            .flatMap(volunteer1 -> {
-                                if (!volunteer1.isActive()) {
-                                    return userRepository.deleteByEmail(volunteer1.getEmail())
-                                            .then(Mono.defer(() -> volunteerRepository.save(volunteer1)));
-                                }
-                                return volunteerRepository.save(volunteer1);
-                            });
-                }
-            }).flatMap(savedVolunteer -> scheduleRepository.findById(savedVolunteer.getScheduleId())
-                    .map(savedSchedule -> volunteerMapper.toDTO(savedVolunteer, savedSchedule)));
-        });
+    /**
+     * Drops the reference taken by the upload of a photo that no volunteer points at.
+     */
+    private Mono<Void> releaseUploadedImage(String imageUrl) {
+        return azurePersistImageUtils.releaseImage(imageUrl)
+                .as(transactionalOperator::transactional)
+                .onErrorResume(e -> {
+                    log.error("Error releasing the unused image {}", imageUrl, e);
+                    return Mono.empty();
+                });
     }
 
+    private Mono<Volunteer> persistVolunteer(VolunteerDTO volunteerDTO, boolean imageChanged, String imageUrl) {
+        var schedule = Schedule.builder()
+                .days(volunteerDTO.days().stream().map(DayOfWeek::getValue).collect(Collectors.toSet()))
+                .startTimeHour(volunteerDTO.startTimeHour())
+                .startTimeMinute(volunteerDTO.startTimeMinute())
+                .endTimeHour(volunteerDTO.endTimeHour())
+                .endTimeMinute(volunteerDTO.endTimeMinute())
+                .build();
+
+        // Determine if we need to save a new schedule or update an existing one
+        Mono<Schedule> scheduleMono;
+        if (volunteerDTO.scheduleId() == null) {
+            scheduleMono = scheduleRepository.save(schedule);
+        } else {
+            scheduleMono = scheduleRepository.findById(volunteerDTO.scheduleId())
+                    .doOnNext(existingSchedule -> {
+                        existingSchedule.setDays(schedule.getDays());
+                        existingSchedule.setStartTimeHour(schedule.getStartTimeHour());
+                        existingSchedule.setStartTimeMinute(schedule.getStartTimeMinute());
+                        existingSchedule.setEndTimeHour(schedule.getEndTimeHour());
+                        existingSchedule.setEndTimeMinute(schedule.getEndTimeMinute());
+                    })
+                    .flatMap(scheduleRepository::save);
+        }
+
+        return scheduleMono.flatMap(savedSchedule -> {
+            Volunteer volunteer = volunteerMapper.toEntity(volunteerDTO);
+            volunteer.setScheduleId(savedSchedule.getId());
+
+            // Determine if we need to save a new volunteer or update an existing one
+            if (volunteerDTO.id() == null) {
+                User newUser = new User(volunteer.getEmail(),
+                        volunteer.getEmail(),
+                        volunteer.getName(),
+                        RandomPasswordGenerator.generateRandomPassword(),
+                        List.of("ROLE_USER"));
+
+                volunteer.setImageUrl(imageUrl);
+                return userRepository.save(newUser)
+                        .then(volunteerRepository.save(volunteer));
+            }
+            return volunteerRepository.findById(volunteerDTO.id())
+                    .flatMap(existingVolunteer -> {
+                        String previousImageUrl = existingVolunteer.getImageUrl();
+                        volunteerMapper.updateVolunteerFromDTO(volunteerDTO, existingVolunteer);
+                        if (imageChanged) {
+                            existingVolunteer.setImageUrl(imageUrl);
+                        }
+
+                        Mono<Volunteer> savedVolunteerMono;
+                        if (!existingVolunteer.isActive()) {
+                            // Volunteer users log in with their email, so it is also their cached username
+                            savedVolunteerMono = userRepository.deleteByEmail(existingVolunteer.getEmail())
+                                    .then(Mono.defer(() -> volunteerRepository.save(existingVolunteer)));
+                        } else {
+                            savedVolunteerMono = volunteerRepository.save(existingVolunteer);
+                        }
+
+                        // If an image is being updated, release the old one in the same transaction, so its
+                        // deletion is queued if and only if the update is committed.
+                        // Re-uploading the same photo leaves the image untouched, as both share the same blob.
+                        if (!imageChanged) {
+                            return savedVolunteerMono;
+                        }
+                        return savedVolunteerMono.flatMap(savedVolunteer -> azurePersistImageUtils.releaseImage(previousImageUrl)
+                                .thenReturn(savedVolunteer));
+                    });
+        });
+    }
 
+    /**
+     * Deletes the volunteer with the given id and releases its photo in the same transaction, so the deletion of the
+     * photo is queued if and only if the volunteer is deleted.
+     *
+     * @param id the volunteer's id
+     *
+     * @return an empty Mono when the deletion is complete
+     */
     @Override
     public Mono<Void> deleteById(Long id) {
-        return volunteerRepository.deleteById(id);
+        return volunteerRepository.findById(id)
+                .flatMap(volunteer -> volunteerRepository.deleteById(id)
+                        .then(azurePersistImageUtils.releaseImage(volunteer.getImageUrl())))
+                .as(transactionalOperator::transactional);
     }
 }
\ No newline at end of file
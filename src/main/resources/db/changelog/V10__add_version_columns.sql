@@ -0,0 +1,3 @@
+-- Optimistic locking versions, also used as the ETag of single resource reads
+alter table animals add column version bigint not null default 0;
+alter table adoption_process add column version bigint not null default 0;
@@ -0,0 +1,12 @@
+-- Animal codes are handed out in blocks: each nextval reserves the next 50 codes for one application node.
+-- New codes start above the random 4 digit codes given so far, so they never collide with them.
+create sequence animal_code_seq start with 10000 increment by 50;
+
+-- Give a fresh code to every animal that shares its random code with an older one
+update animals
+set code = nextval('animal_code_seq')::text
+where id in (select id
+             from (select id, row_number() over (partition by code order by id) as occurrence from animals) codes
+             where occurrence > 1);
+
+create unique index animals_code_idx on animals (code);
@@ -0,0 +1,13 @@
+-- Outbox of unreferenced blobs, written in the same transaction as the change that dropped their last reference.
+-- A background worker deletes them from the blob storage, retrying failed attempts with a growing delay.
+create table blob_deletions
+(
+    id              bigserial primary key,
+    name            text        not null,
+    created_at      timestamptz not null default now(),
+    attempts        integer     not null default 0,
+    next_attempt_at timestamptz not null default now(),
+    last_error      text
+);
+
+create index blob_deletions_next_attempt_at_idx on blob_deletions (next_attempt_at);
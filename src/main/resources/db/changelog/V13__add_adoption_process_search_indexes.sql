@@ -0,0 +1,2 @@
+-- Search of adoption processes: open processes due for inspection in a date range
+create index adoption_process_status_inspection_date_idx on adoption_process (status, inspection_date);
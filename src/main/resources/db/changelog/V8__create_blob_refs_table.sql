@@ -0,0 +1,10 @@
+-- Reference counts of the content-addressed photos. A blob only counts as stored once its upload has succeeded, so
+-- a failed or running first upload is not skipped by the next upload of the same image. Its resized variants are
+-- only linked once they have all been stored
+create table blob_refs
+(
+    name            text primary key,
+    ref_count       integer not null default 0,
+    stored          boolean not null default false,
+    variants_stored boolean not null default false
+);
@@ -0,0 +1,17 @@
+-- Names and ids of the available animals, answered by an index-only scan
+create index animals_available_id_name_code_idx on animals (id) include (name, code) where is_available;
+-- Catalogue filtered by breed, read page by page in id order
+create index animals_lower_breed_id_idx on animals (lower(breed), id);
+
+create index adopters_email_idx on adopters (email);
+create index users_email_idx on users (email);
+
+-- Postgres does not index foreign key columns on its own. The processes of one adopter, animal or volunteer are
+-- also read page by page in id order, so their indexes carry the id
+create index volunteers_schedule_id_idx on volunteers (schedule_id);
+create index adoption_process_adopter_id_id_idx on adoption_process (adopter_id, id);
+create index adoption_process_animal_id_id_idx on adoption_process (animal_id, id);
+create index adoption_process_volunteer_id_id_idx on adoption_process (volunteer_id, id);
+create index shelter_visit_schedule_id_idx on shelter_visit (schedule_id);
+create index shelter_visit_adopter_id_idx on shelter_visit (adopter_id);
+create index shelter_visit_animal_id_idx on shelter_visit (animal_id);
@@ -42,6 +42,7 @@ public class AbstractUtilsBaseTest {
         registry.add("spring.r2dbc.url", AbstractUtilsBaseTest::r2dbcUrl);
         registry.add("spring.r2dbc.username", postgreSQLContainer::getUsername);
         registry.add("spring.r2dbc.password", postgreSQLContainer::getPassword);
+        registry.add("storage.blob.type", () -> "memory");
     }
 
     @BeforeAll
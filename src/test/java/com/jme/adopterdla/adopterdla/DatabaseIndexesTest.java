@@ -0,0 +1,318 @@
+package com.jme.adopterdla.adopterdla;
+
+import com.jme.adopterdla.adopterdla.adopters.repository.AdopterRepository;
+import com.jme.adopterdla.adopterdla.animals.dto.AnimalFilterDTO;
+import com.jme.adopterdla.adopterdla.animals.repository.AnimalCatalogueRepository;
+import com.jme.adopterdla.adopterdla.animals.repository.AnimalRepository;
+import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessFilterDTO;
+import com.jme.adopterdla.adopterdla.processes.repository.AdoptionProcessViewRepository;
+import com.jme.adopterdla.adopterdla.processes.utils.AdoptionProcessStatus;
+import com.jme.adopterdla.adopterdla.user.repository.UserRepository;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.Wrapped;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.TestPropertySource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks through EXPLAIN that the hot repository queries are answered from an index.
+ * <p>
+ * The repository methods are run for real, and the SQL and bindings they send are recorded and explained on tables
+ * seeded with enough rows for the planner to pick the plan it would pick in production.
+ */
+// No web server, as this context is not shared with the other tests and would compete for their port
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+// The deletion worker would otherwise record its own queries
+@TestPropertySource(properties = "blob.deletions.poll-interval=1h")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class DatabaseIndexesTest extends AbstractUtilsBaseTest {
+
+    private static final int ROWS = 20_000;
+
+    private static final Deque<RecordedStatement> statements = new ConcurrentLinkedDeque<>();
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private AnimalRepository animalRepository;
+
+    @Autowired
+    private AnimalCatalogueRepository animalCatalogueRepository;
+
+    @Autowired
+    private AdopterRepository adopterRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AdoptionProcessViewRepository adoptionProcessViewRepository;
+
+    @BeforeAll
+    public void seed() {
+        // One animal in twenty is available and one in a thousand is of a rare breed; each adopter has ten processes
+        // and each volunteer forty
+        Flux.concat(
+                        sql("""
+                                insert into animals (code, name, breed, gender, age, vaccinated, castrated, wormed, is_available, has_been_adopted)
+                                select 'IDX-' || n, 'IDX-' || n, case when n % 1000 = 0 then 'Basenji' else 'Mixed' end,
+                                       'MALE', '3', true, true, true, n % 20 = 0, n % 20 <> 0
+                                from generate_series(1, :rows) n"""),
+                        sql("""
+                                insert into adopters (name, email)
+                                select 'Idx Adopter ' || n, 'idx-adopter-' || n || '@example.com'
+                                from generate_series(1, :rows / 10) n"""),
+                        sql("""
+                                insert into users (username, password, email, name, roles)
+                                select 'idx-user-' || n, 'unused', 'idx-user-' || n || '@example.com', 'Idx User', '{ROLE_USER}'
+                                from generate_series(1, :rows) n"""),
+                        sql("""
+                                with seeded as (insert into schedules (days, start_time_hour, start_time_minute, end_time_hour, end_time_minute)
+                                    select '{1,3,6}', 9, 0, 13, 0 from generate_series(1, :rows / 40)
+                                    returning id)
+                                insert into volunteers (name, schedule_id, active)
+                                select 'IDX-volunteer-' || row_number() over (order by id), id, true
+                                from seeded"""),
+                        // One process in ten is still open; inspections go from five years ago to a month ahead
+                        sql("""
+                                insert into adoption_process (process_number, adopter_id, animal_id, volunteer_id, status, inspection_date)
+                                select 'IDX-' || n, ad.id, an.id, v.id,
+                                       case n % 20 when 0 then 'IN_PROGRESS' when 1 then 'PENDING'
+                                                   when 2 then 'REJECTED' else 'APPROVED' end,
+                                       timestamp '2026-10-19' - (n % 1855 - 30) * interval '1 day'
+                                from generate_series(1, :rows) n
+                                         join animals an on an.code = 'IDX-' || n
+                                         join adopters ad on ad.email = 'idx-adopter-' || (n % (:rows / 10) + 1) || '@example.com'
+                                         join volunteers v on v.name = 'IDX-volunteer-' || (n % (:rows / 40) + 1)"""),
+                        sql("""
+                                insert into shelter_visit (schedule_id, adopter_id, animal_id)
+                                select v.schedule_id, p.adopter_id, p.animal_id
+                                from adoption_process p
+                                         join volunteers v on v.id = p.volunteer_id
+                                where p.process_number like 'IDX-%'"""),
+                        // Fresh statistics, and a visibility map for index-only scans
+                        databaseClient.sql("vacuum analyze animals, adopters, users, schedules, volunteers, adoption_process, shelter_visit")
+                                .then())
+                .then()
+                .block();
+    }
+
+    @AfterAll
+    public void tearDown() {
+        Flux.concat(
+                        databaseClient.sql("delete from shelter_visit where animal_id in (select id from animals where code like 'IDX-%')").then(),
+                        databaseClient.sql("delete from adoption_process where process_number like 'IDX-%'").then(),
+                        databaseClient.sql("""
+                                with deleted as (delete from volunteers where name like 'IDX-volunteer-%' returning schedule_id)
+                                delete from schedules where id in (select schedule_id from deleted)""").then(),
+                        databaseClient.sql("delete from adopters where email like 'idx-adopter-%'").then(),
+                        databaseClient.sql("delete from animals where code like 'IDX-%'").then(),
+                        databaseClient.sql("delete from users where username like 'idx-user-%'").then())
+                .then()
+                .block();
+    }
+
+    static Stream<Arguments> hotQueries() {
+        return Stream.of(
+                hotQuery("AnimalRepository.findNameAndIdByIsAvailable",
+                        test -> test.animalRepository.findNameAndIdByIsAvailable(),
+                        "animals_available_id_name_code_idx"),
+                hotQuery("AnimalCatalogueRepository.findPage by a rare breed",
+                        test -> test.animalCatalogueRepository.findPage(AnimalFilterDTO.builder()
+                                .breed("basenji")
+                                .build(), 0, 21),
+                        "animals_lower_breed_id_idx"),
+                hotQuery("AdopterRepository.findByEmail",
+                        test -> test.adopterRepository.findByEmail("idx-adopter-7@example.com"),
+                        "adopters_email_idx"),
+                hotQuery("UserRepository.deleteByEmail",
+                        test -> test.userRepository.deleteByEmail("idx-nobody@example.com"),
+                        "users_email_idx"),
+                hotQuery("AdoptionProcessViewRepository.findPage by status and inspection date",
+                        test -> test.adoptionProcessViewRepository.findPage(AdoptionProcessFilterDTO.builder()
+                                .statuses(Set.of(AdoptionProcessStatus.IN_PROGRESS, AdoptionProcessStatus.PENDING))
+                                .inspectionFrom(LocalDateTime.parse("2026-10-19T00:00:00"))
+                                .inspectionTo(LocalDateTime.parse("2026-10-26T00:00:00"))
+                                .build(), 0, 21),
+                        "adoption_process_status_inspection_date_idx"),
+                hotQuery("AdoptionProcessViewRepository.findPage by adopter",
+                        test -> test.adoptionProcessViewRepository.findPage(AdoptionProcessFilterDTO.builder()
+                                .adopterId(test.idOf("select id from adopters where email = 'idx-adopter-7@example.com'"))
+                                .build(), 0, 21),
+                        "adoption_process_adopter_id_id_idx"));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    public void givenHotQuery_whenExplained_thenPlanUsesIndex(String name, Function<DatabaseIndexesTest, Publisher<?>> query,
+                                                              String expectedIndex) {
+        statements.clear();
+        Flux.from(query.apply(this)).then().block();
+        RecordedStatement statement = statements.getLast();
+
+        assertThat(explain(statement.sql(), statement.bindings()).block()).contains(expectedIndex);
+    }
+
+    /**
+     * The lookups Postgres runs on the referencing table when a referenced row is deleted.
+     */
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "SELECT 1 FROM volunteers WHERE schedule_id = $1 FOR KEY SHARE | select schedule_id from volunteers where name = 'IDX-volunteer-7' | volunteers_schedule_id_idx",
+            "SELECT 1 FROM adoption_process WHERE adopter_id = $1 FOR KEY SHARE | select id from adopters where email = 'idx-adopter-7@example.com' | adoption_process_adopter_id_id_idx",
+            "SELECT 1 FROM adoption_process WHERE animal_id = $1 FOR KEY SHARE | select id from animals where code = 'IDX-7' | adoption_process_animal_id_id_idx",
+            "SELECT 1 FROM adoption_process WHERE volunteer_id = $1 FOR KEY SHARE | select id from volunteers where name = 'IDX-volunteer-7' | adoption_process_volunteer_id_id_idx",
+            "SELECT 1 FROM shelter_visit WHERE schedule_id = $1 FOR KEY SHARE | select schedule_id from volunteers where name = 'IDX-volunteer-7' | shelter_visit_schedule_id_idx",
+            "SELECT 1 FROM shelter_visit WHERE adopter_id = $1 FOR KEY SHARE | select id from adopters where email = 'idx-adopter-7@example.com' | shelter_visit_adopter_id_idx",
+            "SELECT 1 FROM shelter_visit WHERE animal_id = $1 FOR KEY SHARE | select id from animals where code = 'IDX-7' | shelter_visit_animal_id_idx"
+    })
+    public void givenReferencedRowDeleted_whenForeignKeyIsChecked_thenPlanUsesIndex(String query, String referencedId,
+                                                                                   String expectedIndex) {
+        String plan = explain(query, Map.of(0, idOf(referencedId))).block();
+
+        assertThat(plan).contains(expectedIndex);
+    }
+
+    private static Arguments hotQuery(String name, Function<DatabaseIndexesTest, Publisher<?>> query, String expectedIndex) {
+        return Arguments.of(name, query, expectedIndex);
+    }
+
+    private Mono<Void> sql(String sql) {
+        return databaseClient.sql(sql).bind("rows", ROWS).then();
+    }
+
+    private Long idOf(String query) {
+        return databaseClient.sql(query)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .block();
+    }
+
+    private Mono<String> explain(String query, Map<Integer, Object> bindings) {
+        return Mono.usingWhen(connectionFactory.create(),
+                connection -> {
+                    Statement statement = connection.createStatement("EXPLAIN " + query);
+                    bindings.forEach((index, value) -> {
+                        if (value instanceof NullBinding nullBinding) {
+                            statement.bindNull(index, nullBinding.type());
+                        } else {
+                            statement.bind(index, value);
+                        }
+                    });
+                    return Flux.from(statement.execute())
+                            .flatMap(result -> result.map((row, metadata) -> row.get(0, String.class)))
+                            .collectList()
+                            .map(lines -> String.join("\n", lines));
+                },
+                Connection::close);
+    }
+
+    private record RecordedStatement(String sql, Map<Integer, Object> bindings) {
+    }
+
+    private record NullBinding(Class<?> type) {
+    }
+
+    /**
+     * Records the SQL and the bindings of every statement the application sends.
+     */
+    @TestConfiguration
+    static class StatementRecordingConfiguration {
+
+        @Bean
+        static BeanPostProcessor statementRecorder() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof ConnectionFactory connectionFactory ? recording(connectionFactory) : bean;
+                }
+            };
+        }
+
+        private static ConnectionFactory recording(ConnectionFactory connectionFactory) {
+            return proxy(connectionFactory, new Class<?>[]{ConnectionFactory.class, Wrapped.class}, (method, args) -> switch (method) {
+                case "create" -> Mono.from(connectionFactory.create()).map(StatementRecordingConfiguration::recording);
+                case "unwrap" -> connectionFactory;
+                default -> null;
+            });
+        }
+
+        private static Connection recording(Connection connection) {
+            return proxy(connection, new Class<?>[]{Connection.class}, (method, args) -> method.equals("createStatement")
+                    ? recording(connection.createStatement((String) args[0]), (String) args[0])
+                    : null);
+        }
+
+        private static Statement recording(Statement statement, String sql) {
+            Map<Integer, Object> bindings = new TreeMap<>();
+            statements.add(new RecordedStatement(sql, bindings));
+            return proxy(statement, new Class<?>[]{Statement.class}, (method, args) -> {
+                if (method.equals("bind") && args[0] instanceof Integer index) {
+                    bindings.put(index, args[1]);
+                } else if (method.equals("bindNull") && args[0] instanceof Integer index) {
+                    bindings.put(index, new NullBinding((Class<?>) args[1]));
+                }
+                return null;
+            });
+        }
+
+        /**
+         * Proxies the given target, letting the interceptor answer a call by returning a value, or pass it on to the
+         * target by returning {@code null}. Calls returning the target itself return the proxy, so chained calls stay
+         * intercepted.
+         */
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(T target, Class<?>[] interfaces, Interceptor interceptor) {
+            return (T) Proxy.newProxyInstance(DatabaseIndexesTest.class.getClassLoader(), interfaces, (proxy, method, args) -> {
+                Object intercepted = interceptor.intercept(method.getName(), args);
+                if (intercepted != null) {
+                    return intercepted;
+                }
+                try {
+                    Object result = method.invoke(target, args);
+                    return result == target ? proxy : result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+
+        private interface Interceptor {
+
+            Object intercept(String method, Object[] args);
+        }
+    }
+}
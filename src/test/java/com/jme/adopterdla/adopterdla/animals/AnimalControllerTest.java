@@ -3,16 +3,24 @@ package com.jme.adopterdla.adopterdla.animals;
 import com.jme.adopterdla.adopterdla.AbstractUtilsBaseTest;
 import io.restassured.builder.MultiPartSpecBuilder;
 import io.restassured.http.ContentType;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
@@ -23,6 +31,17 @@ public class AnimalControllerTest extends AbstractUtilsBaseTest {
 
     private static final String BASE_URI = "http://localhost:8080/api/animals";
 
+    private static final String CATALOGUE_BREED = "Catalogue Hound";
+    private static final int CATALOGUE_ANIMALS = 150;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @AfterEach
+    public void tearDown() {
+        databaseClient.sql("delete from animals where code like 'CAT-%'").then().block();
+    }
+
     @Test
     @Order(1)
     public void testCreateAnimal() throws FileNotFoundException {
@@ -79,6 +98,61 @@ public class AnimalControllerTest extends AbstractUtilsBaseTest {
                 .body("isAvailable", equalTo(true));
     }
 
+    @Test
+    @Order(2)
+    public void testGetAnimalNotModified() {
+        String eTag = given()
+                .header("Authorization", "Bearer " + getAdminToken())
+                .pathParam("id", 1)
+                .when()
+                .get(BASE_URI + "/{id}")
+                .then()
+                .statusCode(200)
+                .header("ETag", notNullValue())
+                .extract()
+                .header("ETag");
+
+        given()
+                .header("Authorization", "Bearer " + getAdminToken())
+                .header("If-None-Match", eTag)
+                .pathParam("id", 1)
+                .when()
+                .get(BASE_URI + "/{id}")
+                .then()
+                .statusCode(304)
+                .header("ETag", equalTo(eTag))
+                .body(emptyString());
+    }
+
+    @Test
+    @Order(2)
+    public void testGetAnimalModifiedOnceImageVariantsAreStored() {
+        setImageVariantsStored(1L, false);
+        String eTag = given()
+                .header("Authorization", "Bearer " + getAdminToken())
+                .pathParam("id", 1)
+                .when()
+                .get(BASE_URI + "/{id}")
+                .then()
+                .statusCode(200)
+                .body("imageVariants", anEmptyMap())
+                .extract()
+                .header("ETag");
+
+        setImageVariantsStored(1L, true);
+
+        given()
+                .header("Authorization", "Bearer " + getAdminToken())
+                .header("If-None-Match", eTag)
+                .pathParam("id", 1)
+                .when()
+                .get(BASE_URI + "/{id}")
+                .then()
+                .statusCode(200)
+                .header("ETag", not(equalTo(eTag)))
+                .body("imageVariants.160", notNullValue());
+    }
+
     @Test
     @Order(3)
     public void testGetAllAnimals() {
@@ -134,6 +208,19 @@ public class AnimalControllerTest extends AbstractUtilsBaseTest {
                 .body("isAvailable", equalTo(false));
     }
 
+    @Test
+    @Order(5)
+    public void testUpdateMissingAnimal() {
+        given()
+                .header("Authorization", "Bearer " + getAdminToken())
+                .multiPart("data", "{ \"name\": \"Ghost\" }", "application/json")
+                .pathParam("id", Long.MAX_VALUE)
+                .when()
+                .put(BASE_URI + "/{id}")
+                .then()
+                .statusCode(404);
+    }
+
     @Test
     @Order(6)
     public void testDeleteAnimal() {
@@ -145,4 +232,193 @@ public class AnimalControllerTest extends AbstractUtilsBaseTest {
                 .then()
                 .statusCode(204);
     }
+
+    @Test
+    @Order(7)
+    public void testGetCatalogueFirstPage() {
+        seedCatalogue();
+
+        List<Integer> ids = given()
+                .header("Authorization", "Bearer " + getAdminToken())
+                .queryParam("breed", CATALOGUE_BREED)
+                .queryParam("size", 10)
+                .when()
+                .get(BASE_URI + "/catalogue")
+                .then()
+                .statusCode(200)
+                .contentType(ContentType.JSON)
+                .body("content.size()", equalTo(10))
+                .body("content.code", contains("CAT-1", "CAT-2", "CAT-3", "CAT-4", "CAT-5", "CAT-6", "CAT-7", "CAT-8", "CAT-9", "CAT-10"))
+                .extract()
+                .path("content.id");
+
+        given()
+                .header("Authorization", "Bearer " + getAdminToken())
+                .queryParam("breed", CATALOGUE_BREED)
+                .queryParam("size", 10)
+                .when()
+                .get(BASE_URI + "/catalogue")
+                .then()
+                .body("next", equalTo(ids.get(9)));
+    }
+
+    @Test
+    @Order(7)
+    public void testGetCatalogueNextPage() {
+        seedCatalogue();
+
+        Integer next = given()
+                .header("Authorization", "Bearer " + getAdminToken())
+                .queryParam("breed", CATALOGUE_BREED)
+                .queryParam("size", 10)
+                .when()
+                .get(BASE_URI + "/catalogue")
+                .then()
+                .statusCode(200)
+                .extract()
+                .path("next");
+
+        given()
+                .header("Authorization", "Bearer " + getAdminToken())
+                .queryParam("breed", CATALOGUE_BREED)
+                .queryParam("size", 10)
+                .queryParam("after", next)
+                .when()
+                .get(BASE_URI + "/catalogue")
+                .then()
+                .statusCode(200)
+                .body("content.size()", equalTo(10))
+                .body("content.code", contains("CAT-11", "CAT-12", "CAT-13", "CAT-14", "CAT-15", "CAT-16", "CAT-17", "CAT-18", "CAT-19", "CAT-20"))
+                .body("content.id", everyItem(greaterThan(next)));
+    }
+
+    @Test
+    @Order(7)
+    public void testGetCatalogueLastPage() {
+        seedCatalogue();
+
+        Integer next = given()
+                .header("Authorization", "Bearer " + getAdminToken())
+                .queryParam("breed", CATALOGUE_BREED)
+                .queryParam("size", 100)
+                .when()
+                .get(BASE_URI + "/catalogue")
+                .then()
+                .statusCode(200)
+                .body("content.size()", equalTo(100))
+                .body("next", notNullValue())
+                .extract()
+                .path("next");
+
+        given()
+                .header("Authorization", "Bearer " + getAdminToken())
+                .queryParam("breed", CATALOGUE_BREED)
+                .queryParam("size", 100)
+                .queryParam("after", next)
+                .when()
+                .get(BASE_URI + "/catalogue")
+                .then()
+                .statusCode(200)
+                .body("content.size()", equalTo(CATALOGUE_ANIMALS - 100))
+                .body("content[-1].code", equalTo("CAT-" + CATALOGUE_ANIMALS))
+                .body("next", nullValue());
+    }
+
+    @ParameterizedTest
+    @Order(7)
+    @CsvSource({
+            "gender, FEMALE, 75",
+            "vaccinated, true, 75",
+            "castrated, true, 50",
+            "wormed, true, 37",
+            "isAvailable, false, 30",
+            "hasBeenAdopted, true, 30"
+    })
+    public void testGetCatalogueFiltered(String filter, String value, int expectedCount) {
+        seedCatalogue();
+
+        given()
+                .header("Authorization", "Bearer " + getAdminToken())
+                .queryParam("breed", CATALOGUE_BREED)
+                .queryParam(filter, value)
+                .queryParam("size", 100)
+                .when()
+                .get(BASE_URI + "/catalogue")
+                .then()
+                .statusCode(200)
+                .body("content.size()", equalTo(expectedCount))
+                .body("content." + filter, everyItem(hasToString(value)))
+                .body("next", nullValue());
+    }
+
+    @Test
+    @Order(7)
+    public void testGetCatalogueFilteredByBreedIgnoringCase() {
+        seedCatalogue();
+
+        given()
+                .header("Authorization", "Bearer " + getAdminToken())
+                .queryParam("breed", CATALOGUE_BREED.toUpperCase())
+                .queryParam("size", 100)
+                .when()
+                .get(BASE_URI + "/catalogue")
+                .then()
+                .statusCode(200)
+                .body("content.size()", equalTo(100))
+                .body("content.breed", everyItem(equalTo(CATALOGUE_BREED)));
+    }
+
+    @Test
+    @Order(7)
+    public void testGetCataloguePageSizeIsCapped() {
+        seedCatalogue();
+
+        given()
+                .header("Authorization", "Bearer " + getAdminToken())
+                .queryParam("breed", CATALOGUE_BREED)
+                .queryParam("size", 1000)
+                .when()
+                .get(BASE_URI + "/catalogue")
+                .then()
+                .statusCode(200)
+                .body("content.size()", equalTo(100))
+                .body("next", notNullValue());
+    }
+
+    /**
+     * Inserts the catalogue animals, in code order, with every combination of filters spread over them.
+     */
+    /**
+     * Records whether the variants of the photo of the animal are stored, once the background generation of its
+     * variants is done, so the generation cannot overwrite it.
+     */
+    private void setImageVariantsStored(Long animalId, boolean stored) {
+        String imageName = """
+                (SELECT substring(image_url from '[^/]+$') FROM animals WHERE id = :id)""";
+        Mono.defer(() -> databaseClient.sql("SELECT variants_stored FROM blob_refs WHERE name = " + imageName)
+                        .bind("id", animalId)
+                        .map(row -> row.get("variants_stored", Boolean.class))
+                        .one())
+                .filter(Boolean::booleanValue)
+                .repeatWhenEmpty(50, attempts -> attempts.delayElements(Duration.ofMillis(200)))
+                .onErrorComplete()
+                .then(databaseClient.sql("UPDATE blob_refs SET variants_stored = :stored WHERE name = " + imageName)
+                        .bind("stored", stored)
+                        .bind("id", animalId)
+                        .then())
+                .block();
+    }
+
+    private void seedCatalogue() {
+        databaseClient.sql("""
+                        insert into animals (code, name, breed, gender, age, vaccinated, castrated, wormed, is_available, has_been_adopted)
+                        select 'CAT-' || n, 'CAT-' || n, :breed, case when n % 2 = 0 then 'FEMALE' else 'MALE' end, '3',
+                               n % 2 = 1, n % 3 = 0, n % 4 = 0, n % 5 <> 0, n % 5 = 0
+                        from generate_series(1, :count) n
+                        order by n""")
+                .bind("breed", CATALOGUE_BREED)
+                .bind("count", CATALOGUE_ANIMALS)
+                .then()
+                .block();
+    }
 }
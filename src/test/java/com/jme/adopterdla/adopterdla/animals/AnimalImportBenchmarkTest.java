@@ -0,0 +1,167 @@
+package com.jme.adopterdla.adopterdla.animals;
+
+import com.jme.adopterdla.adopterdla.AbstractUtilsBaseTest;
+import com.jme.adopterdla.adopterdla.animals.dto.AnimalDTO;
+import com.jme.adopterdla.adopterdla.animals.dto.AnimalImportResultDTO;
+import com.jme.adopterdla.adopterdla.animals.enums.Gender;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput benchmark of {@code POST /api/animals/import}, importing the same rows as NDJSON and as CSV, against
+ * creating the animals one request at a time.
+ * <p>
+ * The rates are logged, as they depend on the machine; only the import beating the baseline is asserted. The number of
+ * rows can be changed with {@code -Dbenchmark.import-rows=<n>}; the one by one baseline only creates a tenth of them.
+ * <p>
+ * Not part of the default build; run it with {@code mvn test -Pload-test -Dtest=AnimalImportBenchmarkTest}.
+ */
+@Tag("load-test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+// Web TRACE logging would print every row
+@TestPropertySource(properties = "logging.level.org.springframework.web=INFO")
+@Log4j2
+public class AnimalImportBenchmarkTest extends AbstractUtilsBaseTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.import-rows", 10_000);
+
+    private final WebClient webClient = WebClient.builder()
+            .baseUrl("http://localhost:8080/api")
+            .build();
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @AfterEach
+    public void tearDown() {
+        databaseClient.sql("delete from animals where name like 'IMPORT-%'")
+                .then()
+                .block();
+    }
+
+    @Test
+    public void givenLargeFile_whenImportedInEachFormat_thenEveryRowIsInsertedFasterThanOneByOne() {
+        String ndjson = IntStream.rangeClosed(1, ROWS)
+                .mapToObj(n -> """
+                        {"name":"IMPORT-%d","breed":"Mixed","age":"3","gender":"MALE","vaccinated":true,"notes":"Friendly and calm."}
+                        """.formatted(n))
+                .collect(Collectors.joining());
+        String csv = IntStream.rangeClosed(1, ROWS)
+                .mapToObj(n -> "IMPORT-%d,Mixed,3,FEMALE,true,Friendly and calm.\n".formatted(n))
+                .collect(Collectors.joining("", "name,breed,age,gender,vaccinated,notes\n", ""));
+
+        double ndjsonRate = rowsPerSecond(ROWS, () -> assertImported(importRows(ndjson, MediaType.APPLICATION_NDJSON), ROWS));
+        double csvRate = rowsPerSecond(ROWS, () -> assertImported(importRows(csv, MediaType.parseMediaType("text/csv")), ROWS));
+
+        int baselineRows = Math.max(1, ROWS / 10);
+        double oneByOneRate = rowsPerSecond(baselineRows, () -> Flux.range(1, baselineRows)
+                .concatMap(n -> webClient.post().uri("/animals")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + getAdminToken())
+                        .bodyValue(AnimalDTO.builder().name("IMPORT-ONE-" + n).breed("Mixed").age("3").gender(Gender.MALE)
+                                .vaccinated(true).castrated(false).wormed(false).isAvailable(true).hasBeenAdopted(false)
+                                .notes("Friendly and calm.").build())
+                        .retrieve()
+                        .toBodilessEntity())
+                .then()
+                .block());
+
+        log.info("Importing {} animals: NDJSON {} rows/s, CSV {} rows/s, one request per animal {} rows/s",
+                ROWS, Math.round(ndjsonRate), Math.round(csvRate), Math.round(oneByOneRate));
+        assertThat(ndjsonRate).isGreaterThan(oneByOneRate);
+    }
+
+    @Test
+    public void givenRowsWithPhotoArchive_whenImported_thenPhotosAreStoredAndInvalidRowsRejected() throws IOException {
+        String csv = """
+                name,age,gender,imageFile
+                IMPORT-PHOTO-1,2,MALE,fido.jpeg
+                IMPORT-PHOTO-2,4,FEMALE,missing.jpeg
+                IMPORT-PHOTO-3,1,,
+                """;
+        MultipartBodyBuilder body = new MultipartBodyBuilder();
+        body.part("animals", new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8)))
+                .filename("animals.csv")
+                .contentType(MediaType.parseMediaType("text/csv"));
+        body.part("images", new ByteArrayResource(zip("fido.jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, 1, 2, 3})))
+                .filename("photos.zip")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM);
+
+        List<AnimalImportResultDTO> results = webClient.post().uri("/animals/import")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + getAdminToken())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .body(BodyInserters.fromMultipartData(body.build()))
+                .retrieve()
+                .bodyToFlux(AnimalImportResultDTO.class)
+                .collectList()
+                .block();
+
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).id()).isNotNull();
+        assertThat(results.get(1).error()).isEqualTo("Image missing.jpeg not found in the archive");
+        assertThat(results.get(2).error()).isEqualTo("Missing gender");
+
+        AnimalDTO imported = webClient.get().uri("/animals/{id}", results.get(0).id())
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + getAdminToken())
+                .retrieve()
+                .bodyToMono(AnimalDTO.class)
+                .block();
+        assertThat(imported.code()).isEqualTo(results.get(0).code());
+        assertThat(imported.imageUrl()).endsWith(".jpeg");
+    }
+
+    private List<AnimalImportResultDTO> importRows(String content, MediaType format) {
+        return webClient.post().uri("/animals/import")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + getAdminToken())
+                .contentType(format)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(content)
+                .retrieve()
+                .bodyToFlux(AnimalImportResultDTO.class)
+                .collectList()
+                .block();
+    }
+
+    private static void assertImported(List<AnimalImportResultDTO> results, int rows) {
+        assertThat(results).hasSize(rows).allSatisfy(result -> assertThat(result.error()).isNull());
+    }
+
+    private static double rowsPerSecond(int rows, Runnable run) {
+        long start = System.nanoTime();
+        run.run();
+        return rows * 1e9 / (System.nanoTime() - start);
+    }
+
+    private static byte[] zip(String name, byte[] content) throws IOException {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            zip.putNextEntry(new ZipEntry(name));
+            zip.write(content);
+            zip.closeEntry();
+        }
+        return archive.toByteArray();
+    }
+}
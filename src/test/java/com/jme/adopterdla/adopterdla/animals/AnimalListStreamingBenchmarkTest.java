@@ -0,0 +1,123 @@
+package com.jme.adopterdla.adopterdla.animals;
+
+import com.jme.adopterdla.adopterdla.AbstractUtilsBaseTest;
+import com.jme.adopterdla.adopterdla.animals.dto.AnimalDTO;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Memory benchmark of {@code GET /api/animals} on a large dataset, comparing the peak heap used when the list is read
+ * as one JSON array with the NDJSON and Server-Sent Events variants, which are decoded one animal at a time.
+ * <p>
+ * Server and client share the JVM, so the peaks cover both sides of the transfer. They are logged rather than
+ * asserted, as they depend on the collector and heap size. The number of rows can be lowered with
+ * {@code -Dbenchmark.rows=<n>} for quick local runs.
+ * <p>
+ * Seeding the dataset takes a while, so the benchmark is left out of the default build; run it with
+ * {@code mvn test -Pload-test -Dtest=AnimalListStreamingBenchmarkTest}.
+ */
+@Tag("load-test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+// Web TRACE logging would print every animal
+@TestPropertySource(properties = "logging.level.org.springframework.web=INFO")
+@Log4j2
+public class AnimalListStreamingBenchmarkTest extends AbstractUtilsBaseTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 100_000);
+
+    private final WebClient webClient = WebClient.builder()
+            .baseUrl("http://localhost:8080/api")
+            // The array has to be held whole to be read as a list
+            .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(-1))
+            .build();
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    public void setUp() {
+        databaseClient.sql("""
+                        insert into animals (code, name, gender, age, vaccinated, castrated, wormed, is_available, breed, notes)
+                        select 'BENCH-' || n, 'Animal ' || n, 'MALE', '3', true, false, true, n % 2 = 0,
+                               'Mixed', repeat('Friendly and calm. ', 5)
+                        from generate_series(1, :rows) as n""")
+                .bind("rows", ROWS)
+                .then()
+                .block();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        databaseClient.sql("delete from animals where code like 'BENCH-%'")
+                .then()
+                .then(databaseClient.sql("select setval('animals_id_seq', coalesce(max(id), 0) + 1, false) from animals")
+                        .then())
+                .block();
+    }
+
+    @Test
+    public void givenLargeDataset_whenListedInEachMode_thenEveryAnimalIsReceived() {
+        long arrayPeak = peakHeap(() -> request(MediaType.APPLICATION_JSON)
+                .bodyToMono(new ParameterizedTypeReference<List<AnimalDTO>>() {
+                })
+                .map(List::size)
+                .block());
+        long ndjsonPeak = peakHeap(() -> request(MediaType.APPLICATION_NDJSON)
+                .bodyToFlux(AnimalDTO.class)
+                .count()
+                .map(Long::intValue)
+                .block());
+        long ssePeak = peakHeap(() -> request(MediaType.TEXT_EVENT_STREAM)
+                .bodyToFlux(AnimalDTO.class)
+                .count()
+                .map(Long::intValue)
+                .block());
+
+        log.info("Peak heap listing {} animals: JSON array {} MiB, NDJSON {} MiB, Server-Sent Events {} MiB",
+                ROWS, arrayPeak >> 20, ndjsonPeak >> 20, ssePeak >> 20);
+    }
+
+    private WebClient.ResponseSpec request(MediaType mediaType) {
+        return webClient.get().uri("/animals")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + getAdminToken())
+                .accept(mediaType)
+                .retrieve();
+    }
+
+    /**
+     * Runs the listing and returns the peak heap it used above the heap left after a collection.
+     */
+    private long peakHeap(Supplier<Integer> listing) {
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        System.gc();
+        long baseline = heapPools.stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        // Other tests may have left a few animals behind
+        assertThat(listing.get()).isGreaterThanOrEqualTo(ROWS);
+
+        long peak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        return Math.max(0, peak - baseline);
+    }
+}
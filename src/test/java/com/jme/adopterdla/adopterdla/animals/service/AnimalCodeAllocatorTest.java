@@ -0,0 +1,74 @@
+package com.jme.adopterdla.adopterdla.animals.service;
+
+import com.jme.adopterdla.adopterdla.animals.repository.AnimalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AnimalCodeAllocatorTest {
+
+    private static final long BLOCK_SIZE = 50;
+
+    private final AnimalRepository animalRepository = mock(AnimalRepository.class);
+
+    private final AtomicLong sequence = new AtomicLong(10_000);
+
+    private final AtomicLong reservations = new AtomicLong();
+
+    private final AnimalCodeAllocator allocator = new AnimalCodeAllocator(animalRepository);
+
+    @BeforeEach
+    public void setUp() {
+        // Mimic animal_code_seq, with a delay so concurrent callers exhaust a block while the next one is reserved
+        when(animalRepository.reserveCodeBlock()).thenAnswer(invocation -> Mono.fromSupplier(() -> {
+            reservations.incrementAndGet();
+            return sequence.getAndAdd(BLOCK_SIZE);
+        }).delayElement(Duration.ofMillis(5)));
+        when(animalRepository.findCodeBlockSize()).thenReturn(Mono.just(BLOCK_SIZE));
+    }
+
+    @Test
+    public void givenSequentialRequests_whenCodesAreAllocated_thenTheyFollowEachOtherAcrossBlocks() {
+        List<String> codes = Flux.range(0, 120).concatMap(i -> allocator.nextCode()).collectList().block();
+
+        assertThat(codes).first().isEqualTo("10000");
+        assertThat(codes).last().isEqualTo("10119");
+        assertThat(reservations).hasValue(3);
+    }
+
+    @Test
+    public void givenConcurrentRequests_whenCodesAreAllocated_thenEveryCodeIsUniqueAndBlocksAreNotWasted() {
+        int requests = 10_000;
+
+        List<String> codes = Flux.range(0, requests)
+                .parallel(8)
+                .runOn(Schedulers.parallel())
+                .flatMap(i -> allocator.nextCode(), false, 16)
+                .sequential()
+                .collectList()
+                .block();
+
+        assertThat(codes).hasSize(requests).doesNotHaveDuplicates();
+        assertThat(reservations).hasValue(requests / BLOCK_SIZE);
+    }
+
+    @Test
+    public void givenFailedReservation_whenCodeIsRequestedAgain_thenANewBlockIsReserved() {
+        when(animalRepository.reserveCodeBlock())
+                .thenReturn(Mono.error(new IllegalStateException("Database down")))
+                .thenReturn(Mono.just(10_000L));
+
+        assertThat(allocator.nextCode().onErrorReturn("failed").block()).isEqualTo("failed");
+        assertThat(allocator.nextCode().block()).isEqualTo("10000");
+    }
+}
@@ -0,0 +1,205 @@
+package com.jme.adopterdla.adopterdla.animals.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jme.adopterdla.adopterdla.animals.dto.AnimalImportResultDTO;
+import com.jme.adopterdla.adopterdla.animals.mapper.AnimalMapper;
+import com.jme.adopterdla.adopterdla.common.utils.AzurePersistImageUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AnimalImportServiceTest {
+
+    private final DatabaseClient databaseClient = mock(DatabaseClient.class);
+    private final DatabaseClient.GenericExecuteSpec insertSpec = mock(DatabaseClient.GenericExecuteSpec.class);
+    private final TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+    private final AzurePersistImageUtils azurePersistImageUtils = mock(AzurePersistImageUtils.class);
+    private final AnimalCodeAllocator animalCodeAllocator = mock(AnimalCodeAllocator.class);
+    private final AvailableAnimalsCache availableAnimalsCache = mock(AvailableAnimalsCache.class);
+
+    private final List<String> statements = new ArrayList<>();
+    private final Map<String, Object> binds = new TreeMap<>();
+    private final AtomicLong codes = new AtomicLong();
+    private final AtomicLong ids = new AtomicLong();
+
+    private final AnimalImportService importService = new AnimalImportService(databaseClient, transactionalOperator,
+            new ObjectMapper(), Mappers.getMapper(AnimalMapper.class), azurePersistImageUtils, animalCodeAllocator,
+            availableAnimalsCache, 2, 4, DataSize.ofMegabytes(1));
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        when(transactionalOperator.transactional(any(Flux.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(azurePersistImageUtils.releaseImage(anyString())).thenReturn(Mono.empty());
+        when(animalCodeAllocator.nextCode()).thenAnswer(invocation -> Mono.fromSupplier(() -> "C" + codes.incrementAndGet()));
+        when(databaseClient.sql(anyString())).thenAnswer(invocation -> {
+            statements.add(invocation.getArgument(0));
+            return insertSpec;
+        });
+        when(insertSpec.bind(anyString(), any())).thenAnswer(invocation -> {
+            binds.put(invocation.getArgument(0), invocation.getArgument(1));
+            return insertSpec;
+        });
+        when(insertSpec.bindNull(anyString(), any())).thenAnswer(invocation -> {
+            binds.put(invocation.getArgument(0), null);
+            return insertSpec;
+        });
+        when(insertSpec.map(any(Function.class))).thenAnswer(invocation -> {
+            // Mimic "returning id, code" with the codes bound to the last statement
+            List<Map.Entry<String, Long>> inserted = binds.entrySet().stream()
+                    .filter(bind -> bind.getKey().startsWith("code") && bind.getValue() != null)
+                    .map(bind -> Map.entry((String) bind.getValue(), ids.incrementAndGet()))
+                    .toList();
+            binds.keySet().removeIf(name -> name.startsWith("code"));
+            RowsFetchSpec<Map.Entry<String, Long>> fetchSpec = mock(RowsFetchSpec.class);
+            when(fetchSpec.all()).thenReturn(Flux.fromIterable(inserted));
+            return fetchSpec;
+        });
+    }
+
+    @Test
+    public void givenNdjsonRows_whenImported_thenValidRowsAreInsertedInBatchesAndInvalidOnesRejected() {
+        String ndjson = """
+                {"name":"Fido","age":"2","gender":"MALE","vaccinated":true}
+                {"name":"Luna","age":"1"
+                {"name":"Kira","age":"3"}
+
+                {"name":"Toby","age":"4","gender":"MALE"}
+                """;
+
+        List<AnimalImportResultDTO> results = importService.importAnimals(chunked(ndjson), MediaType.APPLICATION_NDJSON, null)
+                .collectList()
+                .block();
+
+        assertThat(results).hasSize(4);
+        assertThat(results.get(0)).isEqualTo(AnimalImportResultDTO.imported(1, 1L, "C1"));
+        assertThat(results.get(1).line()).isEqualTo(2L);
+        assertThat(results.get(1).error()).startsWith("Invalid row");
+        assertThat(results.get(2)).isEqualTo(AnimalImportResultDTO.rejected(3, "Missing gender"));
+        assertThat(results.get(3)).isEqualTo(AnimalImportResultDTO.imported(5, 2L, "C2"));
+        // Two batches of two rows, each with a single multi-row insert of its valid rows
+        assertThat(statements).hasSize(2);
+        assertThat(statements.get(0)).startsWith("insert into animals (code, name").contains(":name0").doesNotContain(":name1");
+        verify(availableAnimalsCache).invalidate();
+    }
+
+    @Test
+    public void givenCsvRows_whenImported_thenColumnsAreReadFromTheHeaderAndDefaultsApplied() {
+        String csv = """
+                gender,name,age,notes,vaccinated,isAvailable
+                FEMALE,Luna,1,"Shy, but friendly",,false
+                MALE,Rex,5,,true,
+                """;
+
+        List<AnimalImportResultDTO> results = importService.importAnimals(chunked(csv), MediaType.parseMediaType("text/csv"), null)
+                .collectList()
+                .block();
+
+        assertThat(results).containsExactly(AnimalImportResultDTO.imported(2, 1L, "C1"), AnimalImportResultDTO.imported(3, 2L, "C2"));
+        assertThat(binds)
+                .containsEntry("name0", "Luna")
+                .containsEntry("gender0", "FEMALE")
+                .containsEntry("notes0", "Shy, but friendly")
+                .containsEntry("vaccinated0", false)
+                .containsEntry("is_available0", false)
+                .containsEntry("has_been_adopted0", false)
+                .containsEntry("notes1", null)
+                .containsEntry("vaccinated1", true)
+                .containsEntry("is_available1", true)
+                .containsEntry("image_url1", null);
+    }
+
+    @Test
+    public void givenRowWithInlinePhoto_whenImported_thenThePhotoIsStoredAndMissingArchiveEntriesRejected() {
+        when(azurePersistImageUtils.saveImageData(eq("aW1hZ2U="))).thenReturn(Mono.just("https://blobs/fido.jpeg"));
+        String ndjson = """
+                {"name":"Fido","age":"2","gender":"MALE","imageBase64":"aW1hZ2U="}
+                {"name":"Rex","age":"5","gender":"MALE","imageFile":"rex.png"}
+                """;
+
+        List<AnimalImportResultDTO> results = importService.importAnimals(chunked(ndjson), MediaType.APPLICATION_NDJSON, null)
+                .collectList()
+                .block();
+
+        assertThat(results).containsExactly(AnimalImportResultDTO.imported(1, 1L, "C1"),
+                AnimalImportResultDTO.rejected(2, "Image rex.png not found in the archive"));
+        assertThat(binds).containsEntry("image_url0", "https://blobs/fido.jpeg");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void givenFailedInsert_whenImported_thenTheStreamEndsWithARollback() {
+        when(insertSpec.map(any(Function.class))).thenAnswer(invocation -> {
+            RowsFetchSpec<Object> fetchSpec = mock(RowsFetchSpec.class);
+            when(fetchSpec.all()).thenReturn(Flux.error(new IllegalStateException("Database down")));
+            return fetchSpec;
+        });
+
+        List<AnimalImportResultDTO> results = importService.importAnimals(
+                        chunked("{\"name\":\"Fido\",\"age\":\"2\",\"gender\":\"MALE\"}\n"), MediaType.APPLICATION_NDJSON, null)
+                .collectList()
+                .block();
+
+        assertThat(results).containsExactly(AnimalImportResultDTO.rolledBack("Import rolled back, no animal was kept: Database down"));
+        verify(availableAnimalsCache, never()).invalidate();
+        verify(azurePersistImageUtils, never()).releaseImage(anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void givenFailedInsertAfterPhotoStored_whenImported_thenThePhotoIsReleased() {
+        when(azurePersistImageUtils.saveImageData(eq("aW1hZ2U="))).thenReturn(Mono.just("https://blobs/fido.jpeg"));
+        when(insertSpec.map(any(Function.class))).thenAnswer(invocation -> {
+            RowsFetchSpec<Object> fetchSpec = mock(RowsFetchSpec.class);
+            when(fetchSpec.all()).thenReturn(Flux.error(new IllegalStateException("Database down")));
+            return fetchSpec;
+        });
+
+        List<AnimalImportResultDTO> results = importService.importAnimals(
+                        chunked("{\"name\":\"Fido\",\"age\":\"2\",\"gender\":\"MALE\",\"imageBase64\":\"aW1hZ2U=\"}\n"),
+                        MediaType.APPLICATION_NDJSON, null)
+                .collectList()
+                .block();
+
+        assertThat(results).containsExactly(AnimalImportResultDTO.rolledBack("Import rolled back, no animal was kept: Database down"));
+        verify(azurePersistImageUtils).releaseImage("https://blobs/fido.jpeg");
+    }
+
+    /**
+     * Splits the content in small buffers, so rows arrive across several of them as they would over the network.
+     */
+    private static Flux<DataBuffer> chunked(String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return Flux.range(0, (bytes.length + 15) / 16)
+                .map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(bytes, chunk * 16, Math.min(16, bytes.length - chunk * 16))))
+                .cast(DataBuffer.class);
+    }
+}
@@ -0,0 +1,96 @@
+package com.jme.adopterdla.adopterdla.animals.service;
+
+import com.jme.adopterdla.adopterdla.animals.dto.AnimalDTO;
+import com.jme.adopterdla.adopterdla.animals.entity.Animal;
+import com.jme.adopterdla.adopterdla.animals.mapper.AnimalMapper;
+import com.jme.adopterdla.adopterdla.animals.repository.AnimalCatalogueRepository;
+import com.jme.adopterdla.adopterdla.animals.repository.AnimalRepository;
+import com.jme.adopterdla.adopterdla.common.utils.AzurePersistImageUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AnimalServiceTest {
+
+    private static final String NEW_IMAGE_URL = "https://blobs/new.png";
+    private static final String PREVIOUS_IMAGE_URL = "https://blobs/previous.png";
+
+    private final AnimalRepository animalRepository = mock(AnimalRepository.class);
+    private final AzurePersistImageUtils azurePersistImageUtils = mock(AzurePersistImageUtils.class);
+    private final TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+
+    private final AnimalService animalService = new AnimalService(animalRepository, mock(AnimalCatalogueRepository.class), Mappers.getMapper(AnimalMapper.class),
+            azurePersistImageUtils, mock(AvailableAnimalsCache.class), mock(AnimalCodeAllocator.class), transactionalOperator);
+
+    private final FilePart photo = mock(FilePart.class);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(photo.filename()).thenReturn("photo.png");
+        when(photo.content()).thenReturn(Flux.just((DataBuffer) DefaultDataBufferFactory.sharedInstance.wrap(new byte[]{1})));
+        when(azurePersistImageUtils.getExtensionByStringHandling("photo.png")).thenReturn(Optional.of("png"));
+        when(azurePersistImageUtils.saveImageData(any(Flux.class), eq("png"))).thenReturn(Mono.just(NEW_IMAGE_URL));
+        when(azurePersistImageUtils.releaseImage(anyString())).thenReturn(Mono.empty());
+        when(azurePersistImageUtils.findImagesWithVariants(anyCollection())).thenReturn(Mono.just(Set.of()));
+    }
+
+    @Test
+    public void givenMissingAnimal_whenUpdatedWithPhoto_thenNotFoundAndTheUploadedPhotoIsReleased() {
+        when(animalRepository.findById(1L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(animalService.updateAnimal(1L, AnimalDTO.builder().name("Fido").build(), photo))
+                .expectErrorSatisfies(e -> assertThat(((ResponseStatusException) e).getStatusCode())
+                        .isEqualTo(HttpStatus.NOT_FOUND))
+                .verify();
+        verify(azurePersistImageUtils).releaseImage(NEW_IMAGE_URL);
+    }
+
+    @Test
+    public void givenExistingAnimal_whenUpdatedWithPhoto_thenOnlyThePreviousPhotoIsReleased() {
+        Animal animal = new Animal();
+        animal.setId(1L);
+        animal.setImageUrl(PREVIOUS_IMAGE_URL);
+        when(animalRepository.findById(1L)).thenReturn(Mono.just(animal));
+        when(animalRepository.save(any(Animal.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(animalService.updateAnimal(1L, AnimalDTO.builder().name("Fido").build(), photo))
+                .assertNext(updated -> assertThat(updated.imageUrl()).isEqualTo(NEW_IMAGE_URL))
+                .verifyComplete();
+        verify(azurePersistImageUtils).releaseImage(PREVIOUS_IMAGE_URL);
+        verify(azurePersistImageUtils, never()).releaseImage(NEW_IMAGE_URL);
+    }
+
+    @Test
+    public void givenFailedSave_whenUpdatedWithPhoto_thenTheUploadedPhotoIsReleased() {
+        when(animalRepository.findById(1L)).thenReturn(Mono.just(new Animal()));
+        when(animalRepository.save(any(Animal.class))).thenReturn(Mono.error(new IllegalStateException("Connection lost")));
+
+        StepVerifier.create(animalService.updateAnimal(1L, AnimalDTO.builder().name("Fido").build(), photo))
+                .verifyError(IllegalStateException.class);
+        verify(azurePersistImageUtils).releaseImage(NEW_IMAGE_URL);
+    }
+}
@@ -0,0 +1,82 @@
+package com.jme.adopterdla.adopterdla.animals.service;
+
+import com.jme.adopterdla.adopterdla.animals.dto.AnimalNameAndIdDTO;
+import com.jme.adopterdla.adopterdla.animals.repository.AnimalRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AvailableAnimalsCacheTest {
+
+    private final AnimalRepository animalRepository = mock(AnimalRepository.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private AvailableAnimalsCache cache = new AvailableAnimalsCache(animalRepository, meterRegistry, Duration.ofMinutes(10));
+
+    @BeforeEach
+    public void setUp() {
+        when(animalRepository.findNameAndIdByIsAvailable()).thenAnswer(invocation -> Flux.defer(() ->
+                Flux.just(new AnimalNameAndIdDTO("Fido - " + loads.incrementAndGet(), 1L))));
+    }
+
+    @Test
+    public void givenLoadedSnapshot_whenRequestedAgain_thenTheSameImmutableListIsServedWithoutQuery() {
+        Mono<List<AnimalNameAndIdDTO>> first = cache.get();
+        List<AnimalNameAndIdDTO> animals = first.block();
+
+        assertThat(cache.get()).isSameAs(first);
+        assertThat(cache.get().block()).isSameAs(animals);
+        assertThat(loads).hasValue(1);
+        assertThatThrownBy(() -> animals.add(new AnimalNameAndIdDTO("Rex", 2L))).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(count("hit")).isEqualTo(2);
+        assertThat(count("miss")).isEqualTo(1);
+    }
+
+    @Test
+    public void givenInvalidatedSnapshot_whenRequested_thenItIsReloaded() {
+        cache.get().block();
+
+        cache.invalidate();
+
+        assertThat(cache.get().block()).containsExactly(new AnimalNameAndIdDTO("Fido - 2", 1L));
+        assertThat(count("miss")).isEqualTo(2);
+    }
+
+    @Test
+    public void givenExpiredSnapshot_whenRequested_thenItIsReloaded() {
+        cache = new AvailableAnimalsCache(animalRepository, meterRegistry, Duration.ZERO);
+        cache.get().block();
+
+        cache.get().block();
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    public void givenFailedLoad_whenRequestedAgain_thenItIsRetried() {
+        when(animalRepository.findNameAndIdByIsAvailable())
+                .thenReturn(Flux.error(new IllegalStateException("Database down")))
+                .thenReturn(Flux.just(new AnimalNameAndIdDTO("Fido", 1L)));
+
+        assertThatThrownBy(() -> cache.get().block()).hasMessage("Database down");
+        assertThat(cache.get().block()).containsExactly(new AnimalNameAndIdDTO("Fido", 1L));
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("animals.names-ids.cache").tag("result", result).counter().count();
+    }
+}
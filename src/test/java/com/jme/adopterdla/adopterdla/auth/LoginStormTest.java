@@ -0,0 +1,93 @@
+package com.jme.adopterdla.adopterdla.auth;
+
+import com.jme.adopterdla.adopterdla.AbstractUtilsBaseTest;
+import com.jme.adopterdla.adopterdla.auth.dto.LoginRequest;
+import com.jme.adopterdla.adopterdla.user.entity.User;
+import com.jme.adopterdla.adopterdla.user.repository.UserRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test checking that a burst of logins, each running a BCrypt hash, does not slow down unrelated requests.
+ * <p>
+ * Its p99 assertion measures wall-clock latency, which a busy machine can break, so it only runs with
+ * {@code mvn test -Pload-test -Dtest=LoginStormTest}.
+ */
+@Tag("load-test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+public class LoginStormTest extends AbstractUtilsBaseTest {
+
+    private static final int PROBES = 200;
+    private static final int LOGINS = 1_000;
+    private static final int LOGIN_CONCURRENCY = 200;
+
+    private final WebClient webClient = WebClient.create("http://localhost:8080/api");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    public void givenLoginStorm_whenProbingUnrelatedEndpoint_thenP99LatencyStaysFlat() {
+        userRepository.save(new User("storm", "storm@adopterdla.com", "Storm", passwordEncoder.encode("password"),
+                List.of("ROLE_USER"))).block();
+
+        long baselineP99 = p99(probe());
+
+        Set<HttpStatus> loginStatuses = ConcurrentHashMap.newKeySet();
+        Disposable storm = Flux.range(0, LOGINS)
+                .flatMap(i -> webClient.post().uri("/auth/login")
+                        .bodyValue(new LoginRequest("storm", "password"))
+                        .exchangeToMono(response -> response.releaseBody()
+                                .thenReturn(HttpStatus.valueOf(response.statusCode().value()))), LOGIN_CONCURRENCY)
+                .subscribe(loginStatuses::add);
+        long stormP99;
+        try {
+            stormP99 = p99(probe());
+        } finally {
+            storm.dispose();
+        }
+
+        // Hashes either complete or are rejected quickly, never failing with a server error
+        assertThat(loginStatuses).isSubsetOf(HttpStatus.OK, HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(stormP99).isLessThan(Math.max(3 * baselineP99, baselineP99 + 50_000_000L));
+    }
+
+    private List<Long> probe() {
+        List<Long> latencies = new ArrayList<>();
+        for (int i = 0; i < PROBES; i++) {
+            long start = System.nanoTime();
+            webClient.get().uri("/animals/names-ids")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + getAdminToken())
+                    .retrieve()
+                    .toBodilessEntity()
+                    .block();
+            latencies.add(System.nanoTime() - start);
+        }
+        return latencies;
+    }
+
+    private long p99(List<Long> latencies) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+    }
+}
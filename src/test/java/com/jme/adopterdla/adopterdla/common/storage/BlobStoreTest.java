@@ -0,0 +1,121 @@
+package com.jme.adopterdla.adopterdla.common.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BlobStoreTest {
+
+    @TempDir
+    static Path rootDirectory;
+
+    static Stream<BlobStore> blobStores() {
+        return Stream.of(new InMemoryBlobStore(), new LocalFileSystemBlobStore(rootDirectory));
+    }
+
+    @ParameterizedTest
+    @MethodSource("blobStores")
+    public void givenStoredBlob_whenRead_thenContentIsReturned(BlobStore blobStore) {
+        byte[] content = randomContent(200_000);
+
+        String url = blobStore.put("stored.jpeg", chunked(content)).block();
+
+        assertThat(blobStore.nameOf(url)).isEqualTo("stored.jpeg");
+        StepVerifier.create(blobStore.exists("stored.jpeg")).expectNext(true).verifyComplete();
+        StepVerifier.create(DataBufferUtils.join(blobStore.get("stored.jpeg")).map(this::toBytes))
+                .assertNext(read -> assertThat(read).isEqualTo(content))
+                .verifyComplete();
+    }
+
+    @ParameterizedTest
+    @MethodSource("blobStores")
+    public void givenStoredBlob_whenOverwritten_thenNewContentIsReturned(BlobStore blobStore) {
+        blobStore.put("overwritten.jpeg", chunked(randomContent(1_000))).block();
+        byte[] content = randomContent(10);
+
+        blobStore.put("overwritten.jpeg", chunked(content)).block();
+
+        StepVerifier.create(DataBufferUtils.join(blobStore.get("overwritten.jpeg")).map(this::toBytes))
+                .assertNext(read -> assertThat(read).isEqualTo(content))
+                .verifyComplete();
+    }
+
+    @ParameterizedTest
+    @MethodSource("blobStores")
+    public void givenStoredBlob_whenDeleted_thenItNoLongerExists(BlobStore blobStore) {
+        blobStore.put("deleted.jpeg", chunked(randomContent(10))).block();
+
+        StepVerifier.create(blobStore.delete("deleted.jpeg")).expectNext(true).verifyComplete();
+        StepVerifier.create(blobStore.delete("deleted.jpeg")).expectNext(false).verifyComplete();
+        StepVerifier.create(blobStore.exists("deleted.jpeg")).expectNext(false).verifyComplete();
+        StepVerifier.create(blobStore.get("deleted.jpeg")).expectError().verify();
+    }
+
+    @ParameterizedTest
+    @MethodSource("blobStores")
+    public void givenStoredBlob_whenMoved_thenItIsOnlyAvailableUnderTheNewName(BlobStore blobStore) {
+        byte[] content = randomContent(1_000);
+        blobStore.put("source.jpeg", chunked(content)).block();
+
+        String url = blobStore.move("source.jpeg", "target.jpeg").block();
+
+        assertThat(url).isEqualTo(blobStore.urlOf("target.jpeg"));
+        StepVerifier.create(blobStore.exists("source.jpeg")).expectNext(false).verifyComplete();
+        StepVerifier.create(DataBufferUtils.join(blobStore.get("target.jpeg")).map(this::toBytes))
+                .assertNext(read -> assertThat(read).isEqualTo(content))
+                .verifyComplete();
+    }
+
+    @ParameterizedTest
+    @MethodSource("blobStores")
+    public void givenMissingBlob_whenChecked_thenItDoesNotExist(BlobStore blobStore) {
+        StepVerifier.create(blobStore.exists("missing.jpeg")).expectNext(false).verifyComplete();
+    }
+
+    @Test
+    public void givenNameEscapingRootDirectory_whenStored_thenItIsRejected() throws IOException {
+        var blobStore = new LocalFileSystemBlobStore(rootDirectory);
+
+        StepVerifier.create(blobStore.put("../escaped.jpeg", chunked(randomContent(10))))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        try (var files = Files.list(rootDirectory)) {
+            assertThat(files).noneMatch(file -> file.getFileName().toString().endsWith(".tmp"));
+        }
+    }
+
+    private Flux<DataBuffer> chunked(byte[] content) {
+        int chunkSize = 8 * 1024;
+        return Flux.range(0, (content.length + chunkSize - 1) / chunkSize)
+                .map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(content, chunk * chunkSize,
+                        Math.min(chunkSize, content.length - chunk * chunkSize))));
+    }
+
+    private byte[] randomContent(int size) {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+
+    private byte[] toBytes(DataBuffer dataBuffer) {
+        byte[] bytes = new byte[dataBuffer.readableByteCount()];
+        dataBuffer.read(bytes);
+        DataBufferUtils.release(dataBuffer);
+        return bytes;
+    }
+}
@@ -0,0 +1,209 @@
+package com.jme.adopterdla.adopterdla.common.utils;
+
+import com.jme.adopterdla.adopterdla.common.entity.BlobReference;
+import com.jme.adopterdla.adopterdla.common.entity.repository.BlobDeletionRepository;
+import com.jme.adopterdla.adopterdla.common.entity.repository.BlobReferenceRepository;
+import com.jme.adopterdla.adopterdla.common.storage.InMemoryBlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AzurePersistImageUtilsTest {
+
+    private final InMemoryBlobStore blobStore = new InMemoryBlobStore();
+
+    private final Map<String, Integer> refCounts = new ConcurrentHashMap<>();
+
+    private final Set<String> storedBlobs = ConcurrentHashMap.newKeySet();
+
+    private final List<String> queuedDeletions = new CopyOnWriteArrayList<>();
+
+    private final BlobReferenceRepository blobReferenceRepository = mock(BlobReferenceRepository.class);
+
+    private final BlobDeletionRepository blobDeletionRepository = mock(BlobDeletionRepository.class);
+
+    private final AzurePersistImageUtils azurePersistImageUtils = new AzurePersistImageUtils(blobStore,
+            blobReferenceRepository, blobDeletionRepository, new ImageVariantGenerator(blobStore, blobReferenceRepository, 1, 10, 40_000_000));
+
+    @BeforeEach
+    public void setUp() {
+        // Mimic the reference counting queries on a map
+        when(blobReferenceRepository.increment(anyString())).thenAnswer(invocation -> Mono.fromCallable(() -> {
+            String name = invocation.getArgument(0);
+            return new BlobReference(name, refCounts.merge(name, 1, Integer::sum), storedBlobs.contains(name), false);
+        }));
+        when(blobReferenceRepository.markStored(anyString())).thenAnswer(invocation ->
+                Mono.fromCallable(() -> storedBlobs.add(invocation.getArgument(0)) ? 1 : 0));
+        when(blobReferenceRepository.markVariantsStored(anyString())).thenReturn(Mono.just(1));
+        when(blobReferenceRepository.decrement(anyString())).thenAnswer(invocation ->
+                Mono.fromCallable(() -> refCounts.computeIfPresent(invocation.getArgument(0),
+                        (name, refCount) -> refCount > 0 ? refCount - 1 : null)));
+        when(blobReferenceRepository.deleteUnreferenced(anyString())).thenAnswer(invocation ->
+                Mono.fromCallable(() -> refCounts.remove(invocation.getArgument(0), 0) ? 1 : 0));
+        when(blobDeletionRepository.enqueue(anyString())).thenAnswer(invocation ->
+                Mono.fromCallable(() -> queuedDeletions.add(invocation.getArgument(0)) ? 1 : 0));
+    }
+
+    @Test
+    public void givenLargeBase64Image_whenDecoded_thenChunksAreBoundedAndRebuildTheImage() {
+        byte[] image = randomImage(300_000);
+        String base64 = Base64.getEncoder().encodeToString(image);
+
+        StepVerifier.create(azurePersistImageUtils.decodeBase64(base64)
+                        .doOnNext(chunk -> assertThat(chunk.readableByteCount())
+                                .isLessThanOrEqualTo(AzurePersistImageUtils.BASE64_CHUNK_SIZE / 4 * 3))
+                        .as(DataBufferUtils::join)
+                        .map(this::toBytes))
+                .assertNext(decoded -> assertThat(decoded).isEqualTo(image))
+                .verifyComplete();
+    }
+
+    @Test
+    public void givenBase64Image_whenSaved_thenDecodedContentIsStored() {
+        byte[] image = randomImage(100_000);
+
+        String url = azurePersistImageUtils.saveImageData(Base64.getEncoder().encodeToString(image)).block();
+
+        assertThat(url).endsWith(".jpeg");
+        assertThat(read(url)).isEqualTo(image);
+    }
+
+    @Test
+    public void givenSameImageSavedTwice_whenSaved_thenBothShareOneContentAddressedBlob() {
+        String base64 = Base64.getEncoder().encodeToString(randomImage(100_000));
+
+        String firstUrl = azurePersistImageUtils.saveImageData(base64).block();
+        String secondUrl = azurePersistImageUtils.saveImageData(base64).block();
+
+        assertThat(secondUrl).isEqualTo(firstUrl);
+        assertThat(blobStore.nameOf(firstUrl)).matches("[0-9a-f]{64}\\.jpeg");
+        assertThat(refCounts).containsEntry(blobStore.nameOf(firstUrl), 2);
+    }
+
+    @Test
+    public void givenFailedFirstUpload_whenSavedAgain_thenTheImageIsStoredInsteadOfSkipped() {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        InMemoryBlobStore flakyStore = new InMemoryBlobStore() {
+            @Override
+            public Mono<String> put(String name, Flux<DataBuffer> content) {
+                return failing.getAndSet(false) ? Mono.error(new IOException("Storage unavailable")) : super.put(name, content);
+            }
+        };
+        AzurePersistImageUtils flakyUtils = new AzurePersistImageUtils(flakyStore, blobReferenceRepository,
+                blobDeletionRepository, new ImageVariantGenerator(flakyStore, blobReferenceRepository, 1, 10, 40_000_000));
+        String base64 = Base64.getEncoder().encodeToString(randomImage(1_000));
+
+        StepVerifier.create(flakyUtils.saveImageData(base64)).verifyError(IOException.class);
+        String url = flakyUtils.saveImageData(base64).block();
+
+        StepVerifier.create(flakyStore.exists(flakyStore.nameOf(url))).expectNext(true).verifyComplete();
+        assertThat(refCounts).containsEntry(flakyStore.nameOf(url), 1);
+        assertThat(storedBlobs).containsExactly(flakyStore.nameOf(url));
+    }
+
+    @Test
+    public void givenSharedImage_whenReleasedByOneOwner_thenItIsOnlyQueuedForDeletionOnceTheLastReferenceIsReleased() {
+        String base64 = Base64.getEncoder().encodeToString(randomImage(10));
+        String url = azurePersistImageUtils.saveImageData(base64).block();
+        azurePersistImageUtils.saveImageData(base64).block();
+
+        azurePersistImageUtils.releaseImage(url).block();
+        assertThat(queuedDeletions).isEmpty();
+
+        azurePersistImageUtils.releaseImage(url).block();
+        assertThat(queuedDeletions).containsExactly(blobStore.nameOf(url));
+        // The blob itself is left to the deletion worker
+        StepVerifier.create(blobStore.exists(blobStore.nameOf(url))).expectNext(true).verifyComplete();
+    }
+
+    @Test
+    public void givenStreamedImageAlreadyStored_whenSaved_thenTheUploadIsDiscarded() {
+        byte[] image = randomImage(1_000);
+        String base64Url = azurePersistImageUtils.saveImageData(Base64.getEncoder().encodeToString(image)).block();
+
+        String streamedUrl = azurePersistImageUtils.saveImageData(
+                Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(image)), "jpeg").block();
+
+        assertThat(streamedUrl).isEqualTo(base64Url);
+        StepVerifier.create(blobStore.exists(blobStore.nameOf(base64Url))).expectNext(true).verifyComplete();
+        assertThat(refCounts).containsOnlyKeys(blobStore.nameOf(base64Url));
+    }
+
+    @Test
+    public void givenImageStoredBeforeContentAddressing_whenReleased_thenItIsQueuedForDeletionStraightAway() {
+        String url = blobStore.put("legacy.jpeg", Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(new byte[]{1}))).block();
+
+        StepVerifier.create(azurePersistImageUtils.releaseImage(url)).verifyComplete();
+        assertThat(queuedDeletions).containsExactly("legacy.jpeg");
+    }
+
+    @Test
+    public void givenNoImage_whenReleased_thenNothingIsQueued() {
+        StepVerifier.create(azurePersistImageUtils.releaseImage(null)).verifyComplete();
+        StepVerifier.create(azurePersistImageUtils.releaseImage("")).verifyComplete();
+        assertThat(queuedDeletions).isEmpty();
+    }
+
+    @Test
+    public void givenStreamedImage_whenSaved_thenExtensionIsKept() {
+        Flux<DataBuffer> content = Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(new byte[]{1, 2, 3}));
+
+        String url = azurePersistImageUtils.saveImageData(content, "png").block();
+
+        assertThat(url).endsWith(".png");
+        assertThat(read(url)).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    public void givenImagesWithAndWithoutVariants_whenLookedUp_thenOnlyThoseWithStoredVariantsAreReturned() {
+        String withVariants = blobStore.put("with.jpeg", Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(new byte[]{1}))).block();
+        String withoutVariants = blobStore.put("without.jpeg", Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(new byte[]{2}))).block();
+        when(blobReferenceRepository.findNamesWithVariantsStored(Set.of("with.jpeg", "without.jpeg")))
+                .thenReturn(Flux.just("with.jpeg"));
+
+        StepVerifier.create(azurePersistImageUtils.findImagesWithVariants(Arrays.asList(withVariants, withoutVariants, null)))
+                .expectNext(Set.of(withVariants))
+                .verifyComplete();
+        StepVerifier.create(azurePersistImageUtils.findImagesWithVariants(List.of("")))
+                .expectNext(Set.of())
+                .verifyComplete();
+    }
+
+    private byte[] read(String url) {
+        return DataBufferUtils.join(blobStore.get(blobStore.nameOf(url))).map(this::toBytes).block();
+    }
+
+    private byte[] randomImage(int size) {
+        byte[] image = new byte[size];
+        new Random(42).nextBytes(image);
+        return image;
+    }
+
+    private byte[] toBytes(DataBuffer dataBuffer) {
+        byte[] bytes = new byte[dataBuffer.readableByteCount()];
+        dataBuffer.read(bytes);
+        DataBufferUtils.release(dataBuffer);
+        return bytes;
+    }
+}
@@ -0,0 +1,156 @@
+package com.jme.adopterdla.adopterdla.common.utils;
+
+import com.jme.adopterdla.adopterdla.common.entity.BlobDeletion;
+import com.jme.adopterdla.adopterdla.common.entity.BlobReference;
+import com.jme.adopterdla.adopterdla.common.entity.repository.BlobDeletionRepository;
+import com.jme.adopterdla.adopterdla.common.entity.repository.BlobReferenceRepository;
+import com.jme.adopterdla.adopterdla.common.storage.BlobStore;
+import com.jme.adopterdla.adopterdla.common.storage.InMemoryBlobStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BlobDeletionWorkerTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    private final InMemoryBlobStore blobStore = new InMemoryBlobStore();
+
+    private final BlobReferenceRepository blobReferenceRepository = mock(BlobReferenceRepository.class);
+
+    private final BlobDeletionRepository blobDeletionRepository = mock(BlobDeletionRepository.class);
+
+    private final TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void setUp() {
+        when(blobReferenceRepository.lock(anyString())).thenReturn(Mono.just(new BlobReference("unused", 0, true, false)));
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(blobReferenceRepository.deleteUnreferenced(anyString())).thenReturn(Mono.just(1));
+        when(blobDeletionRepository.deleteAllByIdIn(any())).thenReturn(Mono.just(1));
+        when(blobDeletionRepository.recordFailure(anyLong(), anyString())).thenReturn(Mono.just(1));
+        when(blobDeletionRepository.findBacklog()).thenReturn(Mono.just(new BlobDeletionRepository.Backlog(3, 1.5)));
+    }
+
+    @Test
+    public void givenUnreferencedBlob_whenDrained_thenItAndItsVariantsAreDeletedAndTheDeletionRemoved() {
+        store("photo.jpeg");
+        String variantName = ImageVariantGenerator.variantNames("photo.jpeg").get(0);
+        store(variantName);
+        when(blobDeletionRepository.claim(anyInt(), anyLong(), anyLong())).thenReturn(Flux.just(deletion(1L, "photo.jpeg")));
+
+        StepVerifier.create(worker(blobStore).drain()).verifyComplete();
+
+        StepVerifier.create(blobStore.exists("photo.jpeg")).expectNext(false).verifyComplete();
+        StepVerifier.create(blobStore.exists(variantName)).expectNext(false).verifyComplete();
+        verify(blobReferenceRepository).lock("photo.jpeg");
+        verify(blobReferenceRepository).deleteUnreferenced("photo.jpeg");
+        verify(transactionalOperator).transactional(any(Mono.class));
+        verify(blobDeletionRepository).deleteAllByIdIn(List.of(1L));
+        assertThat(meterRegistry.get("blob.deletions").tag("result", "deleted").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenSameContentStoredUnderTwoExtensions_whenOneIsDrained_thenTheVariantsOfTheOtherSurvive() {
+        List.of("abc.jpg", "abc.jpeg").forEach(name -> {
+            store(name);
+            ImageVariantGenerator.variantNames(name).forEach(this::store);
+        });
+        when(blobDeletionRepository.claim(anyInt(), anyLong(), anyLong())).thenReturn(Flux.just(deletion(1L, "abc.jpg")));
+
+        StepVerifier.create(worker(blobStore).drain()).verifyComplete();
+
+        StepVerifier.create(blobStore.exists("abc.jpg")).expectNext(false).verifyComplete();
+        StepVerifier.create(blobStore.exists("abc.jpeg")).expectNext(true).verifyComplete();
+        for (String variantName : ImageVariantGenerator.variantNames("abc.jpeg")) {
+            StepVerifier.create(blobStore.exists(variantName)).expectNext(true).verifyComplete();
+        }
+    }
+
+    @Test
+    public void givenBlobReferencedAgain_whenDrained_thenItIsKeptAndTheDeletionRemoved() {
+        store("photo.jpeg");
+        when(blobReferenceRepository.lock("photo.jpeg")).thenReturn(Mono.just(new BlobReference("photo.jpeg", 1, true, false)));
+        when(blobDeletionRepository.claim(anyInt(), anyLong(), anyLong())).thenReturn(Flux.just(deletion(1L, "photo.jpeg")));
+
+        StepVerifier.create(worker(blobStore).drain()).verifyComplete();
+
+        StepVerifier.create(blobStore.exists("photo.jpeg")).expectNext(true).verifyComplete();
+        verify(blobReferenceRepository, never()).deleteUnreferenced(anyString());
+        verify(blobDeletionRepository).deleteAllByIdIn(List.of(1L));
+    }
+
+    @Test
+    public void givenFullBatches_whenDrained_thenBatchesAreClaimedUntilOneComesBackShort() {
+        when(blobDeletionRepository.claim(BATCH_SIZE, 30, 3600)).thenReturn(
+                Flux.just(deletion(1L, "a.jpeg"), deletion(2L, "b.jpeg")),
+                Flux.just(deletion(3L, "c.jpeg"), deletion(4L, "d.jpeg")),
+                Flux.empty());
+
+        StepVerifier.create(worker(blobStore).drain()).verifyComplete();
+
+        verify(blobDeletionRepository, times(3)).claim(BATCH_SIZE, 30, 3600);
+        verify(blobDeletionRepository, times(2)).deleteAllByIdIn(any());
+    }
+
+    @Test
+    public void givenFailingStorage_whenDrained_thenTheFailureIsRecordedAndTheDeletionKeptForRetry() {
+        BlobStore failingStore = mock(BlobStore.class);
+        when(failingStore.delete(anyString())).thenReturn(Mono.error(new IOException("Storage unavailable")));
+        when(blobDeletionRepository.claim(anyInt(), anyLong(), anyLong())).thenReturn(Flux.just(deletion(1L, "photo.jpeg")));
+
+        StepVerifier.create(worker(failingStore).drain()).verifyComplete();
+
+        verify(blobDeletionRepository).recordFailure(eq(1L), eq("Storage unavailable"));
+        verify(blobDeletionRepository, never()).deleteAllByIdIn(any());
+        assertThat(meterRegistry.get("blob.deletions").tag("result", "failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenPendingDeletions_whenDrained_thenBacklogGaugesAreUpdated() {
+        when(blobDeletionRepository.claim(anyInt(), anyLong(), anyLong())).thenReturn(Flux.empty());
+
+        StepVerifier.create(worker(blobStore).drain()).verifyComplete();
+
+        assertThat(meterRegistry.get("blob.deletions.pending").gauge().value()).isEqualTo(3);
+        assertThat(meterRegistry.get("blob.deletions.lag").timeGauge().value(TimeUnit.MILLISECONDS)).isEqualTo(1500);
+    }
+
+    private BlobDeletionWorker worker(BlobStore store) {
+        return new BlobDeletionWorker(store, blobReferenceRepository, blobDeletionRepository, transactionalOperator, meterRegistry,
+                Duration.ofSeconds(10), BATCH_SIZE, 4, Duration.ofSeconds(30), Duration.ofHours(1));
+    }
+
+    private void store(String name) {
+        blobStore.put(name, Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(new byte[]{1}))).block();
+    }
+
+    private static BlobDeletion deletion(Long id, String name) {
+        return new BlobDeletion(id, name, Instant.now(), 1, Instant.now(), null);
+    }
+}
@@ -0,0 +1,75 @@
+package com.jme.adopterdla.adopterdla.common.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConditionalRequestsTest {
+
+    @Test
+    public void givenNoIfNoneMatch_whenRead_thenBodyIsReturnedWithVersionAsETag() {
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/animals/1"));
+
+        ResponseEntity<String> response = ConditionalRequests.ifNoneMatch(exchange, Mono.just(3L), () -> Mono.just("animal")).block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"3\"");
+        assertThat(response.getBody()).isEqualTo("animal");
+    }
+
+    @Test
+    public void givenCurrentVersionInIfNoneMatch_whenRead_thenNotModifiedIsReturnedWithoutLoadingTheBody() {
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/animals/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+        AtomicBoolean loaded = new AtomicBoolean();
+
+        ResponseEntity<String> response = ConditionalRequests.ifNoneMatch(exchange, Mono.just(3L),
+                () -> Mono.fromSupplier(() -> {
+                    loaded.set(true);
+                    return "animal";
+                })).block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"3\"");
+        assertThat(response.getBody()).isNull();
+        assertThat(loaded).isFalse();
+    }
+
+    @Test
+    public void givenOutdatedVersionInIfNoneMatch_whenRead_thenBodyIsReturned() {
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/animals/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"2\""));
+
+        ResponseEntity<String> response = ConditionalRequests.ifNoneMatch(exchange, Mono.just(3L), () -> Mono.just("animal")).block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo("animal");
+    }
+
+    @Test
+    public void givenRevisionChangedWithoutNewVersion_whenRead_thenBodyIsReturnedWithTheNewETag() {
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/animals/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3-0\""));
+
+        ResponseEntity<String> response = ConditionalRequests.ifNoneMatch(exchange, Mono.just("3-1"), () -> Mono.just("animal")).block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"3-1\"");
+        assertThat(response.getBody()).isEqualTo("animal");
+    }
+
+    @Test
+    public void givenMissingEntity_whenRead_thenResponseIsEmpty() {
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/animals/1"));
+
+        assertThat(ConditionalRequests.ifNoneMatch(exchange, Mono.empty(), Mono::<String>empty).blockOptional()).isEmpty();
+    }
+}
@@ -0,0 +1,118 @@
+package com.jme.adopterdla.adopterdla.common.utils;
+
+import com.jme.adopterdla.adopterdla.common.entity.repository.BlobReferenceRepository;
+import com.jme.adopterdla.adopterdla.common.storage.InMemoryBlobStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ImageVariantGeneratorTest {
+
+    private final InMemoryBlobStore blobStore = new InMemoryBlobStore();
+
+    private final BlobReferenceRepository blobReferenceRepository = mock(BlobReferenceRepository.class);
+
+    private final ImageVariantGenerator imageVariantGenerator = new ImageVariantGenerator(blobStore,
+            blobReferenceRepository, 1, 10, 4_000_000);
+
+    @BeforeEach
+    public void setUp() {
+        when(blobReferenceRepository.markVariantsStored(anyString())).thenReturn(Mono.just(1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        imageVariantGenerator.dispose();
+    }
+
+    @Test
+    public void givenImageUrl_whenVariantUrlsRequested_thenOneUrlPerWidthIsDerived() {
+        assertThat(ImageVariantGenerator.variantUrls("https://account.blob.core.windows.net/images/abc.png"))
+                .containsExactly(
+                        entry(160, "https://account.blob.core.windows.net/images/abc_png_160w.jpeg"),
+                        entry(480, "https://account.blob.core.windows.net/images/abc_png_480w.jpeg"),
+                        entry(1024, "https://account.blob.core.windows.net/images/abc_png_1024w.jpeg"));
+        assertThat(ImageVariantGenerator.variantUrls(null)).isEmpty();
+    }
+
+    @Test
+    public void givenLargeImage_whenVariantsCreated_thenEachVariantHasItsWidthAndAspectRatio() throws IOException {
+        blobStore.put("large.png", Flux.just(png(2000, 1000))).block();
+
+        StepVerifier.create(imageVariantGenerator.createVariants("large.png")).verifyComplete();
+
+        for (String name : ImageVariantGenerator.variantNames("large.png")) {
+            BufferedImage variant = read(name);
+            int width = Integer.parseInt(name.substring("large_png_".length(), name.indexOf("w.")));
+            assertThat(variant.getWidth()).isEqualTo(width);
+            assertThat(variant.getHeight()).isEqualTo(width / 2);
+        }
+        verify(blobReferenceRepository).markVariantsStored("large.png");
+    }
+
+    @Test
+    public void givenSmallImage_whenVariantsCreated_thenItIsNotUpscaled() throws IOException {
+        blobStore.put("small.png", Flux.just(png(100, 50))).block();
+
+        StepVerifier.create(imageVariantGenerator.createVariants("small.png")).verifyComplete();
+
+        assertThat(read("small_png_1024w.jpeg").getWidth()).isEqualTo(100);
+    }
+
+    @Test
+    public void givenInvalidImage_whenVariantsCreated_thenItFailsWithoutStoringVariants() {
+        blobStore.put("invalid.jpeg", Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(new byte[]{1, 2, 3}))).block();
+
+        StepVerifier.create(imageVariantGenerator.createVariants("invalid.jpeg"))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        StepVerifier.create(blobStore.exists("invalid_jpeg_160w.jpeg")).expectNext(false).verifyComplete();
+        verify(blobReferenceRepository, never()).markVariantsStored(anyString());
+    }
+
+    @Test
+    public void givenImageAboveThePixelLimit_whenVariantsCreated_thenItFailsBeforeDecoding() throws IOException {
+        blobStore.put("huge.png", Flux.just(png(3000, 2000))).block();
+
+        StepVerifier.create(imageVariantGenerator.createVariants("huge.png"))
+                .expectErrorSatisfies(e -> assertThat(e)
+                        .isInstanceOf(IllegalArgumentException.class)
+                        .hasMessageContaining("3000x2000"))
+                .verify();
+        StepVerifier.create(blobStore.exists("huge_png_160w.jpeg")).expectNext(false).verifyComplete();
+        verify(blobReferenceRepository, never()).markVariantsStored(anyString());
+    }
+
+    private DataBuffer png(int width, int height) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", outputStream);
+        return DefaultDataBufferFactory.sharedInstance.wrap(outputStream.toByteArray());
+    }
+
+    private BufferedImage read(String name) throws IOException {
+        DataBuffer dataBuffer = DataBufferUtils.join(blobStore.get(name)).block();
+        try (InputStream inputStream = dataBuffer.asInputStream(true)) {
+            return ImageIO.read(inputStream);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.jme.adopterdla.adopterdla.configs.database;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MeteredConnectionFactoryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ConnectionFactory pool = mock(ConnectionFactory.class);
+
+    private final AtomicInteger openConnections = new AtomicInteger();
+
+    private final MeteredConnectionFactory connectionFactory = new MeteredConnectionFactory(pool, meterRegistry);
+
+    @BeforeEach
+    public void setUp() {
+        when(pool.create()).thenAnswer(invocation -> Mono.fromSupplier(() -> {
+            openConnections.incrementAndGet();
+            Connection connection = mock(Connection.class);
+            when(connection.close()).thenAnswer(close -> Mono.fromRunnable(openConnections::decrementAndGet));
+            return connection;
+        }));
+    }
+
+    @Test
+    public void givenRequestHoldingItsMaximumConnections_whenAnotherIsRequested_thenItWaitsForOneToBeClosed() {
+        QueryPermits permits = new QueryPermits(2, Duration.ofSeconds(5));
+        Connection first = create(permits).block();
+        create(permits).block();
+
+        StepVerifier.create(create(permits))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(100))
+                .then(() -> Mono.from(first.close()).block())
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(openConnections).hasValue(2);
+        assertThat(meterRegistry.get("r2dbc.request.queries.throttled").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenCancelledWaiter_whenConnectionIsClosed_thenThePermitGoesToTheNextQuery() {
+        QueryPermits permits = new QueryPermits(1, Duration.ofSeconds(5));
+        Connection first = create(permits).block();
+
+        create(permits).subscribe().dispose();
+        Mono.from(first.close()).block();
+
+        StepVerifier.create(create(permits)).expectNextCount(1).verifyComplete();
+    }
+
+    @Test
+    public void givenRequestHoldingItsConnectionsPastTheTimeout_whenAnotherIsRequested_thenItFailsWithServiceUnavailable() {
+        QueryPermits permits = new QueryPermits(1, Duration.ofMillis(100));
+        create(permits).block();
+
+        StepVerifier.create(create(permits))
+                .expectErrorSatisfies(e -> assertThat(((ResponseStatusException) e).getStatusCode())
+                        .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE))
+                .verify(Duration.ofSeconds(5));
+        assertThat(openConnections).hasValue(1);
+    }
+
+    @Test
+    public void givenNoRequest_whenConnectionsAreRequested_thenTheyAreNotCapped() {
+        List<Connection> connections = Mono.<Connection>from(connectionFactory.create()).repeat(4).collectList().block();
+
+        assertThat(connections).hasSize(5);
+        assertThat(meterRegistry.get("r2dbc.pool.acquire").timer().count()).isEqualTo(5);
+    }
+
+    @Test
+    public void givenDecoratedPool_whenUnwrapped_thenThePoolIsReturned() {
+        assertThat(connectionFactory.unwrap()).isSameAs(pool);
+    }
+
+    private Mono<Connection> create(QueryPermits permits) {
+        return Mono.<Connection>from(connectionFactory.create())
+                .contextWrite(context -> context.put(QueryPermits.CONTEXT_KEY, permits));
+    }
+}
@@ -0,0 +1,50 @@
+package com.jme.adopterdla.adopterdla.configs.database;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class QueryPermitsWebFilterTest {
+
+    private final QueryPermitsWebFilter filter = new QueryPermitsWebFilter(4,
+            new String[]{"/api/animals/import=8", "/api/auth/**=0"}, Duration.ofSeconds(5));
+
+    @Test
+    public void givenRouteWithItsOwnLimit_whenFiltered_thenTheRouteLimitApplies() {
+        assertThat(permits("/api/animals/import")).hasValueSatisfying(permits -> assertThat(maxInFlight(permits)).isEqualTo(8));
+        assertThat(permits("/api/animals")).hasValueSatisfying(permits -> assertThat(maxInFlight(permits)).isEqualTo(4));
+    }
+
+    @Test
+    public void givenRouteWithZeroLimit_whenFiltered_thenItIsNotCapped() {
+        assertThat(permits("/api/auth/login")).isEmpty();
+    }
+
+    private Optional<QueryPermits> permits(String path) {
+        AtomicReference<Optional<QueryPermits>> permits = new AtomicReference<>();
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get(path)),
+                        exchange -> Mono.deferContextual(context -> {
+                            permits.set(context.getOrEmpty(QueryPermits.CONTEXT_KEY));
+                            return Mono.empty();
+                        }))
+                .block();
+        return permits.get();
+    }
+
+    private int maxInFlight(QueryPermits permits) {
+        // Take every permit: the cap is reached once the next query would have to wait
+        int acquired = 0;
+        while (!permits.exhausted()) {
+            permits.acquire().block();
+            acquired++;
+        }
+        return acquired;
+    }
+}
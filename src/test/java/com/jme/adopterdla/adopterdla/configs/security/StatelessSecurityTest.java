@@ -0,0 +1,76 @@
+package com.jme.adopterdla.adopterdla.configs.security;
+
+import com.jme.adopterdla.adopterdla.AbstractUtilsBaseTest;
+import com.jme.adopterdla.adopterdla.configs.security.service.JwtService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+import org.springframework.web.server.session.InMemoryWebSessionStore;
+import org.springframework.web.server.session.WebSessionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Soak test checking that authenticated and rejected requests never create a WebSession.
+ * The number of distinct clients can be lowered with {@code -Dsoak.clients=<n>} for quick local runs.
+ * <p>
+ * Excluded from the default build, as it sends hundreds of thousands of requests; run it with
+ * {@code mvn test -Pload-test -Dtest=StatelessSecurityTest}.
+ */
+@Tag("load-test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+public class StatelessSecurityTest extends AbstractUtilsBaseTest {
+
+    private static final int CLIENTS = Integer.getInteger("soak.clients", 100_000);
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private WebSessionManager webSessionManager;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Test
+    public void givenManyDistinctClients_whenRequesting_thenNoSessionIsStored() {
+        var webTestClient = WebTestClient.bindToApplicationContext(applicationContext).build();
+        var sessionStore = (InMemoryWebSessionStore) ((DefaultWebSessionManager) webSessionManager).getSessionStore();
+
+        for (int client = 0; client < CLIENTS; client++) {
+            if (client % 10 == 0) {
+                // Anonymous requests are rejected, and must not be saved in a session for a later redirect
+                webTestClient.get().uri("/api/animals")
+                        .exchange()
+                        .expectStatus().isEqualTo(HttpStatus.UNAUTHORIZED)
+                        .expectCookie().doesNotExist("SESSION");
+            } else {
+                // Authenticated requests reach the handler, which answers 404 without touching the database
+                webTestClient.get().uri("/api/stateless-soak")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenFor("client-" + client))
+                        .exchange()
+                        .expectStatus().isNotFound()
+                        .expectCookie().doesNotExist("SESSION");
+            }
+        }
+
+        assertThat(sessionStore.getSessions()).isEmpty();
+    }
+
+    private String tokenFor(String username) {
+        var authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        var user = new User(username, "password", authorities);
+        return jwtService.generateToken(new UsernamePasswordAuthenticationToken(user, null, authorities), false);
+    }
+}
@@ -0,0 +1,60 @@
+package com.jme.adopterdla.adopterdla.configs.security.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CachingUserDetailsServiceTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final CachingUserDetailsService userDetailsService = new CachingUserDetailsService(username -> {
+        loads.incrementAndGet();
+        return "unknown".equals(username)
+                ? Mono.empty()
+                : Mono.just(User.withUsername(username).password("hash-" + loads.get()).authorities(List.of()).build());
+    }, Duration.ofMinutes(1), 100);
+
+    @Test
+    public void givenCachedUser_whenLookedUpAgain_thenItIsLoadedOnce() {
+        UserDetails first = userDetailsService.findByUsername("admin").block();
+        UserDetails second = userDetailsService.findByUsername("admin").block();
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    public void givenEvictedUser_whenLookedUpAgain_thenItIsReloaded() {
+        userDetailsService.findByUsername("admin").block();
+
+        userDetailsService.evict("admin");
+
+        StepVerifier.create(userDetailsService.findByUsername("admin"))
+                .assertNext(userDetails -> assertThat(userDetails.getPassword()).isEqualTo("hash-2"))
+                .verifyComplete();
+    }
+
+    @Test
+    public void givenUnknownUser_whenLookedUp_thenEmptyIsReturnedAndNotCached() {
+        StepVerifier.create(userDetailsService.findByUsername("unknown")).verifyComplete();
+        StepVerifier.create(userDetailsService.findByUsername("unknown")).verifyComplete();
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    public void givenLazyLookup_whenNotSubscribed_thenNothingIsLoaded() {
+        userDetailsService.findByUsername("admin");
+
+        assertThat(loads).hasValue(0);
+    }
+}
@@ -0,0 +1,79 @@
+package com.jme.adopterdla.adopterdla.configs.security.service;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JwtServiceTest {
+
+    private static final String SECRET = "a-test-secret-that-is-long-enough-for-hmac-sha-512-signatures-0123456789";
+
+    private final JwtService jwtService = new JwtService(SECRET, 30, 100);
+
+    @Test
+    public void givenValidToken_whenParsed_thenClaimsAreReturned() {
+        String token = generateToken(jwtService);
+
+        ParsedToken parsedToken = jwtService.parseToken(token);
+
+        assertThat(parsedToken.username()).isEqualTo("admin");
+        assertThat(parsedToken.authorities()).containsExactly(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        assertThat(parsedToken.expiration()).isAfter(Instant.now());
+    }
+
+    @Test
+    public void givenTokenParsedBefore_whenParsedAgain_thenCachedClaimsAreReused() {
+        String token = generateToken(jwtService);
+
+        assertThat(jwtService.parseToken(token)).isSameAs(jwtService.parseToken(token));
+    }
+
+    @Test
+    public void givenTamperedToken_whenParsed_thenItIsRejectedEvenIfTheOriginalIsCached() {
+        String token = generateToken(jwtService);
+        jwtService.parseToken(token);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtService.parseToken(tampered)).isInstanceOf(JwtException.class);
+        assertThat(jwtService.validateToken(tampered)).isFalse();
+    }
+
+    @Test
+    public void givenTokenSignedWithAnotherSecret_whenParsed_thenItIsRejected() {
+        String token = generateToken(new JwtService(SECRET.replace('a', 'b'), 30, 100));
+
+        assertThatThrownBy(() -> jwtService.parseToken(token)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    public void givenExpiredToken_whenParsed_thenItIsRejectedAsExpired() {
+        String token = generateToken(new JwtService(SECRET, -1, 100));
+
+        assertThatThrownBy(() -> jwtService.parseToken(token)).isInstanceOf(ExpiredJwtException.class);
+        assertThat(jwtService.isTokenExpired(token)).isTrue();
+    }
+
+    @Test
+    public void givenDisabledCache_whenParsed_thenClaimsAreStillReturned() {
+        JwtService uncachedJwtService = new JwtService(SECRET, 30, 0);
+        String token = generateToken(uncachedJwtService);
+
+        assertThat(uncachedJwtService.extractUsername(token)).isEqualTo("admin");
+        assertThat(uncachedJwtService.extractAuthorities(token)).containsExactly(new SimpleGrantedAuthority("ROLE_ADMIN"));
+    }
+
+    private String generateToken(JwtService jwtService) {
+        var authorities = List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        var user = new User("admin", "password", authorities);
+        return jwtService.generateToken(new UsernamePasswordAuthenticationToken(user, null, authorities), false);
+    }
+}
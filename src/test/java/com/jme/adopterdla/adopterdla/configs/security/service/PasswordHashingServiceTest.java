@@ -0,0 +1,92 @@
+package com.jme.adopterdla.adopterdla.configs.security.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private PasswordHashingService passwordHashingService;
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        passwordHashingService.dispose();
+    }
+
+    @Test
+    public void givenPassword_whenEncodedAndMatched_thenHashingRunsOffTheCallerThread() {
+        passwordHashingService = new PasswordHashingService(new BCryptPasswordEncoder(4), meterRegistry, 1, 1);
+        Thread caller = Thread.currentThread();
+
+        String encoded = passwordHashingService.encode("secret").block();
+
+        StepVerifier.create(passwordHashingService.matches("secret", encoded)).expectNext(true).verifyComplete();
+        StepVerifier.create(passwordHashingService.matches("wrong", encoded)).expectNext(false).verifyComplete();
+        assertThat(meterRegistry.get("security.password.hashing").tag("operation", "matches").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("security.password.hashing").tag("operation", "encode").timer().count()).isEqualTo(1);
+        StepVerifier.create(Mono.fromCallable(Thread::currentThread)
+                        .flatMap(thread -> passwordHashingService.encode("secret").map(hash -> Thread.currentThread())))
+                .assertNext(thread -> assertThat(thread).isNotSameAs(caller))
+                .verifyComplete();
+    }
+
+    @Test
+    public void givenFullQueue_whenHashing_thenRequestIsRejectedWithServiceUnavailable() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        passwordHashingService = new PasswordHashingService(blockingEncoder(started), meterRegistry, 1, 1);
+
+        // One hash running and one waiting fill the capacity
+        var running = passwordHashingService.encode("running").toFuture();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        var queued = passwordHashingService.encode("queued").toFuture();
+        assertThat(meterRegistry.get("security.password.hashing.queue").gauge().value()).isEqualTo(1);
+
+        StepVerifier.create(passwordHashingService.encode("rejected"))
+                .expectErrorSatisfies(e -> assertThat(((ResponseStatusException) e).getStatusCode())
+                        .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE))
+                .verify(Duration.ofSeconds(1));
+        assertThat(meterRegistry.get("security.password.hashing.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+        StepVerifier.create(passwordHashingService.encode("accepted")).expectNext("hash").verifyComplete();
+    }
+
+    private PasswordEncoder blockingEncoder(CountDownLatch started) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return true;
+            }
+        };
+    }
+}
@@ -0,0 +1,344 @@
+package com.jme.adopterdla.adopterdla.loadtest;
+
+import com.jme.adopterdla.adopterdla.AbstractUtilsBaseTest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jme.adopterdla.adopterdla.auth.dto.LoginRequest;
+import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessDTO;
+import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessTransitionDTO;
+import com.jme.adopterdla.adopterdla.processes.utils.AdoptionProcessStatus;
+import com.jme.adopterdla.adopterdla.user.entity.User;
+import com.jme.adopterdla.adopterdla.user.repository.UserRepository;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test driving a realistic mix of requests against the application at a fixed rate: catalogue browsing, visit
+ * booking, logins and adoption process transitions.
+ * <p>
+ * Requests are sent on schedule whether or not earlier ones have completed, and the first request of each scenario is
+ * timed from when it was due, so a saturated server shows up as latency instead of as a lower sending rate. The
+ * p50/p95/p99 latencies and the throughput of every endpoint are written to {@code report.json} and
+ * {@code report.html}.
+ * <p>
+ * Excluded from the default build; run it with {@code mvn test -Pload-test}. Every setting can be changed with a
+ * {@code -Dloadtest.*} property, e.g. {@code -Dloadtest.rps=200 -Dloadtest.mix=browse=80,login=20}.
+ */
+@Tag("load-test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+// Web TRACE logging would print every request
+@TestPropertySource(properties = "logging.level.org.springframework.web=INFO")
+@Log4j2
+public class LoadTest extends AbstractUtilsBaseTest {
+
+    private static final int RPS = Integer.getInteger("loadtest.rps", 50);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 60));
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 10));
+    private static final String MIX = System.getProperty("loadtest.mix", "browse=60,visit=15,login=15,process=10");
+    private static final int MAX_CONCURRENCY = Integer.getInteger("loadtest.max-concurrency", 512);
+    private static final int ANIMALS = Integer.getInteger("loadtest.animals", 1_000);
+    private static final int PROCESSES = Integer.getInteger("loadtest.processes", 200);
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01"));
+    private static final Path REPORT_DIR = Path.of(System.getProperty("loadtest.report-dir", "target/load-test"));
+
+    private static final String PASSWORD = "password";
+
+    private final WebClient webClient = WebClient.builder()
+            .baseUrl("http://localhost:8080/api")
+            .build();
+
+    private final Map<String, Scenario> scenarios = Map.of(
+            "browse", this::browse,
+            "visit", this::bookVisit,
+            "login", this::login,
+            "process", this::updateProcess);
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private List<Long> animalIds;
+    private List<Long> processIds;
+    private String username;
+
+    @AfterEach
+    public void tearDown() {
+        Flux.concat(
+                        databaseClient.sql("delete from adoption_process where process_number like 'LOAD-%'").then(),
+                        databaseClient.sql("delete from shelter_visit where animal_id in (select id from animals where code like 'LOAD-%')").then(),
+                        databaseClient.sql("delete from adopters where email like 'load-%@example.com'").then(),
+                        databaseClient.sql("delete from animals where code like 'LOAD-%'").then(),
+                        databaseClient.sql("delete from volunteers where name like 'LOAD-%'").then(),
+                        databaseClient.sql("delete from users where username like 'load-%'").then())
+                .then()
+                .block();
+    }
+
+    @Test
+    public void givenRealisticMix_whenDrivenAtTheConfiguredRate_thenTheReportIsWrittenAndFewRequestsFail() throws IOException {
+        seed();
+        Map<Scenario, Integer> mix = parseMix(MIX);
+
+        log.info("Warming up for {} s at {} requests/s", WARMUP.toSeconds(), RPS);
+        run(mix, WARMUP, new LoadTestReport());
+        log.info("Measuring for {} s at {} requests/s with the mix {}", DURATION.toSeconds(), RPS, MIX);
+        LoadTestReport report = new LoadTestReport();
+        run(mix, DURATION, report);
+
+        Map<String, Object> configuration = new LinkedHashMap<>();
+        configuration.put("version", System.getProperty("loadtest.version", "unknown"));
+        configuration.put("rps", RPS);
+        configuration.put("mix", MIX);
+        configuration.put("animals", ANIMALS);
+        configuration.put("processes", PROCESSES);
+        LoadTestReport.Summary summary = report.summarize(configuration, DURATION);
+        LoadTestReport.write(summary, REPORT_DIR);
+        summary.endpoints().forEach(endpoint -> log.info("{}: {} requests, {} req/s, p50 {} ms, p95 {} ms, p99 {} ms, {} errors",
+                endpoint.endpoint(), endpoint.requests(), endpoint.throughput(), endpoint.p50Millis(),
+                endpoint.p95Millis(), endpoint.p99Millis(), endpoint.errors()));
+        log.info("Report written to {}", REPORT_DIR.toAbsolutePath());
+
+        long requests = summary.endpoints().stream().mapToLong(LoadTestReport.EndpointSummary::requests).sum();
+        long errors = summary.endpoints().stream().mapToLong(LoadTestReport.EndpointSummary::errors).sum();
+        assertThat(requests).isPositive();
+        assertThat((double) errors / requests).isLessThanOrEqualTo(MAX_ERROR_RATE);
+    }
+
+    /**
+     * Sends one scenario, picked at random according to the mix, every 1/RPS second for the given duration.
+     */
+    private void run(Map<Scenario, Integer> mix, Duration duration, LoadTestReport report) {
+        long periodNanos = 1_000_000_000L / RPS;
+        long start = System.nanoTime();
+        Flux.interval(Duration.ofNanos(periodNanos))
+                .take(duration.toSeconds() * RPS)
+                .onBackpressureBuffer()
+                .flatMap(tick -> pick(mix).run(start + (tick + 1) * periodNanos, report), MAX_CONCURRENCY)
+                .then()
+                .block();
+    }
+
+    /**
+     * Reads a page of the catalogue, then one of the animals.
+     */
+    private Mono<Void> browse(long dueNanos, LoadTestReport report) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String gender = random.nextBoolean() ? "MALE" : "FEMALE";
+        Long after = random.nextInt(4) == 0 ? null : randomOf(animalIds);
+        return call(report, "GET /api/animals/catalogue", dueNanos, webClient.get()
+                .uri(uri -> uri.path("/animals/catalogue")
+                        .queryParam("size", 20)
+                        .queryParam("gender", gender)
+                        .queryParamIfPresent("after", Optional.ofNullable(after))
+                        .build())
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + getUserToken()))
+                .then(Mono.defer(() -> call(report, "GET /api/animals/{id}", System.nanoTime(), webClient.get()
+                        .uri("/animals/{id}", randomOf(animalIds))
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + getUserToken()))))
+                .then();
+    }
+
+    private Mono<Void> bookVisit(long dueNanos, LoadTestReport report) {
+        String body = """
+                {
+                  "name": "Load Visitor",
+                  "phone": "555-0100",
+                  "email": "load-%s@example.com",
+                  "animalId": %d,
+                  "date": "%s",
+                  "hour": 10,
+                  "minute": 30
+                }""".formatted(UUID.randomUUID(), randomOf(animalIds), LocalDate.now().plusDays(7));
+        return call(report, "POST /api/shelter-visits", dueNanos, webClient.post()
+                .uri("/shelter-visits")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + getAdminToken())
+                .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                .bodyValue(body))
+                .then();
+    }
+
+    private Mono<Void> login(long dueNanos, LoadTestReport report) {
+        return call(report, "POST /api/auth/login", dueNanos, webClient.post()
+                .uri("/auth/login")
+                .bodyValue(new LoginRequest(username, PASSWORD)))
+                .then();
+    }
+
+    /**
+     * Reads an adoption process, then moves it to one of its next statuses. Processes are never approved, as approved
+     * ones cannot move any more and the scenario would end up only reading them.
+     */
+    private Mono<Void> updateProcess(long dueNanos, LoadTestReport report) {
+        Long id = randomOf(processIds);
+        return call(report, "GET /api/adoption-processes/{id}", dueNanos, webClient.get()
+                .uri("/adoption-processes/{id}", id)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + getAdminToken()))
+                .map(this::readStatus)
+                .flatMap(from -> {
+                    List<AdoptionProcessStatus> next = from.nextStatuses().stream()
+                            .filter(status -> status != AdoptionProcessStatus.APPROVED)
+                            .toList();
+                    if (next.isEmpty()) {
+                        return Mono.empty();
+                    }
+                    return call(report, "POST /api/adoption-processes/{id}/transitions", System.nanoTime(), webClient.post()
+                            .uri("/adoption-processes/{id}/transitions", id)
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + getAdminToken())
+                            .bodyValue(new AdoptionProcessTransitionDTO(from, randomOf(next))));
+                })
+                .then();
+    }
+
+    private AdoptionProcessStatus readStatus(String body) {
+        try {
+            return objectMapper.readValue(body, AdoptionProcessDTO.class).status();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unexpected adoption process " + body, e);
+        }
+    }
+
+    /**
+     * Sends the request and records its status and latency, counting a request without response as status 0.
+     *
+     * @return a Mono emitting the response body of a successful request, empty otherwise
+     */
+    private Mono<String> call(LoadTestReport report, String endpoint, long startNanos, WebClient.RequestHeadersSpec<?> request) {
+        return request.exchangeToMono(response -> response.bodyToMono(String.class)
+                        .defaultIfEmpty("")
+                        .doOnNext(body -> report.record(endpoint, response.statusCode().value(), System.nanoTime() - startNanos))
+                        .filter(body -> response.statusCode().is2xxSuccessful()))
+                .onErrorResume(e -> {
+                    report.record(endpoint, 0, System.nanoTime() - startNanos);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Inserts the animals and adoption processes the scenarios work on, and the user logging in.
+     */
+    private void seed() {
+        animalIds = databaseClient.sql("""
+                        insert into animals (code, name, breed, gender, age, vaccinated, castrated, wormed, is_available)
+                        select 'LOAD-' || n, 'LOAD-' || n, 'Mixed', case when n % 2 = 0 then 'MALE' else 'FEMALE' end,
+                               '3', true, n % 3 = 0, true, true
+                        from generate_series(1, :count) n
+                        returning id""")
+                .bind("count", ANIMALS)
+                .map(row -> row.get("id", Long.class))
+                .all()
+                .collectList()
+                .block();
+        Long scheduleId = insert("""
+                insert into schedules (days, start_time_hour, start_time_minute, end_time_hour, end_time_minute)
+                values ('{1,3,6}', 9, 0, 13, 0)
+                returning id""");
+        Long volunteerId = databaseClient.sql("insert into volunteers (name, schedule_id, active) values ('LOAD-volunteer', :scheduleId, true) returning id")
+                .bind("scheduleId", scheduleId)
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .block();
+        Long adopterId = insert("insert into adopters (name, email) values ('Load Adopter', 'load-adopter@example.com') returning id");
+        processIds = databaseClient.sql("""
+                        insert into adoption_process (process_number, adopter_id, animal_id, volunteer_id, status)
+                        select 'LOAD-' || n, :adopterId, :animalId, :volunteerId, 'IN_PROGRESS'
+                        from generate_series(1, :count) n
+                        returning id""")
+                .bind("adopterId", adopterId)
+                .bind("animalId", animalIds.get(0))
+                .bind("volunteerId", volunteerId)
+                .bind("count", PROCESSES)
+                .map(row -> row.get("id", Long.class))
+                .all()
+                .collectList()
+                .block();
+        username = "load-" + System.nanoTime();
+        userRepository.save(new User(username, username + "@adopterdla.com", "Load Test", passwordEncoder.encode(PASSWORD),
+                List.of("ROLE_USER"))).block();
+    }
+
+    private Long insert(String sql) {
+        return databaseClient.sql(sql)
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .block();
+    }
+
+    /**
+     * Parses a mix such as {@code browse=60,login=40} into the scenarios and their weights.
+     */
+    private Map<Scenario, Integer> parseMix(String mix) {
+        return Arrays.stream(mix.split(","))
+                .map(entry -> entry.trim().split("="))
+                .collect(Collectors.toMap(entry -> {
+                    Scenario scenario = scenarios.get(entry[0]);
+                    if (scenario == null) {
+                        throw new IllegalArgumentException("Unknown scenario " + entry[0] + ", expected one of " + scenarios.keySet());
+                    }
+                    return scenario;
+                }, entry -> Integer.parseInt(entry[1]), Integer::sum, LinkedHashMap::new));
+    }
+
+    private static Scenario pick(Map<Scenario, Integer> mix) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int draw = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<Scenario, Integer> entry : mix.entrySet()) {
+            draw -= entry.getValue();
+            if (draw < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty mix");
+    }
+
+    private static <T> T randomOf(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+
+    /**
+     * A user action, made of one or more requests.
+     */
+    @FunctionalInterface
+    private interface Scenario {
+
+        /**
+         * @param dueNanos the {@link System#nanoTime()} at which the action was due
+         * @param report   the report to record the requests in
+         * @return a Mono completing once every request of the action has completed
+         */
+        Mono<Void> run(long dueNanos, LoadTestReport report);
+    }
+}
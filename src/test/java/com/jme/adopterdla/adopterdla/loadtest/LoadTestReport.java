@@ -0,0 +1,160 @@
+package com.jme.adopterdla.adopterdla.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Latencies and response statuses recorded per endpoint during a load test, written as JSON and HTML.
+ * <p>
+ * Endpoints and statuses are sorted, and latencies rounded to a tenth of a millisecond, so the JSON reports of two
+ * releases can be diffed line by line.
+ */
+class LoadTestReport {
+
+    private final Map<String, Samples> samples = new ConcurrentHashMap<>();
+
+    /**
+     * Records a response.
+     *
+     * @param endpoint     the method and path template of the request, e.g. {@code GET /api/animals/{id}}
+     * @param status       the response status, or 0 if no response was received
+     * @param latencyNanos the time from the request being due to its response
+     */
+    void record(String endpoint, int status, long latencyNanos) {
+        Samples endpointSamples = samples.computeIfAbsent(endpoint, name -> new Samples());
+        endpointSamples.latencies.add(latencyNanos);
+        endpointSamples.statuses.computeIfAbsent(status, code -> new LongAdder()).increment();
+    }
+
+    /**
+     * Summarizes the recorded responses.
+     *
+     * @param configuration the settings of the run, copied into the summary
+     * @param duration      the measured part of the run
+     * @return the summary of every endpoint
+     */
+    Summary summarize(Map<String, Object> configuration, Duration duration) {
+        List<EndpointSummary> endpoints = new TreeMap<>(samples).entrySet().stream()
+                .map(entry -> entry.getValue().summarize(entry.getKey(), duration))
+                .toList();
+        return new Summary(Instant.now().toString(), new TreeMap<>(configuration), duration.toSeconds(), endpoints);
+    }
+
+    /**
+     * Writes the summary as {@code report.json} and {@code report.html} to the given directory.
+     */
+    static void write(Summary summary, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(directory.resolve("report.json").toFile(), summary);
+        Files.writeString(directory.resolve("report.html"), html(summary));
+    }
+
+    private static String html(Summary summary) {
+        String rows = summary.endpoints().stream()
+                .map(endpoint -> "<tr><td>%s</td><td>%d</td><td>%.1f</td><td>%.1f</td><td>%.1f</td><td>%.1f</td><td>%.1f</td><td>%d</td><td>%s</td></tr>"
+                        .formatted(HtmlUtils.htmlEscape(endpoint.endpoint()), endpoint.requests(), endpoint.throughput(),
+                                endpoint.p50Millis(), endpoint.p95Millis(), endpoint.p99Millis(), endpoint.maxMillis(),
+                                endpoint.errors(), HtmlUtils.htmlEscape(endpoint.statuses().toString())))
+                .collect(Collectors.joining("\n"));
+        String configuration = summary.configuration().entrySet().stream()
+                .map(entry -> "<li>%s: %s</li>".formatted(HtmlUtils.htmlEscape(entry.getKey()),
+                        HtmlUtils.htmlEscape(String.valueOf(entry.getValue()))))
+                .collect(Collectors.joining("\n"));
+        return """
+                <!DOCTYPE html>
+                <html>
+                <head>
+                <meta charset="utf-8">
+                <title>Load test report</title>
+                <style>
+                body { font-family: sans-serif; }
+                table { border-collapse: collapse; }
+                th, td { border: 1px solid #ccc; padding: 4px 8px; text-align: right; }
+                th:first-child, td:first-child, td:last-child { text-align: left; }
+                </style>
+                </head>
+                <body>
+                <h1>Load test report</h1>
+                <p>Finished at %s, measured for %d s.</p>
+                <ul>
+                %s
+                </ul>
+                <table>
+                <tr><th>Endpoint</th><th>Requests</th><th>Throughput (req/s)</th><th>p50 (ms)</th><th>p95 (ms)</th><th>p99 (ms)</th><th>Max (ms)</th><th>Errors</th><th>Statuses</th></tr>
+                %s
+                </table>
+                </body>
+                </html>
+                """.formatted(HtmlUtils.htmlEscape(summary.finishedAt()), summary.durationSeconds(), configuration, rows);
+    }
+
+    private static class Samples {
+
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        EndpointSummary summarize(String endpoint, Duration duration) {
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            Map<String, Long> statusCounts = new TreeMap<>();
+            statuses.forEach((status, count) -> statusCounts.put(String.valueOf(status), count.sum()));
+            long errors = statuses.entrySet().stream()
+                    .filter(entry -> entry.getKey() == 0 || entry.getKey() >= 400)
+                    .mapToLong(entry -> entry.getValue().sum())
+                    .sum();
+            return new EndpointSummary(endpoint, sorted.size(), round(sorted.size() / (duration.toMillis() / 1000.0)),
+                    millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.95)), millis(percentile(sorted, 0.99)),
+                    millis(sorted.get(sorted.size() - 1)), errors, statusCounts);
+        }
+
+        private static long percentile(List<Long> sorted, double percentile) {
+            return sorted.get((int) Math.ceil(sorted.size() * percentile) - 1);
+        }
+
+        private static double millis(long nanos) {
+            return round(nanos / 1_000_000.0);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 10) / 10.0;
+        }
+    }
+
+    /**
+     * @param finishedAt      when the run finished
+     * @param configuration   the settings of the run
+     * @param durationSeconds the measured part of the run, warm-up excluded
+     * @param endpoints       the summary of every endpoint, sorted by endpoint
+     */
+    record Summary(String finishedAt, Map<String, Object> configuration, long durationSeconds,
+                   List<EndpointSummary> endpoints) {
+    }
+
+    /**
+     * @param endpoint   the method and path template
+     * @param requests   the number of responses
+     * @param throughput the responses per second
+     * @param errors     the responses with a 4xx or 5xx status, and the requests without a response (status 0)
+     * @param statuses   the number of responses per status
+     */
+    record EndpointSummary(String endpoint, long requests, double throughput, double p50Millis, double p95Millis,
+                           double p99Millis, double maxMillis, long errors, Map<String, Long> statuses) {
+    }
+}
@@ -1,6 +1,277 @@
 package com.jme.adopterdla.adopterdla.processes;
 
 import com.jme.adopterdla.adopterdla.AbstractUtilsBaseTest;
+import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessDTO;
+import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessPageDTO;
+import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessTransitionDTO;
+import com.jme.adopterdla.adopterdla.processes.utils.AdoptionProcessStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.DayOfWeek;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
 public class AdoptionProcessControllerTest extends AbstractUtilsBaseTest {
+
+    private static final int CONCURRENT_TRANSITIONS = 50;
+
+    private final WebClient webClient = WebClient.builder()
+            .baseUrl("http://localhost:8080/api/adoption-processes")
+            .build();
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private Long animalId;
+    private Long processId;
+
+    @BeforeEach
+    public void setUp() {
+        animalId = insert("""
+                insert into animals (code, name, breed, gender, age, vaccinated, castrated, wormed, is_available)
+                values ('CAS-1', 'CAS-1', 'Mixed', 'MALE', '3', true, true, true, true)
+                returning id""");
+        Long scheduleId = insert("""
+                insert into schedules (days, start_time_hour, start_time_minute, end_time_hour, end_time_minute)
+                values ('{1,3,6}', 9, 0, 13, 0)
+                returning id""");
+        Long volunteerId = databaseClient.sql("insert into volunteers (name, schedule_id, active) values ('CAS-volunteer', :scheduleId, true) returning id")
+                .bind("scheduleId", scheduleId)
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .block();
+        Long adopterId = insert("insert into adopters (name, email) values ('CAS Adopter', 'cas-adopter@example.com') returning id");
+        processId = databaseClient.sql("""
+                        insert into adoption_process (process_number, adopter_id, animal_id, volunteer_id, status)
+                        values ('CAS-1', :adopterId, :animalId, :volunteerId, 'PENDING')
+                        returning id""")
+                .bind("adopterId", adopterId)
+                .bind("animalId", animalId)
+                .bind("volunteerId", volunteerId)
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .block();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Flux.concat(
+                        databaseClient.sql("delete from adoption_process where process_number like 'CAS-%'").then(),
+                        databaseClient.sql("delete from adopters where email like 'cas-%@example.com'").then(),
+                        databaseClient.sql("delete from animals where code like 'CAS-%'").then(),
+                        databaseClient.sql("delete from volunteers where name like 'CAS-%'").then())
+                .then()
+                .block();
+    }
+
+    @Test
+    public void givenConcurrentTransitionsFromTheSameStatus_whenSent_thenExactlyOneWins() {
+        List<Integer> statuses = Flux.range(0, CONCURRENT_TRANSITIONS)
+                .flatMap(i -> transition(AdoptionProcessStatus.PENDING,
+                        i % 2 == 0 ? AdoptionProcessStatus.APPROVED : AdoptionProcessStatus.REJECTED), CONCURRENT_TRANSITIONS)
+                .collectList()
+                .block();
+
+        assertThat(statuses).hasSize(CONCURRENT_TRANSITIONS);
+        assertThat(statuses).filteredOn(status -> status == 200).hasSize(1);
+        assertThat(statuses).filteredOn(status -> status == 409).hasSize(CONCURRENT_TRANSITIONS - 1);
+
+        Map<String, Object> process = databaseClient.sql("select status, version from adoption_process where id = :id")
+                .bind("id", processId)
+                .fetch()
+                .one()
+                .block();
+        Map<String, Object> animal = databaseClient.sql("select is_available, has_been_adopted from animals where id = :id")
+                .bind("id", animalId)
+                .fetch()
+                .one()
+                .block();
+        assertThat(process.get("status")).isIn("APPROVED", "REJECTED");
+        assertThat(process.get("version")).isEqualTo(1L);
+        boolean approved = "APPROVED".equals(process.get("status"));
+        assertThat(animal.get("is_available")).isEqualTo(!approved);
+        assertThat(animal.get("has_been_adopted")).isEqualTo(approved);
+    }
+
+    @Test
+    public void givenMoves_whenSent_thenOnlyLegalMovesFromTheCurrentStatusSucceed() {
+        assertThat(transition(AdoptionProcessStatus.PENDING, AdoptionProcessStatus.PENDING).block()).isEqualTo(400);
+        assertThat(transition(AdoptionProcessStatus.APPROVED, AdoptionProcessStatus.IN_PROGRESS).block()).isEqualTo(400);
+
+        assertThat(transition(AdoptionProcessStatus.IN_PROGRESS, AdoptionProcessStatus.REJECTED).block()).isEqualTo(409);
+        assertThat(transition(AdoptionProcessStatus.PENDING, AdoptionProcessStatus.REJECTED).block()).isEqualTo(200);
+        assertThat(transition(AdoptionProcessStatus.REJECTED, AdoptionProcessStatus.IN_PROGRESS).block()).isEqualTo(200);
+    }
+
+    @Test
+    public void givenAnimalAlreadyAdopted_whenAnotherProcessIsApproved_thenItIsRejected() {
+        Long otherProcessId = databaseClient.sql("""
+                        insert into adoption_process (process_number, adopter_id, animal_id, volunteer_id, status)
+                        select 'CAS-2', adopter_id, animal_id, volunteer_id, 'PENDING'
+                        from adoption_process
+                        where id = :id
+                        returning id""")
+                .bind("id", processId)
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .block();
+
+        assertThat(transition(AdoptionProcessStatus.PENDING, AdoptionProcessStatus.APPROVED).block()).isEqualTo(200);
+        assertThat(transition(otherProcessId, AdoptionProcessStatus.PENDING, AdoptionProcessStatus.APPROVED).block()).isEqualTo(409);
+
+        String otherStatus = databaseClient.sql("select status from adoption_process where id = :id")
+                .bind("id", otherProcessId)
+                .map(row -> row.get("status", String.class))
+                .one()
+                .block();
+        assertThat(otherStatus).isEqualTo("PENDING");
+    }
+
+    @Test
+    public void givenNewProcess_whenCreated_thenItStartsInProgressAndOtherStatusesAreRejected() {
+        AdoptionProcessDTO process = webClient.get()
+                .uri("/{id}", processId)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + getAdminToken())
+                .retrieve()
+                .bodyToMono(AdoptionProcessDTO.class)
+                .block();
+        String body = "{\"processNumber\": \"CAS-%s\", \"adopterId\": %d, \"animalId\": %d, \"volunteerId\": %d%s}";
+
+        AdoptionProcessDTO created = webClient.post()
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + getAdminToken())
+                .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                .bodyValue(body.formatted("NEW", process.adopterId(), process.animalId(), process.volunteerId(), ""))
+                .retrieve()
+                .bodyToMono(AdoptionProcessDTO.class)
+                .block();
+        Integer status = webClient.post()
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + getAdminToken())
+                .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                .bodyValue(body.formatted("APPROVED", process.adopterId(), process.animalId(), process.volunteerId(),
+                        ", \"status\": \"APPROVED\""))
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()))
+                .block();
+
+        assertThat(created.status()).isEqualTo(AdoptionProcessStatus.IN_PROGRESS);
+        assertThat(status).isEqualTo(400);
+    }
+
+    @Test
+    public void givenStatusChange_whenUpdated_thenItIsRejected() {
+        Integer status = webClient.put()
+                .uri("/{id}", processId)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + getAdminToken())
+                .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                .bodyValue("{\"status\": \"APPROVED\"}")
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()))
+                .block();
+
+        assertThat(status).isEqualTo(400);
+    }
+
+    @Test
+    public void givenFilters_whenSearched_thenOnlyMatchingProcessesArePagedThrough() {
+        databaseClient.sql("""
+                        insert into adoption_process (process_number, adopter_id, animal_id, volunteer_id, status, inspection_date)
+                        select 'CAS-' || n, adopter_id, animal_id, volunteer_id,
+                               case when n % 2 = 0 then 'IN_PROGRESS' else 'APPROVED' end,
+                               timestamp '2026-10-19 10:00' + n * interval '1 day'
+                        from adoption_process, generate_series(2, 11) n
+                        where id = :id""")
+                .bind("id", processId)
+                .then()
+                .block();
+
+        AdoptionProcessPageDTO first = search("status=IN_PROGRESS&status=PENDING&size=2"
+                + "&inspectionFrom=2026-10-20T00:00:00&inspectionTo=2026-10-27T00:00:00");
+        AdoptionProcessPageDTO second = search("status=IN_PROGRESS&status=PENDING&size=2"
+                + "&inspectionFrom=2026-10-20T00:00:00&inspectionTo=2026-10-27T00:00:00&after=" + first.next());
+
+        assertThat(first.content()).extracting(AdoptionProcessDTO::processNumber).containsExactly("CAS-2", "CAS-4");
+        assertThat(second.content()).extracting(AdoptionProcessDTO::processNumber).containsExactly("CAS-6");
+        assertThat(second.next()).isNull();
+    }
+
+    @Test
+    public void givenExpand_whenListed_thenAdopterAnimalAndVolunteerAreEmbedded() {
+        AdoptionProcessDTO expanded = list("adopter,animal,volunteer");
+        AdoptionProcessDTO plain = list(null);
+
+        assertThat(expanded.adopter().name()).isEqualTo("CAS Adopter");
+        assertThat(expanded.animal().code()).isEqualTo("CAS-1");
+        assertThat(expanded.animal().id()).isEqualTo(animalId);
+        assertThat(expanded.volunteer().name()).isEqualTo("CAS-volunteer");
+        assertThat(expanded.volunteer().days()).containsExactlyInAnyOrder(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.SATURDAY);
+        assertThat(expanded.volunteer().scheduleString()).isEqualTo("Days: MON, WED, SAT from 09:00 to 13:00");
+        assertThat(expanded.status()).isEqualTo(AdoptionProcessStatus.PENDING);
+        assertThat(plain.adopter()).isNull();
+        assertThat(plain.animal()).isNull();
+        assertThat(plain.volunteer()).isNull();
+        assertThat(plain.animalId()).isEqualTo(animalId);
+    }
+
+    @Test
+    public void givenUnknownExpand_whenListed_thenItIsRejected() {
+        Integer status = webClient.get()
+                .uri("?expand=owner")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + getAdminToken())
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()))
+                .block();
+
+        assertThat(status).isEqualTo(400);
+    }
+
+    private AdoptionProcessDTO list(String expand) {
+        return webClient.get()
+                .uri(uri -> uri.queryParamIfPresent("expand", Optional.ofNullable(expand)).build())
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + getAdminToken())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(AdoptionProcessDTO.class)
+                .filter(process -> process.id().equals(processId))
+                .single()
+                .block();
+    }
+
+    private AdoptionProcessPageDTO search(String query) {
+        return webClient.get()
+                .uri("/search?" + query)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + getAdminToken())
+                .retrieve()
+                .bodyToMono(AdoptionProcessPageDTO.class)
+                .block();
+    }
+
+    private Mono<Integer> transition(AdoptionProcessStatus from, AdoptionProcessStatus to) {
+        return transition(processId, from, to);
+    }
+
+    private Mono<Integer> transition(Long id, AdoptionProcessStatus from, AdoptionProcessStatus to) {
+        return webClient.post()
+                .uri("/{id}/transitions", id)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + getAdminToken())
+                .bodyValue(new AdoptionProcessTransitionDTO(from, to))
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()));
+    }
+
+    private Long insert(String sql) {
+        return databaseClient.sql(sql)
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .block();
+    }
 }
@@ -0,0 +1,132 @@
+package com.jme.adopterdla.adopterdla.processes;
+
+import com.jme.adopterdla.adopterdla.AbstractUtilsBaseTest;
+import com.jme.adopterdla.adopterdla.processes.dto.AdoptionProcessPageDTO;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency benchmark of {@code GET /api/adoption-processes/search} on a large history, for the coordinators' query:
+ * the open processes due for inspection in the coming week.
+ * <p>
+ * The history spreads the processes over the last five years, most of them approved or rejected. The p50 and p99
+ * latencies are logged rather than asserted, as they depend on the machine. The number of rows can be lowered with
+ * {@code -Dbenchmark.rows=<n>} for quick local runs.
+ * <p>
+ * Seeding a million processes takes minutes, so it only runs with
+ * {@code mvn test -Pload-test -Dtest=AdoptionProcessSearchBenchmarkTest}.
+ */
+@Tag("load-test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+// Web TRACE logging would print every request
+@TestPropertySource(properties = "logging.level.org.springframework.web=INFO")
+@Log4j2
+public class AdoptionProcessSearchBenchmarkTest extends AbstractUtilsBaseTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final int WARMUP = 200;
+    private static final int SEARCHES = 1_000;
+
+    private final WebClient webClient = WebClient.builder()
+            .baseUrl("http://localhost:8080/api/adoption-processes")
+            .build();
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    public void setUp() {
+        Long animalId = insert("""
+                insert into animals (code, name, breed, gender, age, vaccinated, castrated, wormed, is_available)
+                values ('BENCH-PROCESS', 'BENCH-PROCESS', 'Mixed', 'MALE', '3', true, true, true, true)
+                returning id""");
+        Long scheduleId = insert("""
+                insert into schedules (days, start_time_hour, start_time_minute, end_time_hour, end_time_minute)
+                values ('{1,3,6}', 9, 0, 13, 0)
+                returning id""");
+        Long volunteerId = databaseClient.sql("insert into volunteers (name, schedule_id, active) values ('BENCH-volunteer', :scheduleId, true) returning id")
+                .bind("scheduleId", scheduleId)
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .block();
+        Long adopterId = insert("insert into adopters (name, email) values ('Bench Adopter', 'bench-adopter@example.com') returning id");
+        // One process in ten is still open, the rest were closed; inspections go from five years ago to a month ahead
+        databaseClient.sql("""
+                        insert into adoption_process (process_number, adopter_id, animal_id, volunteer_id, status, inspection_date)
+                        select 'BENCH-' || n, :adopterId, :animalId, :volunteerId,
+                               case n % 20 when 0 then 'IN_PROGRESS' when 1 then 'PENDING'
+                                           when 2 then 'REJECTED' else 'APPROVED' end,
+                               now() - (n % 1855 - 30) * interval '1 day'
+                        from generate_series(1, :rows) n""")
+                .bind("adopterId", adopterId)
+                .bind("animalId", animalId)
+                .bind("volunteerId", volunteerId)
+                .bind("rows", ROWS)
+                .then()
+                .then(databaseClient.sql("analyze adoption_process").then())
+                .block();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        databaseClient.sql("delete from adoption_process where process_number like 'BENCH-%'").then()
+                .then(databaseClient.sql("delete from adopters where email = 'bench-adopter@example.com'").then())
+                .then(databaseClient.sql("delete from animals where code = 'BENCH-PROCESS'").then())
+                .then(databaseClient.sql("delete from volunteers where name = 'BENCH-volunteer'").then())
+                .block();
+    }
+
+    @Test
+    public void givenLargeHistory_whenSearchingOpenProcessesDueThisWeek_thenLatencyIsLogged() {
+        LocalDate today = LocalDate.now();
+        String query = "status=IN_PROGRESS&status=PENDING&inspectionFrom=%sT00:00:00&inspectionTo=%sT00:00:00"
+                .formatted(today, today.plusWeeks(1));
+
+        for (int i = 0; i < WARMUP; i++) {
+            search(query);
+        }
+        List<Long> latencies = new ArrayList<>(SEARCHES);
+        for (int i = 0; i < SEARCHES; i++) {
+            long start = System.nanoTime();
+            AdoptionProcessPageDTO page = search(query);
+            latencies.add(System.nanoTime() - start);
+            assertThat(page.content()).isNotEmpty();
+        }
+
+        Collections.sort(latencies);
+        log.info("Searching open processes due this week among {} processes: p50 {} µs, p99 {} µs",
+                ROWS, latencies.get(SEARCHES / 2) / 1_000, latencies.get(SEARCHES * 99 / 100) / 1_000);
+    }
+
+    private AdoptionProcessPageDTO search(String query) {
+        return webClient.get()
+                .uri("/search?" + query)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + getAdminToken())
+                .retrieve()
+                .bodyToMono(AdoptionProcessPageDTO.class)
+                .block();
+    }
+
+    private Long insert(String sql) {
+        return databaseClient.sql(sql)
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .block();
+    }
+}
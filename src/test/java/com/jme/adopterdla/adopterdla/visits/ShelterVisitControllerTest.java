@@ -0,0 +1,103 @@
+package com.jme.adopterdla.adopterdla.visits;
+
+import com.jme.adopterdla.adopterdla.AbstractUtilsBaseTest;
+import com.jme.adopterdla.adopterdla.animals.entity.Animal;
+import com.jme.adopterdla.adopterdla.animals.enums.Gender;
+import com.jme.adopterdla.adopterdla.animals.repository.AnimalRepository;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ShelterVisitControllerTest extends AbstractUtilsBaseTest {
+
+    private static final String BASE_URI = "http://localhost:8080/api/shelter-visits";
+
+    private static Long animalId;
+    private static Integer visitId;
+
+    @Autowired
+    private AnimalRepository animalRepository;
+
+    @Test
+    @Order(1)
+    public void testCreateShelterVisit() {
+
+        var animal = new Animal();
+        // Codes are unique, and the test database may be reused between runs
+        animal.setCode("VISIT-" + System.nanoTime());
+        animal.setName("Rex");
+        animal.setGender(Gender.MALE);
+        animal.setAge("2");
+        animal.setVaccinated(true);
+        animal.setCastrated(true);
+        animal.setWormed(true);
+        animal.setIsAvailable(true);
+        animal.setHasBeenAdopted(false);
+        animalId = animalRepository.save(animal).block().getId();
+
+        visitId = given()
+                .header("Authorization", "Bearer " + getAdminToken())
+                .contentType(ContentType.JSON)
+                .body("""
+                        {
+                          "name": "Jane Doe",
+                          "phone": "555-0100",
+                          "email": "jane.doe@example.com",
+                          "animalId": %d,
+                          "date": "2023-06-01",
+                          "hour": 10,
+                          "minute": 30
+                        }""".formatted(animalId))
+                .when()
+                .post(BASE_URI)
+                .then()
+                .statusCode(200)
+                .contentType(ContentType.JSON)
+                .body("name", equalTo("Jane Doe"))
+                .body("email", equalTo("jane.doe@example.com"))
+                .body("animalId", equalTo(animalId.intValue()))
+                .body("date", equalTo("2023-06-01"))
+                .body("hour", equalTo(10))
+                .body("minute", equalTo(30))
+                .extract().path("id");
+    }
+
+    @Test
+    @Order(2)
+    public void testGetShelterVisit() {
+        given()
+                .header("Authorization", "Bearer " + getAdminToken())
+                .pathParam("id", visitId)
+                .when()
+                .get(BASE_URI + "/{id}")
+                .then()
+                .statusCode(200)
+                .contentType(ContentType.JSON)
+                .body("name", equalTo("Jane Doe"))
+                .body("phone", equalTo("555-0100"))
+                .body("adopterIdId", notNullValue());
+    }
+
+    @Test
+    @Order(3)
+    public void testGetAllShelterVisits() {
+        given()
+                .header("Authorization", "Bearer " + getAdminToken())
+                .when()
+                .get(BASE_URI)
+                .then()
+                .statusCode(200)
+                .contentType(ContentType.JSON)
+                .body("$.size()", greaterThan(0))
+                .body("id", hasItem(visitId));
+    }
+}
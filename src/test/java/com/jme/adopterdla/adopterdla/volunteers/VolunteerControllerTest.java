@@ -0,0 +1,103 @@
+package com.jme.adopterdla.adopterdla.volunteers;
+
+import com.jme.adopterdla.adopterdla.AbstractUtilsBaseTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.RestAssured.withArgs;
+import static org.hamcrest.Matchers.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class VolunteerControllerTest extends AbstractUtilsBaseTest {
+
+    private static final String BASE_URI = "http://localhost:8080/api/volunteers";
+
+    private static final String SCHEDULE_STRING = "Days: MON, WED from 09:00 to 13:30";
+
+    private static Integer volunteerId;
+
+    @Test
+    @Order(1)
+    public void testCreateVolunteer() {
+        volunteerId = given()
+                .header("Authorization", "Bearer " + getAdminToken())
+                .contentType(ContentType.JSON)
+                .body("""
+                        {
+                          "name": "Ana Volunteer",
+                          "notes": "Weekday mornings",
+                          "days": ["MONDAY", "WEDNESDAY"],
+                          "startTimeHour": 9,
+                          "startTimeMinute": 0,
+                          "endTimeHour": 13,
+                          "endTimeMinute": 30,
+                          "phone": "600000000",
+                          "email": "ana.volunteer@example.com",
+                          "active": true
+                        }""")
+                .when()
+                .post(BASE_URI)
+                .then()
+                .statusCode(200)
+                .contentType(ContentType.JSON)
+                .body("id", notNullValue())
+                .body("scheduleId", notNullValue())
+                .extract()
+                .path("id");
+    }
+
+    @Test
+    @Order(2)
+    public void testGetVolunteer() {
+        given()
+                .header("Authorization", "Bearer " + getAdminToken())
+                .pathParam("id", volunteerId)
+                .when()
+                .get(BASE_URI + "/{id}")
+                .then()
+                .statusCode(200)
+                .contentType(ContentType.JSON)
+                .body("name", equalTo("Ana Volunteer"))
+                .body("notes", equalTo("Weekday mornings"))
+                .body("email", equalTo("ana.volunteer@example.com"))
+                .body("active", equalTo(true))
+                .body("days", containsInAnyOrder("MONDAY", "WEDNESDAY"))
+                .body("startTimeHour", equalTo(9))
+                .body("endTimeMinute", equalTo(30))
+                .body("scheduleString", equalTo(SCHEDULE_STRING));
+    }
+
+    @Test
+    @Order(2)
+    public void testGetAllVolunteers() {
+        given()
+                .header("Authorization", "Bearer " + getAdminToken())
+                .accept(ContentType.JSON)
+                .when()
+                .get(BASE_URI)
+                .then()
+                .statusCode(200)
+                .contentType(ContentType.JSON)
+                .body("find { it.id == %s }.name", withArgs(volunteerId), equalTo("Ana Volunteer"))
+                .body("find { it.id == %s }.days", withArgs(volunteerId), containsInAnyOrder("MONDAY", "WEDNESDAY"))
+                .body("find { it.id == %s }.scheduleString", withArgs(volunteerId), equalTo(SCHEDULE_STRING));
+    }
+
+    @Test
+    @Order(3)
+    public void testDeleteVolunteer() {
+        given()
+                .header("Authorization", "Bearer " + getAdminToken())
+                .pathParam("id", volunteerId)
+                .when()
+                .delete(BASE_URI + "/{id}")
+                .then()
+                .statusCode(200);
+    }
+}
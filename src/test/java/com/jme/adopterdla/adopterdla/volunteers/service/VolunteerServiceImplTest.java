@@ -0,0 +1,103 @@
+package com.jme.adopterdla.adopterdla.volunteers.service;
+
+import com.jme.adopterdla.adopterdla.common.entity.Schedule;
+import com.jme.adopterdla.adopterdla.common.entity.repository.ScheduleRepository;
+import com.jme.adopterdla.adopterdla.common.utils.AzurePersistImageUtils;
+import com.jme.adopterdla.adopterdla.configs.security.service.CachingUserDetailsService;
+import com.jme.adopterdla.adopterdla.user.entity.User;
+import com.jme.adopterdla.adopterdla.user.repository.UserRepository;
+import com.jme.adopterdla.adopterdla.volunteers.dto.VolunteerDTO;
+import com.jme.adopterdla.adopterdla.volunteers.entity.Volunteer;
+import com.jme.adopterdla.adopterdla.volunteers.mapper.VolunteerMapper;
+import com.jme.adopterdla.adopterdla.volunteers.repository.VolunteerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.DayOfWeek;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class VolunteerServiceImplTest {
+
+    private static final String NEW_IMAGE_URL = "https://blobs/new.png";
+
+    private final VolunteerRepository volunteerRepository = mock(VolunteerRepository.class);
+    private final ScheduleRepository scheduleRepository = mock(ScheduleRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final AzurePersistImageUtils azurePersistImageUtils = mock(AzurePersistImageUtils.class);
+    private final TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+
+    private final VolunteerServiceImpl volunteerService = new VolunteerServiceImpl(volunteerRepository, scheduleRepository,
+            userRepository, Mappers.getMapper(VolunteerMapper.class), azurePersistImageUtils,
+            mock(CachingUserDetailsService.class), transactionalOperator);
+
+    private final FilePart photo = mock(FilePart.class);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(photo.filename()).thenReturn("photo.png");
+        when(photo.content()).thenReturn(Flux.just((DataBuffer) DefaultDataBufferFactory.sharedInstance.wrap(new byte[]{1})));
+        when(azurePersistImageUtils.getExtensionByStringHandling("photo.png")).thenReturn(Optional.of("png"));
+        when(azurePersistImageUtils.saveImageData(any(Flux.class), eq("png"))).thenReturn(Mono.just(NEW_IMAGE_URL));
+        when(azurePersistImageUtils.releaseImage(anyString())).thenReturn(Mono.empty());
+        when(scheduleRepository.save(any(Schedule.class))).thenAnswer(invocation -> {
+            Schedule schedule = invocation.getArgument(0);
+            schedule.setId(1L);
+            return Mono.just(schedule);
+        });
+    }
+
+    @Test
+    public void givenMissingVolunteer_whenUpdatedWithPhoto_thenNothingIsReturnedAndTheUploadedPhotoIsReleased() {
+        when(volunteerRepository.findById(1L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(volunteerService.save(volunteer(1L), photo)).verifyComplete();
+        verify(azurePersistImageUtils).releaseImage(NEW_IMAGE_URL);
+    }
+
+    @Test
+    public void givenFailedSave_whenCreatedWithPhoto_thenTheUploadedPhotoIsReleased() {
+        when(userRepository.save(any(User.class))).thenReturn(Mono.error(new DataIntegrityViolationException("Duplicate user")));
+        when(volunteerRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(volunteerService.save(volunteer(null), photo))
+                .verifyError(DataIntegrityViolationException.class);
+        verify(azurePersistImageUtils).releaseImage(NEW_IMAGE_URL);
+    }
+
+    @Test
+    public void givenVolunteerWithPhoto_whenDeleted_thenThePhotoIsReleased() {
+        Volunteer volunteer = new Volunteer(true, null, 1L);
+        volunteer.setId(1L);
+        volunteer.setImageUrl(NEW_IMAGE_URL);
+        when(volunteerRepository.findById(1L)).thenReturn(Mono.just(volunteer));
+        when(volunteerRepository.deleteById(1L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(volunteerService.deleteById(1L)).verifyComplete();
+        verify(volunteerRepository).deleteById(1L);
+        verify(azurePersistImageUtils).releaseImage(NEW_IMAGE_URL);
+    }
+
+    private VolunteerDTO volunteer(Long id) {
+        return new VolunteerDTO(id, null, null, Set.of(DayOfWeek.MONDAY), 9, 0, 13, 0, "Ana", null, null, null,
+                "ana@example.com", null, true, null);
+    }
+}